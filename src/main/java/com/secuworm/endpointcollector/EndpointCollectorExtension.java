@@ -52,7 +52,7 @@ public class EndpointCollectorExtension implements BurpExtension {
         );
         Registration hotKeyRegistration = registerHotKeyIfSupported(api, scanController, logger);
         api.extension().registerUnloadingHandler(() ->
-            onExtensionUnloaded(scanController, logger, suiteTabRegistration, contextMenuRegistration, hotKeyRegistration)
+            onExtensionUnloaded(scanController, scanService, logger, suiteTabRegistration, contextMenuRegistration, hotKeyRegistration)
         );
         api.userInterface().applyThemeToComponent(tabView.getRootComponent());
         logger.info("Extension loaded.");
@@ -60,12 +60,14 @@ public class EndpointCollectorExtension implements BurpExtension {
 
     private void onExtensionUnloaded(
         ScanController scanController,
+        ScanService scanService,
         ExtensionLogger logger,
         Registration suiteTabRegistration,
         Registration contextMenuRegistration,
         Registration hotKeyRegistration
     ) {
         scanController.onExtensionUnloaded();
+        scanService.close();
         safeDeregister(hotKeyRegistration);
         safeDeregister(contextMenuRegistration);
         safeDeregister(suiteTabRegistration);
@@ -1,19 +1,32 @@
 package com.secuworm.endpointcollector.application;
 
 import com.secuworm.endpointcollector.burpadapter.HistoryItemPayload;
+import com.secuworm.endpointcollector.domain.CandidateSink;
 import com.secuworm.endpointcollector.domain.EndpointCandidate;
 import com.secuworm.endpointcollector.domain.EndpointExtractor;
 import com.secuworm.endpointcollector.domain.EndpointNormalizer;
 import com.secuworm.endpointcollector.domain.EndpointRecord;
 import com.secuworm.endpointcollector.domain.EndpointRepository;
+import com.secuworm.endpointcollector.domain.ExtractionCache;
+import com.secuworm.endpointcollector.domain.ExtractionCancelledException;
+import com.secuworm.endpointcollector.domain.ExtractionContext;
+import com.secuworm.endpointcollector.domain.NormalizationContext;
+import com.secuworm.endpointcollector.domain.PersistentExtractionCache;
 import com.secuworm.endpointcollector.domain.ScanResult;
+import com.secuworm.endpointcollector.domain.Utf8ByteSequence;
 import com.secuworm.endpointcollector.infra.AppConfig;
 import com.secuworm.endpointcollector.infra.ExtensionLogger;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BooleanSupplier;
 
 public class ScanService {
@@ -21,9 +34,11 @@ public class ScanService {
     private final EndpointNormalizer normalizer;
     private final EndpointRepository repository;
     private final ExtensionLogger logger;
+    private final ExtractionCache extractionCache;
+    private final PersistentExtractionCache diskCache;
 
     public ScanService(ExtensionLogger logger) {
-        this(new EndpointExtractor(), new EndpointNormalizer(), new EndpointRepository(), logger);
+        this(new EndpointExtractor(), new EndpointNormalizer(), new EndpointRepository(), logger, openConfiguredDiskCache(logger));
     }
 
     public ScanService(
@@ -31,29 +46,53 @@ public class ScanService {
         EndpointNormalizer normalizer,
         EndpointRepository repository,
         ExtensionLogger logger
+    ) {
+        this(extractor, normalizer, repository, logger, null);
+    }
+
+    public ScanService(
+        EndpointExtractor extractor,
+        EndpointNormalizer normalizer,
+        EndpointRepository repository,
+        ExtensionLogger logger,
+        PersistentExtractionCache diskCache
     ) {
         this.extractor = extractor == null ? new EndpointExtractor() : extractor;
         this.normalizer = normalizer == null ? new EndpointNormalizer() : normalizer;
         this.repository = repository == null ? new EndpointRepository() : repository;
         this.logger = logger;
+        this.extractionCache = new ExtractionCache(AppConfig.EXTRACTION_CACHE_MAX_ENTRIES);
+        this.diskCache = diskCache;
     }
 
     public ScanResult scan(
         List<HistoryItemPayload> historyItems,
         ProgressCallback progressCallback,
         BooleanSupplier shouldStop
+    ) {
+        return scan(historyItems, progressCallback, shouldStop, null);
+    }
+
+    public ScanResult scan(
+        List<HistoryItemPayload> historyItems,
+        ProgressCallback progressCallback,
+        BooleanSupplier shouldStop,
+        PhaseListener phaseListener
     ) {
         long startedAt = System.currentTimeMillis();
         List<HistoryItemPayload> items = historyItems == null ? new ArrayList<>() : new ArrayList<>(historyItems);
 
         repository.clear();
+        extractor.getMetrics().reset();
         int totalItems = items.size();
         int processedItems = 0;
         int totalCandidates = 0;
         int errorCount = 0;
+        boolean stopped = false;
+        Map<ExtractionCache.Key, DeferredItem> pendingItems = new LinkedHashMap<>();
 
         for (int start = 0; start < totalItems; start += AppConfig.SCAN_BATCH_SIZE) {
-            if (shouldStopRequested(shouldStop)) {
+            if (stopped || shouldStopRequested(shouldStop)) {
                 break;
             }
             int end = Math.min(start + AppConfig.SCAN_BATCH_SIZE, totalItems);
@@ -63,55 +102,107 @@ public class ScanService {
                 }
 
                 HistoryItemPayload payload = items.get(i);
+                RepositorySink sink = null;
                 try {
                     if (payload == null) {
                         continue;
                     }
-                    String responseText = payload.getResponseText() == null ? "" : payload.getResponseText();
                     String contentType = payload.getContentType() == null ? "" : payload.getContentType();
                     String sourceUrl = payload.getSourceUrl() == null ? "" : payload.getSourceUrl();
-                    String sourceRequestMethod = payload.getSourceRequestMethod();
-
-                    List<EndpointCandidate> candidates = extractor.extract(responseText, contentType, sourceUrl);
-                    totalCandidates += candidates.size();
-                    for (EndpointCandidate candidate : candidates) {
-                        String endpointUrl = normalizer.normalize(candidate, sourceUrl);
-                        if (endpointUrl == null) {
-                            continue;
-                        }
-                        repository.upsert(
-                            endpointUrl,
-                            extractHost(endpointUrl),
-                            sourceUrl,
-                            sourceRequestMethod,
-                            payload.getSourceRequestHeaders()
-                        );
-                    }
+
+                    ExtractionContext context = ExtractionContext.withBudget(
+                        AppConfig.ITEM_EXTRACTION_BUDGET_MILLIS,
+                        () -> shouldStopRequested(shouldStop)
+                    ).deferringAst();
+                    sink = new RepositorySink(payload, sourceUrl);
+                    extractCandidates(payload, contentType, sourceUrl, context, pendingItems, sink);
+                    sink.commit();
+                    totalCandidates += sink.getAccepted();
+                } catch (ExtractionCancelledException ex) {
+                    discard(sink);
+                    stopped = true;
+                    break;
                 } catch (Exception ex) {
+                    discard(sink);
                     errorCount += 1;
                     logError("scan item failed: " + ex.getMessage());
                 } finally {
-                    processedItems += 1;
+                    if (!stopped) {
+                        processedItems += 1;
+                    }
                 }
             }
 
-            if (progressCallback != null) {
-                try {
-                    progressCallback.onProgress(totalItems, processedItems, errorCount, repository.size());
-                } catch (Exception ex) {
-                    logError("progress callback failed: " + ex.getMessage());
+            reportProgress(progressCallback, totalItems, processedItems, errorCount);
+        }
+
+        long patternPhaseMs = System.currentTimeMillis() - startedAt;
+        List<DeferredItem> deferredItems = new ArrayList<>(pendingItems.values());
+        if (phaseListener != null && !stopped) {
+            try {
+                phaseListener.onPatternPhaseCompleted(new ScanResult(
+                    totalItems,
+                    processedItems,
+                    totalCandidates,
+                    repository.size(),
+                    errorCount,
+                    patternPhaseMs,
+                    patternPhaseMs,
+                    0L,
+                    0,
+                    extractor.getMetrics().snapshot()
+                ));
+            } catch (Exception ex) {
+                logError("phase listener failed: " + ex.getMessage());
+            }
+        }
+
+        long astStartedAt = System.currentTimeMillis();
+        int enrichedItems = 0;
+        for (int i = 0; i < deferredItems.size() && !stopped; i++) {
+            if (shouldStopRequested(shouldStop)) {
+                break;
+            }
+            DeferredItem item = deferredItems.get(i);
+            try {
+                ExtractionContext context = ExtractionContext.withBudget(
+                    AppConfig.ITEM_EXTRACTION_BUDGET_MILLIS,
+                    () -> shouldStopRequested(shouldStop)
+                );
+                List<EndpointCandidate> astCandidates = enrichCandidates(item, context);
+                totalCandidates += astCandidates.size();
+                publishCandidates(item.payload, item.sourceUrl, astCandidates);
+                enrichedItems += 1;
+                for (HistoryItemPayload follower : item.followers) {
+                    String followerUrl = follower.getSourceUrl() == null ? "" : follower.getSourceUrl();
+                    List<EndpointCandidate> rebound = rebind(astCandidates, followerUrl);
+                    totalCandidates += rebound.size();
+                    publishCandidates(follower, followerUrl, rebound);
+                    enrichedItems += 1;
                 }
+            } catch (ExtractionCancelledException ex) {
+                stopped = true;
+            } catch (Exception ex) {
+                errorCount += 1;
+                logError("scan item enrichment failed: " + ex.getMessage());
+            }
+            if ((i + 1) % AppConfig.SCAN_BATCH_SIZE == 0 || i + 1 == deferredItems.size()) {
+                reportProgress(progressCallback, totalItems, processedItems, errorCount);
             }
         }
 
-        long durationMs = System.currentTimeMillis() - startedAt;
+        long finishedAt = System.currentTimeMillis();
         return new ScanResult(
             totalItems,
             processedItems,
             totalCandidates,
             repository.size(),
             errorCount,
-            durationMs
+            finishedAt - startedAt,
+            patternPhaseMs,
+            finishedAt - astStartedAt,
+            enrichedItems,
+            extractor.getMetrics().snapshot()
         );
     }
 
@@ -119,6 +210,186 @@ public class ScanService {
         return repository.getAll();
     }
 
+    public void close() {
+        if (diskCache == null) {
+            return;
+        }
+        try {
+            diskCache.close();
+        } catch (IOException ex) {
+            logError("disk cache close failed: " + ex.getMessage());
+        }
+    }
+
+    private void extractCandidates(
+        HistoryItemPayload payload,
+        String contentType,
+        String sourceUrl,
+        ExtractionContext context,
+        Map<ExtractionCache.Key, DeferredItem> pendingItems,
+        RepositorySink sink
+    ) throws IOException {
+        if (payload.isStreamed()) {
+            try (Reader reader = payload.getBodyReaderSource().open()) {
+                extractor.extract(reader, contentType, sourceUrl, context, sink);
+            }
+            return;
+        }
+        if (payload.isByteBacked()) {
+            byte[] responseBody = payload.getResponseBody();
+            String effectiveContentType = extractor.resolveContentType(contentType, new Utf8ByteSequence(responseBody), sourceUrl);
+            ExtractionCache.Key key = ExtractionCache.keyOf(responseBody, effectiveContentType);
+            List<EndpointCandidate> cached = lookupCachedCandidates(key, payload, sourceUrl, pendingItems);
+            if (cached != null) {
+                sink.acceptAll(cached);
+                return;
+            }
+            List<EndpointCandidate> candidates = sink.retain();
+            extractor.extractWithResolvedType(responseBody, effectiveContentType, sourceUrl, context, sink);
+            storeCachedCandidates(key, payload, effectiveContentType, sourceUrl, candidates, context, pendingItems);
+            return;
+        }
+        String responseText = payload.getResponseText() == null ? "" : payload.getResponseText();
+        String effectiveContentType = extractor.resolveContentType(contentType, responseText, sourceUrl);
+        ExtractionCache.Key key = ExtractionCache.keyOf(responseText, effectiveContentType);
+        List<EndpointCandidate> cached = lookupCachedCandidates(key, payload, sourceUrl, pendingItems);
+        if (cached != null) {
+            sink.acceptAll(cached);
+            return;
+        }
+        List<EndpointCandidate> candidates = sink.retain();
+        extractor.extractWithResolvedType(responseText, effectiveContentType, sourceUrl, context, sink);
+        storeCachedCandidates(key, payload, effectiveContentType, sourceUrl, candidates, context, pendingItems);
+    }
+
+    private List<EndpointCandidate> enrichCandidates(DeferredItem item, ExtractionContext context) {
+        List<EndpointCandidate> astCandidates = item.payload.isByteBacked()
+            ? extractor.extractAstWithResolvedType(item.payload.getResponseBody(), item.effectiveContentType, item.sourceUrl, context)
+            : extractor.extractAstWithResolvedType(item.payload.getResponseText() == null ? "" : item.payload.getResponseText(), item.effectiveContentType, item.sourceUrl, context);
+        Set<String> known = new HashSet<>();
+        for (EndpointCandidate candidate : item.patternCandidates) {
+            known.add(candidateKey(candidate));
+        }
+        List<EndpointCandidate> merged = new ArrayList<>(item.patternCandidates);
+        List<EndpointCandidate> added = new ArrayList<>();
+        for (EndpointCandidate candidate : astCandidates) {
+            if (known.add(candidateKey(candidate))) {
+                added.add(candidate);
+                merged.add(candidate);
+            }
+        }
+        storeCachedCandidates(item.key, merged, item.patternDegraded || context.isDegraded());
+        return added;
+    }
+
+    private void publishCandidates(HistoryItemPayload payload, String sourceUrl, List<EndpointCandidate> candidates) {
+        RepositorySink sink = new RepositorySink(payload, sourceUrl);
+        sink.acceptAll(candidates);
+        sink.commit();
+    }
+
+    private void discard(RepositorySink sink) {
+        if (sink != null) {
+            sink.rollback();
+        }
+    }
+
+    private void reportProgress(ProgressCallback progressCallback, int totalItems, int processedItems, int errorCount) {
+        if (progressCallback == null) {
+            return;
+        }
+        try {
+            progressCallback.onProgress(totalItems, processedItems, errorCount, repository.size());
+        } catch (Exception ex) {
+            logError("progress callback failed: " + ex.getMessage());
+        }
+    }
+
+    private static List<EndpointCandidate> rebind(List<EndpointCandidate> candidates, String sourceUrl) {
+        List<EndpointCandidate> rebound = new ArrayList<>(candidates.size());
+        for (EndpointCandidate candidate : candidates) {
+            rebound.add(new EndpointCandidate(
+                candidate.getRawValue(),
+                sourceUrl,
+                candidate.getContentType(),
+                candidate.getMatchType(),
+                candidate.getOrigin()
+            ));
+        }
+        return rebound;
+    }
+
+    private static String candidateKey(EndpointCandidate candidate) {
+        return candidate.getMatchType() + ' ' + candidate.getRawValue();
+    }
+
+    private List<EndpointCandidate> lookupCachedCandidates(
+        ExtractionCache.Key key,
+        HistoryItemPayload payload,
+        String sourceUrl,
+        Map<ExtractionCache.Key, DeferredItem> pendingItems
+    ) {
+        List<EndpointCandidate> cached = extractionCache.get(key, sourceUrl);
+        if (cached == null && diskCache != null) {
+            cached = diskCache.get(key, extractor.getCacheVersion(), sourceUrl);
+            if (cached != null) {
+                extractionCache.put(key, cached);
+            }
+        }
+        DeferredItem pending = cached == null ? pendingItems.get(key) : null;
+        if (pending != null) {
+            pending.followers.add(payload);
+            cached = rebind(pending.patternCandidates, sourceUrl);
+        }
+        extractor.getMetrics().recordCacheLookup(cached != null);
+        return cached;
+    }
+
+    private void storeCachedCandidates(
+        ExtractionCache.Key key,
+        HistoryItemPayload payload,
+        String effectiveContentType,
+        String sourceUrl,
+        List<EndpointCandidate> candidates,
+        ExtractionContext context,
+        Map<ExtractionCache.Key, DeferredItem> pendingItems
+    ) {
+        if (context.hasPendingAst()) {
+            pendingItems.put(key, new DeferredItem(key, payload, effectiveContentType, sourceUrl, candidates, context.isDegraded()));
+            return;
+        }
+        storeCachedCandidates(key, candidates, context.isDegraded());
+    }
+
+    private void storeCachedCandidates(ExtractionCache.Key key, List<EndpointCandidate> candidates, boolean degraded) {
+        if (degraded) {
+            return;
+        }
+        extractionCache.put(key, candidates);
+        if (diskCache == null) {
+            return;
+        }
+        try {
+            diskCache.put(key, extractor.getCacheVersion(), candidates);
+        } catch (IOException ex) {
+            logError("disk cache write failed: " + ex.getMessage());
+        }
+    }
+
+    private static PersistentExtractionCache openConfiguredDiskCache(ExtensionLogger logger) {
+        if (!AppConfig.isDiskCacheEnabled()) {
+            return null;
+        }
+        try {
+            return PersistentExtractionCache.open(AppConfig.diskCacheDirectory(), AppConfig.DISK_CACHE_MAX_BYTES);
+        } catch (IOException | RuntimeException ex) {
+            if (logger != null) {
+                logger.error("disk cache disabled: " + ex.getMessage());
+            }
+            return null;
+        }
+    }
+
     private String extractHost(String endpointUrl) {
         try {
             URI uri = new URI(endpointUrl);
@@ -156,4 +427,102 @@ public class ScanService {
     public interface ProgressCallback {
         void onProgress(int totalItems, int processedItems, int errorCount, int uniqueEndpoints);
     }
+
+    public interface PhaseListener {
+        void onPatternPhaseCompleted(ScanResult patternResult);
+    }
+
+    private class RepositorySink implements CandidateSink {
+        private final HistoryItemPayload payload;
+        private final String sourceUrl;
+        private final NormalizationContext normalization;
+        private final List<EndpointRepository.Upsert> pending = new ArrayList<>();
+        private final EndpointRepository.UpsertScope scope = new EndpointRepository.UpsertScope();
+        private List<EndpointCandidate> retained;
+        private int accepted;
+
+        private RepositorySink(HistoryItemPayload payload, String sourceUrl) {
+            this.payload = payload;
+            this.sourceUrl = sourceUrl;
+            this.normalization = normalizer.prepare(sourceUrl);
+        }
+
+        @Override
+        public void accept(EndpointCandidate candidate) {
+            accepted += 1;
+            if (retained != null) {
+                retained.add(candidate);
+            }
+            String endpointUrl = normalizer.normalize(candidate, normalization);
+            if (endpointUrl == null) {
+                return;
+            }
+            pending.add(new EndpointRepository.Upsert(
+                endpointUrl,
+                extractHost(endpointUrl),
+                sourceUrl,
+                payload.getSourceRequestMethod(),
+                payload.getSourceRequestHeaders(),
+                candidate.getOrigin()
+            ));
+            if (pending.size() >= AppConfig.REPOSITORY_UPSERT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void acceptAll(List<EndpointCandidate> candidates) {
+            for (EndpointCandidate candidate : candidates) {
+                accept(candidate);
+            }
+        }
+
+        private List<EndpointCandidate> retain() {
+            retained = new ArrayList<>();
+            return retained;
+        }
+
+        private void commit() {
+            flush();
+        }
+
+        private void rollback() {
+            pending.clear();
+            repository.rollback(scope);
+        }
+
+        private void flush() {
+            repository.upsertAll(pending, scope);
+            pending.clear();
+        }
+
+        private int getAccepted() {
+            return accepted;
+        }
+    }
+
+    private static class DeferredItem {
+        private final ExtractionCache.Key key;
+        private final HistoryItemPayload payload;
+        private final String effectiveContentType;
+        private final String sourceUrl;
+        private final List<EndpointCandidate> patternCandidates;
+        private final boolean patternDegraded;
+        private final List<HistoryItemPayload> followers = new ArrayList<>();
+
+        private DeferredItem(
+            ExtractionCache.Key key,
+            HistoryItemPayload payload,
+            String effectiveContentType,
+            String sourceUrl,
+            List<EndpointCandidate> patternCandidates,
+            boolean patternDegraded
+        ) {
+            this.key = key;
+            this.payload = payload;
+            this.effectiveContentType = effectiveContentType;
+            this.sourceUrl = sourceUrl;
+            this.patternCandidates = patternCandidates;
+            this.patternDegraded = patternDegraded;
+        }
+    }
 }
@@ -2,6 +2,9 @@ package com.secuworm.endpointcollector.burpadapter;
 
 import com.secuworm.endpointcollector.domain.RequestHeader;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,6 +13,8 @@ public class HistoryItemPayload {
     private final String sourceUrl;
     private final String contentType;
     private final String responseText;
+    private final byte[] responseBody;
+    private final BodyReaderSource bodyReaderSource;
     private final int responseSizeBytes;
     private final String sourceRequestMethod;
     private final List<RequestHeader> sourceRequestHeaders;
@@ -21,10 +26,37 @@ public class HistoryItemPayload {
         int responseSizeBytes,
         String sourceRequestMethod,
         List<RequestHeader> sourceRequestHeaders
+    ) {
+        this(sourceUrl, contentType, responseText, null, responseSizeBytes, sourceRequestMethod, sourceRequestHeaders);
+    }
+
+    public HistoryItemPayload(
+        String sourceUrl,
+        String contentType,
+        String responseText,
+        BodyReaderSource bodyReaderSource,
+        int responseSizeBytes,
+        String sourceRequestMethod,
+        List<RequestHeader> sourceRequestHeaders
+    ) {
+        this(sourceUrl, contentType, responseText, null, bodyReaderSource, responseSizeBytes, sourceRequestMethod, sourceRequestHeaders);
+    }
+
+    public HistoryItemPayload(
+        String sourceUrl,
+        String contentType,
+        String responseText,
+        byte[] responseBody,
+        BodyReaderSource bodyReaderSource,
+        int responseSizeBytes,
+        String sourceRequestMethod,
+        List<RequestHeader> sourceRequestHeaders
     ) {
         this.sourceUrl = sourceUrl;
         this.contentType = contentType;
         this.responseText = responseText;
+        this.responseBody = responseBody;
+        this.bodyReaderSource = bodyReaderSource;
         this.responseSizeBytes = responseSizeBytes;
         this.sourceRequestMethod = sourceRequestMethod == null ? "" : sourceRequestMethod;
         this.sourceRequestHeaders = sourceRequestHeaders == null
@@ -45,9 +77,28 @@ public class HistoryItemPayload {
     }
 
     public String getResponseText() {
+        if (responseText == null && responseBody != null) {
+            return new String(responseBody, StandardCharsets.UTF_8);
+        }
         return responseText;
     }
 
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    public boolean isByteBacked() {
+        return responseText == null && responseBody != null;
+    }
+
+    public BodyReaderSource getBodyReaderSource() {
+        return bodyReaderSource;
+    }
+
+    public boolean isStreamed() {
+        return bodyReaderSource != null;
+    }
+
     public int getResponseSizeBytes() {
         return responseSizeBytes;
     }
@@ -59,4 +110,8 @@ public class HistoryItemPayload {
     public List<RequestHeader> getSourceRequestHeaders() {
         return sourceRequestHeaders;
     }
+
+    public interface BodyReaderSource {
+        Reader open() throws IOException;
+    }
 }
@@ -1,13 +1,17 @@
 package com.secuworm.endpointcollector.burpadapter;
 
 import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.ByteArray;
 import burp.api.montoya.http.message.HttpHeader;
 import burp.api.montoya.http.message.HttpRequestResponse;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.responses.HttpResponse;
 import com.secuworm.endpointcollector.domain.RequestHeader;
+import com.secuworm.endpointcollector.infra.AppConfig;
 import com.secuworm.endpointcollector.infra.ExtensionLogger;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -120,13 +124,26 @@ public class HistoryProvider {
         String sourceRequestMethod = request == null ? "" : safe(request.method());
         List<RequestHeader> sourceRequestHeaders = extractRequestHeaders(request);
         String contentType = extractContentType(response);
-        String responseText = safe(response.bodyToString());
-        int responseSize = responseText.getBytes(StandardCharsets.UTF_8).length;
+        ByteArray body = response.body();
+        if (body != null && body.length() > AppConfig.STREAMING_BODY_THRESHOLD_BYTES) {
+            return new HistoryItemPayload(
+                sourceUrl,
+                contentType,
+                null,
+                () -> new InputStreamReader(new BodyInputStream(body), StandardCharsets.UTF_8),
+                body.length(),
+                sourceRequestMethod,
+                sourceRequestHeaders
+            );
+        }
+        byte[] responseBody = body == null ? new byte[0] : body.getBytes();
         return new HistoryItemPayload(
             sourceUrl,
             contentType,
-            responseText,
-            responseSize,
+            null,
+            responseBody,
+            null,
+            responseBody.length,
             sourceRequestMethod,
             sourceRequestHeaders
         );
@@ -177,4 +194,56 @@ public class HistoryProvider {
             logger.error(message);
         }
     }
+
+    private static class BodyInputStream extends InputStream {
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        private final ByteArray source;
+        private byte[] chunk = new byte[0];
+        private int chunkOffset;
+        private int position;
+
+        private BodyInputStream(ByteArray source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int value = chunk[chunkOffset] & 0xFF;
+            chunkOffset += 1;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, target, offset, count);
+            chunkOffset += count;
+            return count;
+        }
+
+        private boolean ensureChunk() {
+            if (chunkOffset < chunk.length) {
+                return true;
+            }
+            int total = source.length();
+            if (position >= total) {
+                return false;
+            }
+            int end = Math.min(position + CHUNK_SIZE, total);
+            chunk = source.subArray(position, end).getBytes();
+            chunkOffset = 0;
+            position = end;
+            return chunk.length > 0;
+        }
+    }
 }
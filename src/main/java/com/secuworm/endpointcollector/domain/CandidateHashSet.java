@@ -0,0 +1,135 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public class CandidateHashSet {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xBF58476D1CE4E5B9L;
+    private static final long ABSOLUTE_SALT = 0x94D049BB133111EBL;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private final int initialCapacity;
+    private long[] keys;
+    private CharSequence[] values;
+    private boolean[] absolutes;
+    private int size;
+
+    public CandidateHashSet(int expectedSize) {
+        this.initialCapacity = tableSizeFor(Math.max(8, expectedSize));
+        allocate(initialCapacity);
+    }
+
+    public static long hash(CharSequence value, boolean absolute) {
+        long hash = SEED ^ value.length();
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ value.charAt(i)) * MULTIPLIER;
+        }
+        if (absolute) {
+            hash ^= ABSOLUTE_SALT;
+        }
+        hash ^= hash >>> 31;
+        hash *= MULTIPLIER;
+        hash ^= hash >>> 29;
+        return hash == 0L ? 1L : hash;
+    }
+
+    public boolean contains(CharSequence value, boolean absolute) {
+        return slotOf(value, absolute, hash(value, absolute)) < 0;
+    }
+
+    public boolean add(CharSequence value, boolean absolute) {
+        long key = hash(value, absolute);
+        int slot = slotOf(value, absolute, key);
+        if (slot < 0) {
+            return false;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        absolutes[slot] = absolute;
+        size += 1;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        if (keys.length > MAX_RETAINED_CAPACITY) {
+            allocate(initialCapacity);
+            return;
+        }
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slotOf(CharSequence value, boolean absolute, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) key & mask;
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key && absolutes[slot] == absolute && contentEquals(values[slot], value)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        CharSequence[] oldValues = values;
+        boolean[] oldAbsolutes = absolutes;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0L) {
+                continue;
+            }
+            int slot = (int) oldKeys[i] & mask;
+            while (keys[slot] != 0L) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            absolutes[slot] = oldAbsolutes[i];
+            size += 1;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new CharSequence[capacity];
+        absolutes = new boolean[capacity];
+        size = 0;
+    }
+
+    private static boolean contentEquals(CharSequence left, CharSequence right) {
+        int length = left.length();
+        if (length != right.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (left.charAt(i) != right.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(expectedSize * 2 - 1) << 1;
+        return Math.max(16, capacity);
+    }
+}
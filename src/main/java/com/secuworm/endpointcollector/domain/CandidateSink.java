@@ -0,0 +1,5 @@
+package com.secuworm.endpointcollector.domain;
+
+public interface CandidateSink {
+    void accept(EndpointCandidate candidate);
+}
@@ -0,0 +1,182 @@
+package com.secuworm.endpointcollector.domain;
+
+public class CharRange implements CharSequence {
+    private final CharSequence buffer;
+    private final int start;
+    private final int end;
+    private int hash;
+
+    public CharRange(CharSequence buffer, int start, int end) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer must not be null");
+        }
+        if (start < 0 || end < start || end > buffer.length()) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") out of bounds for length " + buffer.length());
+        }
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+    }
+
+    public static CharRange of(CharSequence value) {
+        CharSequence buffer = value == null ? "" : value;
+        return new CharRange(buffer, 0, buffer.length());
+    }
+
+    public CharSequence getBuffer() {
+        return buffer;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length());
+        }
+        return buffer.charAt(start + index);
+    }
+
+    @Override
+    public CharRange subSequence(int from, int to) {
+        if (from < 0 || to < from || to > length()) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + length());
+        }
+        return new CharRange(buffer, start + from, start + to);
+    }
+
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    public CharRange trim() {
+        int trimmedStart = start;
+        int trimmedEnd = end;
+        while (trimmedStart < trimmedEnd && buffer.charAt(trimmedStart) <= ' ') {
+            trimmedStart += 1;
+        }
+        while (trimmedEnd > trimmedStart && buffer.charAt(trimmedEnd - 1) <= ' ') {
+            trimmedEnd -= 1;
+        }
+        if (trimmedStart == start && trimmedEnd == end) {
+            return this;
+        }
+        return new CharRange(buffer, trimmedStart, trimmedEnd);
+    }
+
+    public boolean startsWith(String prefix) {
+        return regionMatches(0, prefix, false);
+    }
+
+    public boolean startsWithIgnoreCase(String lowerPrefix) {
+        return regionMatches(0, lowerPrefix, true);
+    }
+
+    public boolean contentEquals(String value) {
+        return value != null && value.length() == length() && regionMatches(0, value, false);
+    }
+
+    public boolean regionMatches(int offset, String literal, boolean ignoreAsciiCase) {
+        if (offset < 0 || offset + literal.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            char actual = buffer.charAt(start + offset + i);
+            char expected = literal.charAt(i);
+            if (actual == expected) {
+                continue;
+            }
+            if (!ignoreAsciiCase || actual < 'A' || actual > 'Z' || (char) (actual + ('a' - 'A')) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int indexOf(char value) {
+        return indexOf(value, 0);
+    }
+
+    public int indexOf(char value, int fromIndex) {
+        for (int i = Math.max(fromIndex, 0); i < length(); i++) {
+            if (buffer.charAt(start + i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(String literal) {
+        return indexOf(literal, false);
+    }
+
+    public int indexOfIgnoreCase(String lowerLiteral) {
+        return indexOf(lowerLiteral, true);
+    }
+
+    private int indexOf(String literal, boolean ignoreAsciiCase) {
+        for (int i = 0; i + literal.length() <= length(); i++) {
+            if (regionMatches(i, literal, ignoreAsciiCase)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(char value) {
+        for (int i = length() - 1; i >= 0; i--) {
+            if (buffer.charAt(start + i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CharRange)) {
+            return false;
+        }
+        CharRange range = (CharRange) other;
+        if (range.length() != length() || range.hashCode() != hashCode()) {
+            return false;
+        }
+        for (int i = 0; i < length(); i++) {
+            if (buffer.charAt(start + i) != range.buffer.charAt(range.start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int value = hash;
+        if (value == 0 && !isEmpty()) {
+            for (int i = start; i < end; i++) {
+                value = 31 * value + buffer.charAt(i);
+            }
+            hash = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return buffer.subSequence(start, end).toString();
+    }
+}
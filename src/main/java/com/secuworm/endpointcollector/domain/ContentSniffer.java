@@ -0,0 +1,207 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class ContentSniffer {
+    private static final String JSON = "application/json";
+    private static final String HTML = "text/html";
+    private static final String JAVASCRIPT = "application/javascript";
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final String[] HTML_PREFIXES = new String[]{"<!doctype html", "<html"};
+    private static final String HTML_MARKER = "<script";
+    private static final String[] JAVASCRIPT_SUFFIXES = new String[]{".js", ".mjs"};
+    private static final String[] JAVASCRIPT_MARKERS = new String[]{
+        "function ",
+        "=>",
+        "window.",
+        "document.",
+        "var ",
+        "const ",
+        "let "
+    };
+
+    private final int prefixChars;
+    private final Map<String, String> decisions;
+    private long cacheHits;
+
+    public ContentSniffer(int prefixChars, int maxCachedPatterns) {
+        this.prefixChars = Math.max(64, prefixChars);
+        int capacity = Math.max(1, maxCachedPatterns);
+        this.decisions = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public String sniff(String normalizedContentType, CharSequence body, String sourceUrl) {
+        String headerType = normalizedContentType == null ? "" : normalizedContentType;
+        CharRange prefix = boundedPrefix(body);
+        String pattern = urlPattern(sourceUrl);
+        if (prefix.isEmpty() || !hasPathSegment(pattern)) {
+            return decide(headerType, prefix, sourceUrl);
+        }
+        String key = headerType + ' ' + pattern;
+        synchronized (decisions) {
+            String cached = decisions.get(key);
+            if (cached != null) {
+                cacheHits += 1;
+                return cached;
+            }
+        }
+        String decision = decide(headerType, prefix, sourceUrl);
+        synchronized (decisions) {
+            decisions.put(key, decision);
+        }
+        return decision;
+    }
+
+    public long getCacheHits() {
+        synchronized (decisions) {
+            return cacheHits;
+        }
+    }
+
+    public int getCachedPatternCount() {
+        synchronized (decisions) {
+            return decisions.size();
+        }
+    }
+
+    public static String urlPattern(String sourceUrl) {
+        if (sourceUrl == null) {
+            return "";
+        }
+        String path = stripQueryAndFragment(sourceUrl).toLowerCase(Locale.ROOT);
+        int schemeEnd = path.indexOf("://");
+        int pathStart = path.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        if (pathStart < 0) {
+            return path;
+        }
+        StringBuilder pattern = new StringBuilder(path.length());
+        pattern.append(path, 0, pathStart);
+        int segmentStart = pathStart + 1;
+        while (segmentStart <= path.length()) {
+            int segmentEnd = path.indexOf('/', segmentStart);
+            if (segmentEnd < 0) {
+                segmentEnd = path.length();
+            }
+            pattern.append('/');
+            appendSegmentPattern(pattern, path, segmentStart, segmentEnd);
+            segmentStart = segmentEnd + 1;
+        }
+        return pattern.toString();
+    }
+
+    private String decide(String headerType, CharRange prefix, String sourceUrl) {
+        if (looksLikeJson(prefix)) {
+            return JSON;
+        }
+        if (looksLikeHtml(prefix)) {
+            return HTML;
+        }
+        if (hasJavaScriptSuffix(sourceUrl) || looksLikeJavaScript(prefix)) {
+            return JAVASCRIPT;
+        }
+        if (!headerType.isEmpty()) {
+            return headerType;
+        }
+        return OCTET_STREAM;
+    }
+
+    private CharRange boundedPrefix(CharSequence body) {
+        if (body == null) {
+            return CharRange.of("");
+        }
+        int length = body.length();
+        int start = 0;
+        while (start < length && body.charAt(start) <= ' ') {
+            start += 1;
+        }
+        return new CharRange(body, start, (int) Math.min(length, (long) start + prefixChars)).trim();
+    }
+
+    private boolean looksLikeJson(CharRange prefix) {
+        if (!(prefix.startsWith("{") || prefix.startsWith("["))) {
+            return false;
+        }
+        return prefix.indexOf(':') >= 0 || prefix.indexOf('{') >= 0;
+    }
+
+    private boolean looksLikeHtml(CharRange prefix) {
+        for (String htmlPrefix : HTML_PREFIXES) {
+            if (prefix.startsWithIgnoreCase(htmlPrefix)) {
+                return true;
+            }
+        }
+        return prefix.indexOfIgnoreCase(HTML_MARKER) >= 0;
+    }
+
+    private boolean looksLikeJavaScript(CharRange prefix) {
+        for (String marker : JAVASCRIPT_MARKERS) {
+            if (prefix.indexOfIgnoreCase(marker) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasJavaScriptSuffix(String sourceUrl) {
+        if (sourceUrl == null) {
+            return false;
+        }
+        CharRange path = CharRange.of(stripQueryAndFragment(sourceUrl));
+        for (String suffix : JAVASCRIPT_SUFFIXES) {
+            if (path.regionMatches(path.length() - suffix.length(), suffix, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPathSegment(String pattern) {
+        int schemeEnd = pattern.indexOf("://");
+        int pathStart = pattern.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        if (pathStart < 0) {
+            return false;
+        }
+        for (int i = pathStart; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != '/') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripQueryAndFragment(String sourceUrl) {
+        int end = sourceUrl.length();
+        int query = sourceUrl.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = sourceUrl.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        return sourceUrl.substring(0, end);
+    }
+
+    private static void appendSegmentPattern(StringBuilder pattern, String path, int start, int end) {
+        boolean hasDigit = false;
+        for (int i = start; i < end && !hasDigit; i++) {
+            hasDigit = Character.isDigit(path.charAt(i));
+        }
+        if (!hasDigit) {
+            pattern.append(path, start, end);
+            return;
+        }
+        pattern.append('*');
+        int extension = path.lastIndexOf('.', end - 1);
+        if (extension > start) {
+            pattern.append(path, extension, end);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.secuworm.endpointcollector.domain;
+
+public class DeadlineCharSequence implements CharSequence {
+    private static final int CHECK_MASK = 0x3FF;
+
+    private final CharSequence delegate;
+    private final ExtractionContext context;
+    private final long budgetNanos;
+    private long deadlineNanos;
+    private int reads;
+
+    public DeadlineCharSequence(CharSequence delegate, ExtractionContext context, long budgetMillis) {
+        this.delegate = delegate == null ? "" : delegate;
+        this.context = context == null ? ExtractionContext.unbounded() : context;
+        this.budgetNanos = Math.max(0L, budgetMillis) * 1_000_000L;
+        arm();
+    }
+
+    public void arm() {
+        deadlineNanos = System.nanoTime() + budgetNanos;
+    }
+
+    @Override
+    public int length() {
+        return delegate.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if ((++reads & CHECK_MASK) == 0) {
+            check();
+        }
+        return delegate.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return delegate.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private void check() {
+        context.checkpoint();
+        if (budgetNanos > 0L && System.nanoTime() - deadlineNanos >= 0) {
+            throw new BudgetExceededException();
+        }
+    }
+
+    public static class BudgetExceededException extends RuntimeException {
+        public BudgetExceededException() {
+            super("regex match budget exceeded");
+        }
+    }
+}
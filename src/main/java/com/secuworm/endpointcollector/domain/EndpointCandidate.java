@@ -1,19 +1,45 @@
 package com.secuworm.endpointcollector.domain;
 
 public class EndpointCandidate {
-    private final String rawValue;
+    public static final String ORIGIN_PATTERN = "pattern";
+    public static final String ORIGIN_AST = "ast";
+
+    private final CharRange valueRange;
     private final String sourceUrl;
     private final String contentType;
     private final String matchType;
+    private final String origin;
+    private String rawValue;
 
     public EndpointCandidate(String rawValue, String sourceUrl, String contentType, String matchType) {
+        this(rawValue, sourceUrl, contentType, matchType, ORIGIN_PATTERN);
+    }
+
+    public EndpointCandidate(String rawValue, String sourceUrl, String contentType, String matchType, String origin) {
+        this.valueRange = null;
         this.rawValue = rawValue;
         this.sourceUrl = sourceUrl;
         this.contentType = contentType;
         this.matchType = matchType;
+        this.origin = origin == null ? ORIGIN_PATTERN : origin;
+    }
+
+    public EndpointCandidate(CharRange valueRange, String sourceUrl, String contentType, String matchType) {
+        this(valueRange, sourceUrl, contentType, matchType, ORIGIN_PATTERN);
+    }
+
+    public EndpointCandidate(CharRange valueRange, String sourceUrl, String contentType, String matchType, String origin) {
+        this.valueRange = valueRange;
+        this.sourceUrl = sourceUrl;
+        this.contentType = contentType;
+        this.matchType = matchType;
+        this.origin = origin == null ? ORIGIN_PATTERN : origin;
     }
 
     public String getRawValue() {
+        if (rawValue == null && valueRange != null) {
+            rawValue = valueRange.toString();
+        }
         return rawValue;
     }
 
@@ -28,4 +54,8 @@ public class EndpointCandidate {
     public String getMatchType() {
         return matchType;
     }
+
+    public String getOrigin() {
+        return origin;
+    }
 }
@@ -2,33 +2,27 @@ package com.secuworm.endpointcollector.domain;
 
 import com.secuworm.endpointcollector.infra.AppConfig;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class EndpointExtractor {
-    private static final Pattern ABSOLUTE_URL_PATTERN = Pattern.compile("https?://[^\\s\\\"'<>]+", Pattern.CASE_INSENSITIVE);
-    private static final Pattern RELATIVE_URL_PATTERN = Pattern.compile("(?:^|(?<=[\\s\\\"'`=(:\\[,>{]))/(?!/)[^\\s\\\"'<>),;]+");
-    private static final Pattern DOT_RELATIVE_URL_PATTERN = Pattern.compile("(?:^|(?<=[\\s\\\"'`=(:\\[,>{]))(?:\\.\\./|\\./)[^\\s\\\"'<>),;]+");
-    private static final Pattern FETCH_CALL_PATTERN = Pattern.compile("\\bfetch\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern AXIOS_METHOD_PATTERN = Pattern.compile("\\baxios\\s*\\.\\s*(?:get|post|put|patch|delete|head|options)\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern AXIOS_CONFIG_URL_PATTERN = Pattern.compile("\\baxios\\s*\\(\\s*\\{[^\\}]*?\\burl\\s*:\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-    private static final Pattern XHR_OPEN_PATTERN = Pattern.compile("\\.open\\s*\\(\\s*(?:[\"'`][A-Za-z]+[\"'`]\\s*,\\s*)?([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern NEW_URL_PATTERN = Pattern.compile("\\bnew\\s+URL\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern FRAMEWORK_ROUTE_PATTERN = Pattern.compile("\\b(?:app|router|fastify)\\s*\\.\\s*(?:get|post|put|patch|delete|head|options|all|use|route)\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern FASTIFY_ROUTE_OBJECT_PATTERN = Pattern.compile("\\bfastify\\s*\\.\\s*route\\s*\\(\\s*\\{[^\\}]*?\\b(?:url|path)\\s*:\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-    private static final Pattern REACT_ROUTE_PATTERN = Pattern.compile("<Route[^>]*\\bpath\\s*=\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
-    private static final Pattern ROUTE_OBJECT_PATH_PATTERN = Pattern.compile("\\bpath\\s*:\\s*([\"'`])(/[^\"'`]+)\\1", Pattern.CASE_INSENSITIVE);
+    public static final int EXTRACTOR_VERSION = 2;
     private static final Pattern REGEX_FLAG_ONLY_PATTERN = Pattern.compile("^/[dgimsuvy]{1,8}$", Pattern.CASE_INSENSITIVE);
     private static final Pattern REGEX_FLAG_TEST_PATTERN = Pattern.compile("^/[dgimsuvy]{1,8}\\.test\\b.*", Pattern.CASE_INSENSITIVE);
     private static final Pattern REGEX_FLAGS_PATTERN = Pattern.compile("^[dgimsuvy]{1,8}$", Pattern.CASE_INSENSITIVE);
     private static final Pattern REGEX_META_FRAGMENT_PATTERN = Pattern.compile("[\\[\\]{}()^$*+?|\\\\]");
     private static final Pattern URL_PATH_SEGMENT_PATTERN = Pattern.compile("^[A-Za-z0-9._~-]+$");
-    private static final Pattern SCRIPT_BLOCK_PATTERN = Pattern.compile("(?is)<script\\b[^>]*>(.*?)</script>");
     private static final String[] REGEX_CONSUMER_METHODS = new String[]{
         "match",
         "matchall",
@@ -39,6 +33,7 @@ public class EndpointExtractor {
         "test",
         "exec"
     };
+    private static final String[] HTTP_SCHEMES = new String[]{"http:", "https:"};
     private static final String[] NOISE_PREFIXES = new String[]{"javascript:", "mailto:"};
     private static final String TRAILING_TRIM_CHARS = ".,;:!?)\\";
     private static final String[] JAVASCRIPT_CONTENT_TYPES = new String[]{
@@ -46,106 +41,910 @@ public class EndpointExtractor {
         "text/javascript",
         "application/x-javascript"
     };
+    private static final String FUSED_SCAN_RULE_NAME = "FUSED_SCAN";
+    private static final String SEGMENTED_SCAN_RULE_NAME = "FUSED_SEGMENTS";
+    private static final String JSON_STRINGS_RULE_NAME = "JSON_STRINGS";
+    private static final String HTML_ATTRIBUTES_RULE_NAME = "HTML_ATTRIBUTES";
+    private static final int ATTRIBUTE_RULE_SLOT = FusedEndpointScanner.FAMILY_COUNT;
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String HTML_CONTENT_TYPE = "text/html";
+    private static final String OPENAPI_PATHS_KEY = "paths";
+    private static final int TOKENIZER_CHECKPOINT_CHARS = 64 * 1024;
+    private static final int SCRATCH_INITIAL_CANDIDATES = 256;
+    private static final ForkJoinPool SCRIPT_EXTRACTION_POOL = new ForkJoinPool(AppConfig.SCRIPT_EXTRACTION_PARALLELISM);
+    private static final ThreadLocal<ExtractionScratch> SCRATCH = ThreadLocal.withInitial(ExtractionScratch::new);
 
     private final JsAstEndpointExtractor jsAstEndpointExtractor;
+    private final TriggerKeywordFilter triggerKeywordFilter;
+    private final ExtractionMetrics metrics;
+    private final ScanMode scanMode;
+    private final ExtractionRuleRegistry ruleRegistry;
+    private final ContentSniffer contentSniffer;
+    private final JsBundleSplitter bundleSplitter;
+    private final JsModuleCache moduleCache;
 
     public EndpointExtractor() {
+        this(ScanMode.FUSED);
+    }
+
+    public EndpointExtractor(ScanMode scanMode) {
+        this(scanMode, ExtractionRuleRegistry.defaults());
+    }
+
+    public EndpointExtractor(ScanMode scanMode, ExtractionRuleRegistry ruleRegistry) {
         this.jsAstEndpointExtractor = new JsAstEndpointExtractor();
+        this.triggerKeywordFilter = new TriggerKeywordFilter();
+        this.metrics = new ExtractionMetrics();
+        this.scanMode = scanMode == null ? ScanMode.FUSED : scanMode;
+        this.ruleRegistry = ruleRegistry == null ? ExtractionRuleRegistry.defaults() : ruleRegistry;
+        this.contentSniffer = new ContentSniffer(AppConfig.CONTENT_SNIFF_PREFIX_CHARS, AppConfig.CONTENT_SNIFF_CACHE_ENTRIES);
+        this.bundleSplitter = new JsBundleSplitter(AppConfig.JS_BUNDLE_MIN_MODULES);
+        this.moduleCache = new JsModuleCache(AppConfig.JS_MODULE_CACHE_ENTRIES);
+    }
+
+    public ScanMode getScanMode() {
+        return scanMode;
+    }
+
+    public ExtractionRuleRegistry getRuleRegistry() {
+        return ruleRegistry;
+    }
+
+    public ExtractionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ContentSniffer getContentSniffer() {
+        return contentSniffer;
+    }
+
+    public long getCacheVersion() {
+        return ((long) EXTRACTOR_VERSION << 8 | scanMode.ordinal()) * 31L + ruleRegistry.fingerprint();
+    }
+
+    public JsModuleCache getModuleCache() {
+        return moduleCache;
+    }
+
+    public String resolveContentType(String contentType, CharSequence responseText, String sourceUrl) {
+        return resolveEffectiveContentType(normalizeContentType(contentType), responseText == null ? "" : responseText, sourceUrl);
     }
 
     public List<EndpointCandidate> extract(String responseText, String contentType, String sourceUrl) {
-        String normalizedContentType = normalizeContentType(contentType);
-        String effectiveContentType = resolveEffectiveContentType(normalizedContentType, responseText, sourceUrl);
+        return extract(responseText, contentType, sourceUrl, ExtractionContext.unbounded());
+    }
+
+    public List<EndpointCandidate> extract(String responseText, String contentType, String sourceUrl, ExtractionContext context) {
+        List<EndpointCandidate> candidates = new ArrayList<>();
+        extract(responseText, contentType, sourceUrl, context, candidates::add);
+        return candidates;
+    }
+
+    public void extract(String responseText, String contentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+        extractWithResolvedType(responseText, resolveContentType(contentType, responseText, sourceUrl), sourceUrl, context, sink);
+    }
+
+    public void extractWithResolvedType(String responseText, String effectiveContentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+        if (responseText == null || responseText.isEmpty()) {
+            return;
+        }
+        CountingSink candidates = new CountingSink(sink);
+        ExtractionContext activeContext = activeContext(context);
+        try {
+            activeContext.checkpoint();
+            JsSourceDocument document = isJavaScriptContentType(effectiveContentType) ? new JsSourceDocument(responseText) : null;
+            LexicalRegionIndex lexicalRegions = document == null ? LexicalRegionIndex.empty() : document.getLexicalRegions(activeContext);
+            extractResolved(candidates, responseText, effectiveContentType, sourceUrl, lexicalRegions, document, activeContext);
+        } catch (ExtractionCancelledException ex) {
+            recordDegradedOrRethrow(ex, activeContext);
+        }
+    }
+
+    public List<EndpointCandidate> extractAst(String responseText, String contentType, String sourceUrl, ExtractionContext context) {
+        return extractAstWithResolvedType(responseText, resolveContentType(contentType, responseText, sourceUrl), sourceUrl, context);
+    }
+
+    public List<EndpointCandidate> extractAstWithResolvedType(String responseText, String effectiveContentType, String sourceUrl, ExtractionContext context) {
         if (responseText == null || responseText.isEmpty()) {
             return new ArrayList<>();
         }
+        return extractAstResolved(responseText, effectiveContentType, sourceUrl, context);
+    }
+
+    public List<EndpointCandidate> extractAst(byte[] responseBody, String contentType, String sourceUrl, ExtractionContext context) {
+        String effectiveContentType = resolveContentType(contentType, responseBody == null ? null : new Utf8ByteSequence(responseBody), sourceUrl);
+        return extractAstWithResolvedType(responseBody, effectiveContentType, sourceUrl, context);
+    }
 
+    public List<EndpointCandidate> extractAstWithResolvedType(byte[] responseBody, String effectiveContentType, String sourceUrl, ExtractionContext context) {
+        if (responseBody == null || responseBody.length == 0) {
+            return new ArrayList<>();
+        }
+        Utf8ByteSequence body = new Utf8ByteSequence(responseBody);
+        if (isJavaScriptContentType(effectiveContentType)) {
+            return extractAstResolved(body.toString(), effectiveContentType, sourceUrl, context);
+        }
+        return extractAstResolved(body, effectiveContentType, sourceUrl, context);
+    }
+
+    public List<EndpointCandidate> extract(byte[] responseBody, String contentType, String sourceUrl) {
+        return extract(responseBody, contentType, sourceUrl, ExtractionContext.unbounded());
+    }
+
+    public List<EndpointCandidate> extract(byte[] responseBody, String contentType, String sourceUrl, ExtractionContext context) {
         List<EndpointCandidate> candidates = new ArrayList<>();
-        Set<String> seen = new HashSet<>();
-        List<JsAstEndpointExtractor.SourceRange> regexLiteralRanges = collectRegexLiteralRanges(responseText, effectiveContentType);
-
-        collectCandidates(candidates, seen, ABSOLUTE_URL_PATTERN.matcher(responseText), responseText, "absolute", effectiveContentType, sourceUrl, regexLiteralRanges);
-        collectCandidates(candidates, seen, RELATIVE_URL_PATTERN.matcher(responseText), responseText, "relative", effectiveContentType, sourceUrl, regexLiteralRanges);
-        collectCandidates(candidates, seen, DOT_RELATIVE_URL_PATTERN.matcher(responseText), responseText, "relative", effectiveContentType, sourceUrl, regexLiteralRanges);
-        collectGroupCandidates(candidates, seen, FETCH_CALL_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, AXIOS_METHOD_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, AXIOS_CONFIG_URL_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, XHR_OPEN_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, NEW_URL_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, FRAMEWORK_ROUTE_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, FASTIFY_ROUTE_OBJECT_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, REACT_ROUTE_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-        collectGroupCandidates(candidates, seen, ROUTE_OBJECT_PATH_PATTERN.matcher(responseText), 2, effectiveContentType, sourceUrl);
-
-        for (String javascriptSource : collectJavaScriptSources(responseText, effectiveContentType)) {
-            List<String> astCandidates = jsAstEndpointExtractor.extract(javascriptSource);
-            collectListCandidates(candidates, seen, astCandidates, effectiveContentType, sourceUrl);
+        extract(responseBody, contentType, sourceUrl, context, candidates::add);
+        return candidates;
+    }
+
+    public void extract(byte[] responseBody, String contentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+        if (responseBody == null || responseBody.length == 0) {
+            return;
         }
+        String effectiveContentType = resolveContentType(contentType, new Utf8ByteSequence(responseBody), sourceUrl);
+        extractWithResolvedType(responseBody, effectiveContentType, sourceUrl, context, sink);
+    }
 
+    public void extractWithResolvedType(byte[] responseBody, String effectiveContentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+        if (responseBody == null || responseBody.length == 0) {
+            return;
+        }
+        Utf8ByteSequence body = new Utf8ByteSequence(responseBody);
+        if (scanMode == ScanMode.LEGACY || isJavaScriptContentType(effectiveContentType) || !ruleRegistry.planFor(effectiveContentType).getCustomRules().isEmpty()) {
+            extractWithResolvedType(body.toString(), effectiveContentType, sourceUrl, context, sink);
+            return;
+        }
+        ExtractionContext activeContext = activeContext(context);
+        try {
+            extractResolved(new CountingSink(sink), body, effectiveContentType, sourceUrl, LexicalRegionIndex.empty(), null, activeContext);
+        } catch (ExtractionCancelledException ex) {
+            recordDegradedOrRethrow(ex, activeContext);
+        }
+    }
+
+    public List<EndpointCandidate> extract(Reader reader, String contentType, String sourceUrl) throws IOException {
+        return extract(reader, contentType, sourceUrl, ExtractionContext.unbounded());
+    }
+
+    public List<EndpointCandidate> extract(
+        Reader reader,
+        String contentType,
+        String sourceUrl,
+        ExtractionContext context
+    ) throws IOException {
+        return extract(reader, contentType, sourceUrl, AppConfig.STREAM_WINDOW_CHARS, AppConfig.STREAM_WINDOW_OVERLAP_CHARS, context);
+    }
+
+    public void extract(
+        Reader reader,
+        String contentType,
+        String sourceUrl,
+        ExtractionContext context,
+        CandidateSink sink
+    ) throws IOException {
+        extract(reader, contentType, sourceUrl, AppConfig.STREAM_WINDOW_CHARS, AppConfig.STREAM_WINDOW_OVERLAP_CHARS, context, sink);
+    }
+
+    public List<EndpointCandidate> extract(
+        Reader reader,
+        String contentType,
+        String sourceUrl,
+        int windowChars,
+        int overlapChars
+    ) throws IOException {
+        return extract(reader, contentType, sourceUrl, windowChars, overlapChars, ExtractionContext.unbounded());
+    }
+
+    public List<EndpointCandidate> extract(
+        Reader reader,
+        String contentType,
+        String sourceUrl,
+        int windowChars,
+        int overlapChars,
+        ExtractionContext context
+    ) throws IOException {
+        List<EndpointCandidate> candidates = new ArrayList<>();
+        extract(reader, contentType, sourceUrl, windowChars, overlapChars, context, candidates::add);
         return candidates;
     }
 
-    private void collectCandidates(
-        List<EndpointCandidate> target,
-        Set<String> seen,
-        Matcher matcher,
-        String responseText,
-        String matchType,
+    public void extract(
+        Reader reader,
         String contentType,
         String sourceUrl,
-        List<JsAstEndpointExtractor.SourceRange> regexLiteralRanges
+        int windowChars,
+        int overlapChars,
+        ExtractionContext context,
+        CandidateSink sink
+    ) throws IOException {
+        if (reader == null) {
+            return;
+        }
+        CountingSink candidates = new CountingSink(sink);
+        ExtractionContext activeContext = activeContext(context);
+        SlidingCharWindow window = new SlidingCharWindow(reader, windowChars, overlapChars, AppConfig.STREAM_WINDOW_CONTEXT_CHARS);
+        ExtractionScratch scratch = acquireScratch(true);
+        String normalizedContentType = normalizeContentType(contentType);
+        String effectiveContentType = null;
+        ExtractionRuleRegistry.ExecutionPlan plan = null;
+        long[] cursors = null;
+        int scannedFamilies = 0;
+        JsonStringTokenizer jsonTokenizer = null;
+        HtmlTokenizer htmlTokenizer = null;
+        HtmlCandidateCollector htmlCollector = null;
+
+        try {
+            while (window.next()) {
+                activeContext.checkpoint();
+                CharSequence text = window.text();
+                if (effectiveContentType == null) {
+                    effectiveContentType = resolveEffectiveContentType(normalizedContentType, text, sourceUrl);
+                    plan = ruleRegistry.planFor(effectiveContentType);
+                    cursors = new long[FusedEndpointScanner.FAMILY_COUNT + plan.getCustomRules().size()];
+                    if (isJsonDocument(effectiveContentType, text)) {
+                        JsonCandidateCollector collector = new JsonCandidateCollector(candidates, scratch, sourceUrl, jsonFamilies(plan));
+                        jsonTokenizer = new JsonStringTokenizer(collector, AppConfig.JSON_MAX_STRING_CHARS);
+                    }
+                    if (HTML_CONTENT_TYPE.equals(effectiveContentType)) {
+                        htmlCollector = new HtmlCandidateCollector(null);
+                        htmlTokenizer = new HtmlTokenizer(htmlCollector);
+                    }
+                }
+                DeadlineCharSequence guardedText = new DeadlineCharSequence(text, activeContext, AppConfig.REGEX_MATCH_BUDGET_MILLIS);
+                if (jsonTokenizer != null) {
+                    int hitsBefore = candidates.count();
+                    long started = System.nanoTime();
+                    boolean wellFormed = jsonTokenizer.feed(text, window.getScanFrom(), window.getScanTo());
+                    metrics.recordRuleExecution(JSON_STRINGS_RULE_NAME, candidates.count() - hitsBefore, System.nanoTime() - started);
+                    if (wellFormed) {
+                        scannedFamilies |= jsonFamilies(plan);
+                        collectWindowCustomRuleCandidates(candidates, scratch, window, guardedText, plan, cursors, effectiveContentType, sourceUrl, LexicalRegionIndex.empty(), activeContext);
+                        continue;
+                    }
+                    jsonTokenizer = null;
+                }
+                LexicalRegionIndex attributeRegions = LexicalRegionIndex.empty();
+                scratch.resetRuleCounters();
+                if (htmlTokenizer != null) {
+                    long started = System.nanoTime();
+                    htmlTokenizer.feed(text, window.getBaseOffset(), window.getScanFrom(), window.getScanTo());
+                    scratch.ruleNanos[ATTRIBUTE_RULE_SLOT] = System.nanoTime() - started;
+                    attributeRegions = htmlCollector.drainAttributeRegions();
+                }
+                int enabledFamilies = triggerKeywordFilter.detectEnabledFamilies(text) & plan.getBuiltInFamilies();
+                scannedFamilies |= enabledFamilies;
+                FusedEndpointScanner.Matches matches = scanMode == ScanMode.LEGACY
+                    ? matchWindowRules(scratch, window, guardedText, enabledFamilies, cursors, activeContext)
+                    : scanFusedWindow(scratch, window, cursors, enabledFamilies, activeContext);
+                int executedFamilies = scanMode == ScanMode.LEGACY ? enabledFamilies : 0;
+                collectMatchedCandidates(candidates, scratch, text, matches, executedFamilies, htmlTokenizer != null, effectiveContentType, sourceUrl, attributeRegions);
+                collectWindowCustomRuleCandidates(candidates, scratch, window, guardedText, plan, cursors, effectiveContentType, sourceUrl, attributeRegions, activeContext);
+            }
+        } catch (ExtractionCancelledException ex) {
+            recordDegradedOrRethrow(ex, activeContext);
+        } finally {
+            releaseScratch(scratch);
+        }
+
+        if (effectiveContentType != null) {
+            int skippedFamilies = TriggerKeywordFilter.countDisabled(scannedFamilies);
+            int executed = FusedEndpointScanner.FAMILY_COUNT - skippedFamilies + plan.getCustomRules().size();
+            metrics.recordPatternExecutions(executed, skippedFamilies);
+        }
+    }
+
+    private List<EndpointCandidate> extractAstResolved(
+        CharSequence responseText,
+        String effectiveContentType,
+        String sourceUrl,
+        ExtractionContext context
     ) {
-        while (matcher.find()) {
-            if (isInsideRegexLiteral(matcher.start(), regexLiteralRanges)) {
-                continue;
+        List<EndpointCandidate> candidates = new ArrayList<>();
+        CountingSink target = new CountingSink(candidates::add);
+        ExtractionContext activeContext = activeContext(context);
+        ExtractionScratch scratch = acquireScratch(false);
+        try {
+            activeContext.checkpoint();
+            List<CharRange> scriptBlocks = new ArrayList<>();
+            JsSourceDocument document = null;
+            LexicalRegionIndex lexicalRegions = LexicalRegionIndex.empty();
+            if (isJavaScriptContentType(effectiveContentType)) {
+                document = new JsSourceDocument(responseText);
+                lexicalRegions = document.getLexicalRegions(activeContext);
+            } else if (HTML_CONTENT_TYPE.equals(effectiveContentType)) {
+                collectScriptBlocks(responseText, scratch, sourceUrl, scriptBlocks, activeContext);
             }
-            if (isRegexConsumerContext(responseText, matcher.start(), matchType, contentType)) {
-                continue;
+            collectAstCandidates(target, scratch, responseText, effectiveContentType, sourceUrl, lexicalRegions, document, scriptBlocks, activeContext);
+        } catch (ExtractionCancelledException ex) {
+            recordDegradedOrRethrow(ex, activeContext);
+        } finally {
+            releaseScratch(scratch);
+        }
+        return candidates;
+    }
+
+    private ExtractionContext activeContext(ExtractionContext context) {
+        return (context == null ? ExtractionContext.unbounded() : context).forItem();
+    }
+
+    private ExtractionScratch acquireScratch(boolean transientBuffer) {
+        ExtractionScratch scratch = SCRATCH.get();
+        if (scratch.inUse) {
+            return new ExtractionScratch().begin(transientBuffer);
+        }
+        return scratch.begin(transientBuffer);
+    }
+
+    private void releaseScratch(ExtractionScratch scratch) {
+        scratch.end();
+    }
+
+    private void recordDegradedOrRethrow(ExtractionCancelledException ex, ExtractionContext context) {
+        if (!ex.isDeadlineExceeded()) {
+            throw ex;
+        }
+        markDegraded(context);
+    }
+
+    private void recordPatternAbort(String patternName, ExtractionContext context) {
+        markDegraded(context);
+        metrics.recordPatternAbort(patternName);
+    }
+
+    private void markDegraded(ExtractionContext context) {
+        if (context.markDegraded()) {
+            metrics.recordDegradedItem();
+        }
+    }
+
+    private void extractResolved(
+        CountingSink candidates,
+        CharSequence responseText,
+        String effectiveContentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        JsSourceDocument responseDocument,
+        ExtractionContext context
+    ) {
+        ExtractionScratch scratch = acquireScratch(false);
+        try {
+            extractWithScratch(candidates, scratch, responseText, effectiveContentType, sourceUrl, lexicalRegions, responseDocument, context);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private void extractWithScratch(
+        CountingSink candidates,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        String effectiveContentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        JsSourceDocument responseDocument,
+        ExtractionContext context
+    ) {
+        ExtractionRuleRegistry.ExecutionPlan plan = ruleRegistry.planFor(effectiveContentType);
+        DeadlineCharSequence guardedText = new DeadlineCharSequence(responseText, context, AppConfig.REGEX_MATCH_BUDGET_MILLIS);
+        if (isJsonDocument(effectiveContentType, responseText)) {
+            if (collectJsonCandidates(candidates, scratch, responseText, sourceUrl, plan, context)) {
+                int jsonFamilies = jsonFamilies(plan);
+                int skippedFamilies = FusedEndpointScanner.FAMILY_COUNT - Integer.bitCount(jsonFamilies);
+                metrics.recordPatternExecutions(Integer.bitCount(jsonFamilies) + plan.getCustomRules().size(), skippedFamilies);
+                for (ExtractionRule rule : plan.getCustomRules()) {
+                    collectRuleCandidates(candidates, scratch, guardedText, responseText, rule, effectiveContentType, sourceUrl, lexicalRegions, context);
+                }
+                return;
             }
-            String cleaned = cleanMatch(matcher.group());
-            if (cleaned == null) {
-                continue;
+            scratch.resetCandidates();
+        }
+
+        List<CharRange> scriptBlocks = new ArrayList<>();
+        LexicalRegionIndex regions = lexicalRegions;
+        boolean html = HTML_CONTENT_TYPE.equals(effectiveContentType);
+        scratch.resetRuleCounters();
+        if (html) {
+            regions = collectHtmlCandidates(scratch, responseText, scriptBlocks, context);
+        }
+        int enabledFamilies = triggerKeywordFilter.detectEnabledFamilies(responseText) & plan.getBuiltInFamilies();
+        int skippedFamilies = TriggerKeywordFilter.countDisabled(enabledFamilies);
+        int executed = FusedEndpointScanner.FAMILY_COUNT - skippedFamilies + plan.getCustomRules().size();
+        metrics.recordPatternExecutions(executed, skippedFamilies);
+
+        FusedEndpointScanner.Matches matches;
+        if (scanMode == ScanMode.LEGACY) {
+            matches = matchRules(scratch, guardedText, enabledFamilies, context);
+        } else {
+            long started = System.nanoTime();
+            int length = responseText.length();
+            int segments = length < AppConfig.PARALLEL_SCAN_MIN_CHARS ? 1 : segmentCount(length, AppConfig.PARALLEL_SCAN_SEGMENT_CHARS, AppConfig.SCRIPT_EXTRACTION_PARALLELISM * 4);
+            matches = scanFused(responseText, 0, length, scratch.fusedCursors(), enabledFamilies, segments, scratch, context);
+            metrics.recordRuleExecution(FUSED_SCAN_RULE_NAME, matches.totalCount(), System.nanoTime() - started);
+        }
+        int executedFamilies = scanMode == ScanMode.LEGACY ? enabledFamilies : 0;
+        collectMatchedCandidates(candidates, scratch, responseText, matches, executedFamilies, html, effectiveContentType, sourceUrl, regions);
+        for (ExtractionRule rule : plan.getCustomRules()) {
+            collectRuleCandidates(candidates, scratch, guardedText, responseText, rule, effectiveContentType, sourceUrl, regions, context);
+        }
+
+        context.checkpoint();
+        if (context.isAstDeferred()) {
+            if (hasJavaScriptSources(effectiveContentType, scriptBlocks)) {
+                context.markAstPending();
             }
-            String lowerCleaned = cleaned.toLowerCase(Locale.ROOT);
-            if (startsWithAny(lowerCleaned, NOISE_PREFIXES)) {
-                continue;
+            return;
+        }
+        collectAstCandidates(candidates, scratch, responseText, effectiveContentType, sourceUrl, lexicalRegions, responseDocument, scriptBlocks, context);
+    }
+
+    private FusedEndpointScanner.Matches scanFused(
+        CharSequence text,
+        int from,
+        int to,
+        int[] cursors,
+        int enabledFamilies,
+        int segments,
+        ExtractionScratch scratch,
+        ExtractionContext context
+    ) {
+        FusedEndpointScanner scanner = new FusedEndpointScanner(text, enabledFamilies);
+        if (segments < 2) {
+            return scanner.scan(from, to, cursors, context, scratch.fusedMatches);
+        }
+        long started = System.nanoTime();
+        FusedEndpointScanner.Matches matches = scanner.scanSegments(from, to, cursors, context, scratch.fusedMatches, SCRIPT_EXTRACTION_POOL, segments);
+        metrics.recordRuleExecution(SEGMENTED_SCAN_RULE_NAME, segments, System.nanoTime() - started);
+        return matches;
+    }
+
+    private int segmentCount(int chars, int segmentChars, int maxSegments) {
+        if (AppConfig.SCRIPT_EXTRACTION_PARALLELISM < 2) {
+            return 1;
+        }
+        return Math.max(1, Math.min(maxSegments, chars / segmentChars));
+    }
+
+    private void collectAstCandidates(
+        CountingSink candidates,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        String effectiveContentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        JsSourceDocument responseDocument,
+        List<CharRange> scriptBlocks,
+        ExtractionContext context
+    ) {
+        List<CharRange> bundleModules = responseDocument == null ? Collections.<CharRange>emptyList() : bundleSplitter.split(responseText, lexicalRegions);
+        if (!bundleModules.isEmpty()) {
+            for (List<String> astCandidates : extractBundleModuleCandidates(responseText, bundleModules, context)) {
+                collectListCandidates(candidates, scratch, astCandidates, effectiveContentType, sourceUrl);
             }
-            if ("relative".equals(matchType) && cleaned.startsWith("//")) {
+            return;
+        }
+        if (responseText.length() > AppConfig.AST_EXTRACTION_MAX_CHARS) {
+            metrics.recordAstSkippedItem();
+            return;
+        }
+        List<JsSourceDocument> javascriptDocuments = collectJavaScriptSources(responseText, effectiveContentType, responseDocument, scriptBlocks);
+        for (List<String> astCandidates : extractJavaScriptCandidates(javascriptDocuments, context)) {
+            collectListCandidates(candidates, scratch, astCandidates, effectiveContentType, sourceUrl);
+        }
+    }
+
+    private boolean hasJavaScriptSources(String effectiveContentType, List<CharRange> scriptBlocks) {
+        if (isJavaScriptContentType(effectiveContentType)) {
+            return true;
+        }
+        for (CharRange scriptBlock : scriptBlocks) {
+            if (!new JsSourceDocument(scriptBlock).isBlank()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectScriptBlocks(
+        CharSequence responseText,
+        ExtractionScratch scratch,
+        String sourceUrl,
+        List<CharRange> scriptBlocks,
+        ExtractionContext context
+    ) {
+        HtmlTokenizer tokenizer = new HtmlTokenizer(new HtmlCandidateCollector(scriptBlocks));
+        int length = responseText.length();
+        for (int from = 0; from < length; from += TOKENIZER_CHECKPOINT_CHARS) {
+            context.checkpoint();
+            tokenizer.feed(responseText, 0L, from, Math.min(length, from + TOKENIZER_CHECKPOINT_CHARS));
+        }
+        scratch.resetCandidates();
+    }
+
+    private boolean isJsonDocument(String effectiveContentType, CharSequence text) {
+        return JSON_CONTENT_TYPE.equals(effectiveContentType) && JsonStringTokenizer.looksLikeDocument(text);
+    }
+
+    private int jsonFamilies(ExtractionRuleRegistry.ExecutionPlan plan) {
+        return plan.getBuiltInFamilies() & TriggerKeywordFilter.ALWAYS_ENABLED_FAMILIES;
+    }
+
+    private boolean collectJsonCandidates(
+        CountingSink target,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        String sourceUrl,
+        ExtractionRuleRegistry.ExecutionPlan plan,
+        ExtractionContext context
+    ) {
+        long started = System.nanoTime();
+        List<EndpointCandidate> collected = new ArrayList<>();
+        JsonCandidateCollector collector = new JsonCandidateCollector(collected::add, scratch, sourceUrl, jsonFamilies(plan));
+        JsonStringTokenizer tokenizer = new JsonStringTokenizer(collector, AppConfig.JSON_MAX_STRING_CHARS);
+        int length = responseText.length();
+        for (int from = 0; from < length; from += TOKENIZER_CHECKPOINT_CHARS) {
+            context.checkpoint();
+            if (!tokenizer.feed(responseText, from, Math.min(length, from + TOKENIZER_CHECKPOINT_CHARS))) {
+                return false;
+            }
+        }
+        if (!tokenizer.finish()) {
+            return false;
+        }
+        for (EndpointCandidate candidate : collected) {
+            target.accept(candidate);
+        }
+        metrics.recordRuleExecution(JSON_STRINGS_RULE_NAME, collected.size(), System.nanoTime() - started);
+        return true;
+    }
+
+    private LexicalRegionIndex collectHtmlCandidates(
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        List<CharRange> scriptBlocks,
+        ExtractionContext context
+    ) {
+        long started = System.nanoTime();
+        HtmlCandidateCollector collector = new HtmlCandidateCollector(scriptBlocks);
+        HtmlTokenizer tokenizer = new HtmlTokenizer(collector);
+        int length = responseText.length();
+        for (int from = 0; from < length; from += TOKENIZER_CHECKPOINT_CHARS) {
+            context.checkpoint();
+            tokenizer.feed(responseText, 0L, from, Math.min(length, from + TOKENIZER_CHECKPOINT_CHARS));
+        }
+        scratch.ruleNanos[ATTRIBUTE_RULE_SLOT] = System.nanoTime() - started;
+        return collector.drainAttributeRegions();
+    }
+
+    private void collectWindowCustomRuleCandidates(
+        CountingSink target,
+        ExtractionScratch scratch,
+        SlidingCharWindow window,
+        DeadlineCharSequence guardedText,
+        ExtractionRuleRegistry.ExecutionPlan plan,
+        long[] cursors,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        ExtractionContext context
+    ) {
+        List<ExtractionRule> customRules = plan.getCustomRules();
+        for (int i = 0; i < customRules.size(); i++) {
+            int cursorIndex = FusedEndpointScanner.FAMILY_COUNT + i;
+            collectWindowRuleCandidates(target, scratch, window, guardedText, customRules.get(i), cursors, cursorIndex, contentType, sourceUrl, lexicalRegions, context);
+        }
+    }
+
+    private void collectWindowRuleCandidates(
+        CountingSink target,
+        ExtractionScratch scratch,
+        SlidingCharWindow window,
+        DeadlineCharSequence guardedText,
+        ExtractionRule rule,
+        long[] cursors,
+        int cursorIndex,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        ExtractionContext context
+    ) {
+        CharSequence text = window.text();
+        int hitsBefore = target.count();
+        long started = System.nanoTime();
+        Matcher matcher = scratch.matcher(rule.getPattern(), guardedText);
+        int from = Math.max(window.getScanFrom(), toWindowOffset(cursors[cursorIndex], window));
+        try {
+            for (guardedText.arm(); from <= text.length() && matcher.find(from) && matcher.start() < window.getScanTo(); guardedText.arm()) {
+                collectRuleMatch(target, scratch, rule, matcher, text, contentType, sourceUrl, lexicalRegions);
+                from = matcher.end();
+                cursors[cursorIndex] = window.getBaseOffset() + from;
+            }
+        } catch (DeadlineCharSequence.BudgetExceededException ex) {
+            recordPatternAbort(rule.getName(), context);
+        }
+        metrics.recordRuleExecution(rule.getName(), target.count() - hitsBefore, System.nanoTime() - started);
+    }
+
+    private FusedEndpointScanner.Matches scanFusedWindow(
+        ExtractionScratch scratch,
+        SlidingCharWindow window,
+        long[] cursors,
+        int enabledFamilies,
+        ExtractionContext context
+    ) {
+        CharSequence text = window.text();
+        int[] windowCursors = scratch.fusedCursors();
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            windowCursors[family] = toWindowOffset(cursors[family], window);
+        }
+        long started = System.nanoTime();
+        int segments = segmentCount(window.getScanTo() - window.getScanFrom(), AppConfig.PARALLEL_WINDOW_SEGMENT_CHARS, AppConfig.SCRIPT_EXTRACTION_PARALLELISM);
+        FusedEndpointScanner.Matches matches = scanFused(text, window.getScanFrom(), window.getScanTo(), windowCursors, enabledFamilies, segments, scratch, context);
+        metrics.recordRuleExecution(FUSED_SCAN_RULE_NAME, matches.totalCount(), System.nanoTime() - started);
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            cursors[family] = Math.max(cursors[family], window.getBaseOffset() + windowCursors[family]);
+        }
+        return matches;
+    }
+
+    private FusedEndpointScanner.Matches matchWindowRules(
+        ExtractionScratch scratch,
+        SlidingCharWindow window,
+        DeadlineCharSequence guardedText,
+        int enabledFamilies,
+        long[] cursors,
+        ExtractionContext context
+    ) {
+        CharSequence text = window.text();
+        FusedEndpointScanner.Matches matches = scratch.fusedMatches;
+        matches.clear();
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            if (!TriggerKeywordFilter.isEnabled(enabledFamilies, family)) {
                 continue;
             }
-            if (isLikelyRegexFragment(cleaned, matchType)) {
+            ExtractionRule rule = ruleRegistry.builtInRule(family);
+            long started = System.nanoTime();
+            Matcher matcher = scratch.matcher(rule.getPattern(), guardedText);
+            int from = Math.max(window.getScanFrom(), toWindowOffset(cursors[family], window));
+            try {
+                for (guardedText.arm(); from <= text.length() && matcher.find(from) && matcher.start() < window.getScanTo(); guardedText.arm()) {
+                    addRuleMatch(matches, family, rule, matcher);
+                    from = matcher.end();
+                    cursors[family] = window.getBaseOffset() + from;
+                }
+            } catch (DeadlineCharSequence.BudgetExceededException ex) {
+                recordPatternAbort(rule.getName(), context);
+            }
+            scratch.ruleNanos[family] = System.nanoTime() - started;
+        }
+        return matches;
+    }
+
+    private int toWindowOffset(long absoluteOffset, SlidingCharWindow window) {
+        long relative = absoluteOffset - window.getBaseOffset();
+        if (relative <= 0) {
+            return 0;
+        }
+        return (int) Math.min(relative, window.length());
+    }
+
+    private FusedEndpointScanner.Matches matchRules(
+        ExtractionScratch scratch,
+        DeadlineCharSequence guardedText,
+        int enabledFamilies,
+        ExtractionContext context
+    ) {
+        FusedEndpointScanner.Matches matches = scratch.fusedMatches;
+        matches.clear();
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            if (!TriggerKeywordFilter.isEnabled(enabledFamilies, family)) {
                 continue;
             }
+            ExtractionRule rule = ruleRegistry.builtInRule(family);
+            long started = System.nanoTime();
+            Matcher matcher = scratch.matcher(rule.getPattern(), guardedText);
+            try {
+                for (guardedText.arm(); matcher.find(); guardedText.arm()) {
+                    addRuleMatch(matches, family, rule, matcher);
+                }
+            } catch (DeadlineCharSequence.BudgetExceededException ex) {
+                recordPatternAbort(rule.getName(), context);
+            }
+            scratch.ruleNanos[family] = System.nanoTime() - started;
+        }
+        return matches;
+    }
+
+    private void addRuleMatch(FusedEndpointScanner.Matches matches, int family, ExtractionRule rule, Matcher matcher) {
+        int valueGroup = rule.getValueGroup();
+        if (valueGroup > matcher.groupCount() || matcher.start(valueGroup) < 0) {
+            return;
+        }
+        matches.add(family, matcher.start(), matcher.end(), matcher.start(valueGroup), matcher.end(valueGroup));
+    }
 
-            String dedupeKey = cleaned + "|" + matchType;
-            if (!seen.add(dedupeKey)) {
+    private void collectMatchedCandidates(
+        CountingSink target,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        FusedEndpointScanner.Matches matches,
+        int executedFamilies,
+        boolean htmlAttributes,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions
+    ) {
+        int[] next = scratch.mergeCursors();
+        int[] hits = scratch.ruleHits;
+        int attributeCount = htmlAttributes ? lexicalRegions.count(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE) : 0;
+        int nextAttribute = 0;
+        long started = System.nanoTime();
+        while (true) {
+            int family = -1;
+            int offset = Integer.MAX_VALUE;
+            for (int candidateFamily = 0; candidateFamily < FusedEndpointScanner.FAMILY_COUNT; candidateFamily++) {
+                if (next[candidateFamily] < matches.count(candidateFamily)) {
+                    int candidateOffset = matchOffset(matches, candidateFamily, next[candidateFamily]);
+                    if (candidateOffset < offset) {
+                        family = candidateFamily;
+                        offset = candidateOffset;
+                    }
+                }
+            }
+            if (nextAttribute < attributeCount && lexicalRegions.start(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, nextAttribute) <= offset) {
+                int hitsBefore = target.count();
+                CharRange value = new CharRange(
+                    responseText,
+                    lexicalRegions.start(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, nextAttribute),
+                    lexicalRegions.end(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, nextAttribute)
+                );
+                collectSingleCandidate(target, scratch, value, detectMatchType(value), HTML_CONTENT_TYPE, sourceUrl);
+                hits[ATTRIBUTE_RULE_SLOT] += target.count() - hitsBefore;
+                nextAttribute += 1;
                 continue;
             }
-            target.add(new EndpointCandidate(cleaned, sourceUrl, contentType, matchType));
+            if (family < 0) {
+                break;
+            }
+            int hitsBefore = target.count();
+            collectMatch(target, scratch, responseText, matches, family, next[family], contentType, sourceUrl, lexicalRegions);
+            hits[family] += target.count() - hitsBefore;
+            next[family] += 1;
         }
+        recordMatchedRules(matches, executedFamilies, htmlAttributes, scratch, System.nanoTime() - started);
     }
 
-    private void collectGroupCandidates(
-        List<EndpointCandidate> target,
-        Set<String> seen,
-        Matcher matcher,
-        int groupIndex,
+    private int matchOffset(FusedEndpointScanner.Matches matches, int family, int index) {
+        return ruleRegistry.builtInRule(family).getValueGroup() == 0 ? matches.start(family, index) : matches.valueStart(family, index);
+    }
+
+    private void collectMatch(
+        CountingSink target,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        FusedEndpointScanner.Matches matches,
+        int family,
+        int index,
         String contentType,
-        String sourceUrl
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions
+    ) {
+        ExtractionRule rule = ruleRegistry.builtInRule(family);
+        boolean positional = rule.getValueGroup() == 0;
+        int start = positional ? matches.start(family, index) : matches.valueStart(family, index);
+        int end = positional ? matches.end(family, index) : matches.valueEnd(family, index);
+        CharRange value = new CharRange(responseText, start, end);
+        String matchType = rule.getMatchType() != null ? rule.getMatchType() : detectMatchType(value);
+        if (positional) {
+            collectPositionalCandidate(target, scratch, responseText, start, end, matchType, contentType, sourceUrl, lexicalRegions);
+            return;
+        }
+        collectSingleCandidate(target, scratch, value, matchType, contentType, sourceUrl);
+    }
+
+    private void recordMatchedRules(
+        FusedEndpointScanner.Matches matches,
+        int executedFamilies,
+        boolean htmlAttributes,
+        ExtractionScratch scratch,
+        long collectNanos
     ) {
-        while (matcher.find()) {
-            if (groupIndex > matcher.groupCount()) {
+        int total = matches.totalCount();
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            int count = matches.count(family);
+            if (count == 0 && !TriggerKeywordFilter.isEnabled(executedFamilies, family)) {
                 continue;
             }
-            String value = matcher.group(groupIndex);
-            String matchType = detectMatchType(value);
-            collectSingleCandidate(target, seen, value, matchType, contentType, sourceUrl);
+            long share = total == 0 ? 0L : collectNanos * count / total;
+            metrics.recordRuleExecution(ruleRegistry.builtInRule(family).getName(), scratch.ruleHits[family], scratch.ruleNanos[family] + share);
+        }
+        if (htmlAttributes) {
+            metrics.recordRuleExecution(HTML_ATTRIBUTES_RULE_NAME, scratch.ruleHits[ATTRIBUTE_RULE_SLOT], scratch.ruleNanos[ATTRIBUTE_RULE_SLOT]);
+        }
+    }
+
+    private void collectRuleCandidates(
+        CountingSink target,
+        ExtractionScratch scratch,
+        DeadlineCharSequence guardedText,
+        CharSequence responseText,
+        ExtractionRule rule,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions,
+        ExtractionContext context
+    ) {
+        int hitsBefore = target.count();
+        long started = System.nanoTime();
+        Matcher matcher = scratch.matcher(rule.getPattern(), guardedText);
+        try {
+            for (guardedText.arm(); matcher.find(); guardedText.arm()) {
+                collectRuleMatch(target, scratch, rule, matcher, responseText, contentType, sourceUrl, lexicalRegions);
+            }
+        } catch (DeadlineCharSequence.BudgetExceededException ex) {
+            recordPatternAbort(rule.getName(), context);
         }
+        metrics.recordRuleExecution(rule.getName(), target.count() - hitsBefore, System.nanoTime() - started);
+    }
+
+    private void collectRuleMatch(
+        CountingSink target,
+        ExtractionScratch scratch,
+        ExtractionRule rule,
+        Matcher matcher,
+        CharSequence responseText,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions
+    ) {
+        int valueGroup = rule.getValueGroup();
+        if (valueGroup > matcher.groupCount() || matcher.start(valueGroup) < 0) {
+            return;
+        }
+        CharRange value = new CharRange(responseText, matcher.start(valueGroup), matcher.end(valueGroup));
+        String matchType = rule.getMatchType() != null ? rule.getMatchType() : detectMatchType(value);
+        if (valueGroup == 0) {
+            collectPositionalCandidate(target, scratch, responseText, value.getStart(), value.getEnd(), matchType, contentType, sourceUrl, lexicalRegions);
+            return;
+        }
+        collectSingleCandidate(target, scratch, value, matchType, contentType, sourceUrl);
+    }
+
+    private void collectPositionalCandidate(
+        CandidateSink target,
+        ExtractionScratch scratch,
+        CharSequence responseText,
+        int matchStart,
+        int matchEnd,
+        String matchType,
+        String contentType,
+        String sourceUrl,
+        LexicalRegionIndex lexicalRegions
+    ) {
+        if (lexicalRegions.contains(LexicalRegionIndex.RegionKind.REGEX_LITERAL, matchStart)) {
+            return;
+        }
+        if (isCoveredByAttributeValue(responseText, matchStart, matchEnd, lexicalRegions)) {
+            return;
+        }
+        if (isRegexConsumerContext(responseText, matchStart, matchType, contentType)) {
+            return;
+        }
+        collectSingleCandidate(target, scratch, new CharRange(responseText, matchStart, matchEnd), matchType, contentType, sourceUrl);
+    }
+
+    private boolean isCoveredByAttributeValue(CharSequence responseText, int matchStart, int matchEnd, LexicalRegionIndex lexicalRegions) {
+        int valueStart = matchStart < matchEnd && isQuote(responseText.charAt(matchStart)) ? matchStart + 1 : matchStart;
+        int index = lexicalRegions.indexOf(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, valueStart);
+        if (index < 0) {
+            return false;
+        }
+        return lexicalRegions.start(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, index) == valueStart
+            && matchEnd <= lexicalRegions.end(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, index) + 1;
     }
 
     private void collectListCandidates(
-        List<EndpointCandidate> target,
-        Set<String> seen,
+        CountingSink target,
+        ExtractionScratch scratch,
         List<String> values,
         String contentType,
         String sourceUrl
@@ -154,66 +953,142 @@ public class EndpointExtractor {
             return;
         }
         for (String value : values) {
-            String matchType = detectMatchType(value);
-            collectSingleCandidate(target, seen, value, matchType, contentType, sourceUrl);
+            CharRange range = value == null ? null : CharRange.of(value);
+            String matchType = detectMatchType(range);
+            collectSingleCandidate(target, scratch, range, matchType, contentType, sourceUrl, EndpointCandidate.ORIGIN_AST);
         }
     }
 
     private void collectSingleCandidate(
-        List<EndpointCandidate> target,
-        Set<String> seen,
-        String value,
+        CandidateSink target,
+        ExtractionScratch scratch,
+        CharRange value,
         String matchType,
         String contentType,
         String sourceUrl
     ) {
-        String cleaned = cleanMatch(value);
-        if (cleaned == null) {
+        collectSingleCandidate(target, scratch, value, matchType, contentType, sourceUrl, EndpointCandidate.ORIGIN_PATTERN);
+    }
+
+    private void collectSingleCandidate(
+        CandidateSink target,
+        ExtractionScratch scratch,
+        CharRange value,
+        String matchType,
+        String contentType,
+        String sourceUrl,
+        String origin
+    ) {
+        CharRange cleaned = decodeNonAscii(cleanMatch(value));
+        if (cleaned == null || scratch.contains(cleaned, matchType)) {
             return;
         }
-        String lowerCleaned = cleaned.toLowerCase(Locale.ROOT);
-        if (startsWithAny(lowerCleaned, NOISE_PREFIXES)) {
+        if (startsWithAnyIgnoreCase(cleaned, NOISE_PREFIXES)) {
             return;
         }
         if ("relative".equals(matchType) && cleaned.startsWith("//")) {
             return;
         }
-        if (isLikelyRegexFragment(cleaned, matchType)) {
+        if (isLikelyRegexFragment(cleaned, matchType, scratch)) {
             return;
         }
-        String dedupeKey = cleaned + "|" + matchType;
-        if (!seen.add(dedupeKey)) {
+        CharRange retained = scratch.add(cleaned, matchType);
+        if (retained == null) {
             return;
         }
-        target.add(new EndpointCandidate(cleaned, sourceUrl, contentType, matchType));
+        target.accept(new EndpointCandidate(retained, sourceUrl, contentType, matchType, origin));
+    }
+
+    private CharRange decodeNonAscii(CharRange value) {
+        if (value == null || !(value.getBuffer() instanceof Utf8ByteSequence)) {
+            return value;
+        }
+        Utf8ByteSequence bytes = (Utf8ByteSequence) value.getBuffer();
+        if (bytes.isAscii(value.getStart(), value.getEnd())) {
+            return value;
+        }
+        return CharRange.of(value.toString());
     }
 
-    private String detectMatchType(String value) {
+    private String detectMatchType(CharRange value) {
         if (value == null) {
             return "relative";
         }
-        String lower = value.trim().toLowerCase(Locale.ROOT);
-        if (lower.startsWith("http://") || lower.startsWith("https://")) {
+        CharRange trimmed = value.trim();
+        if (trimmed.startsWithIgnoreCase("http://") || trimmed.startsWithIgnoreCase("https://")) {
             return "absolute";
         }
         return "relative";
     }
 
-    private List<String> collectJavaScriptSources(String responseText, String normalizedContentType) {
-        List<String> sources = new ArrayList<>();
-        if (isJavaScriptContentType(normalizedContentType)) {
-            sources.add(responseText);
+    private List<List<String>> extractBundleModuleCandidates(CharSequence responseText, List<CharRange> modules, ExtractionContext context) {
+        List<CharRange> sources = new ArrayList<>(modules.size() + 1);
+        sources.add(CharRange.of(JsBundleSplitter.prelude(responseText, modules)));
+        sources.addAll(modules);
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(sources.size(), (List<String>) null));
+        List<ExtractionCache.Key> keys = new ArrayList<>(sources.size());
+        List<JsSourceDocument> pending = new ArrayList<>();
+        List<Integer> pendingSlots = new ArrayList<>();
+        boolean skipped = false;
+        for (int i = 0; i < sources.size(); i++) {
+            CharRange source = sources.get(i);
+            ExtractionCache.Key key = JsModuleCache.keyOf(source);
+            keys.add(key);
+            List<String> cached = moduleCache.get(key);
+            if (cached != null) {
+                results.set(i, cached);
+            } else if (source.length() > AppConfig.AST_EXTRACTION_MAX_CHARS) {
+                results.set(i, Collections.<String>emptyList());
+                skipped = true;
+            } else {
+                pending.add(new JsSourceDocument(i == 0 ? source : JsBundleSplitter.moduleSource(source)));
+                pendingSlots.add(i);
+            }
         }
-        if (!"text/html".equals(normalizedContentType)) {
-            return sources;
+        if (skipped) {
+            metrics.recordAstSkippedItem();
         }
-        Matcher scriptMatcher = SCRIPT_BLOCK_PATTERN.matcher(responseText);
-        while (scriptMatcher.find()) {
-            String scriptBlock = scriptMatcher.group(1);
-            if (scriptBlock == null || scriptBlock.trim().isEmpty()) {
-                continue;
+        List<List<String>> parsed = extractJavaScriptCandidates(pending, context);
+        for (int i = 0; i < parsed.size(); i++) {
+            int slot = pendingSlots.get(i);
+            results.set(slot, parsed.get(i));
+            moduleCache.put(keys.get(slot), parsed.get(i));
+        }
+        return results;
+    }
+
+    private List<List<String>> extractJavaScriptCandidates(List<JsSourceDocument> documents, ExtractionContext context) {
+        long totalChars = 0L;
+        for (JsSourceDocument document : documents) {
+            totalChars += document.length();
+        }
+        if (documents.size() < 2 || totalChars < AppConfig.PARALLEL_SCRIPT_MIN_CHARS) {
+            List<List<String>> results = new ArrayList<>(documents.size());
+            for (JsSourceDocument document : documents) {
+                results.add(jsAstEndpointExtractor.extract(document, context));
+            }
+            return results;
+        }
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(documents.size(), (List<String>) null));
+        SCRIPT_EXTRACTION_POOL.invoke(new ScriptExtractionTask(documents, results, 0, documents.size(), context));
+        return results;
+    }
+
+    private List<JsSourceDocument> collectJavaScriptSources(
+        CharSequence responseText,
+        String normalizedContentType,
+        JsSourceDocument responseDocument,
+        List<CharRange> scriptBlocks
+    ) {
+        List<JsSourceDocument> sources = new ArrayList<>();
+        if (isJavaScriptContentType(normalizedContentType)) {
+            sources.add(responseDocument != null ? responseDocument : new JsSourceDocument(responseText.toString()));
+        }
+        for (CharRange scriptBlock : scriptBlocks) {
+            JsSourceDocument document = new JsSourceDocument(scriptBlock);
+            if (!document.isBlank()) {
+                sources.add(document);
             }
-            sources.add(scriptBlock);
         }
         return sources;
     }
@@ -227,7 +1102,7 @@ public class EndpointExtractor {
         return false;
     }
 
-    private String resolveEffectiveContentType(String normalizedContentType, String responseText, String sourceUrl) {
+    private String resolveEffectiveContentType(String normalizedContentType, CharSequence responseText, String sourceUrl) {
         if (AppConfig.SUPPORTED_CONTENT_TYPES.contains(normalizedContentType)) {
             return normalizedContentType;
         }
@@ -243,108 +1118,51 @@ public class EndpointExtractor {
         if (normalizedContentType.contains("text/")) {
             return "text/plain";
         }
-
-        String body = responseText == null ? "" : responseText.trim();
-        if (looksLikeJson(body)) {
-            return "application/json";
-        }
-        if (looksLikeHtml(body)) {
-            return "text/html";
-        }
-        if (looksLikeJavaScript(body, sourceUrl)) {
-            return "application/javascript";
-        }
-        if (!normalizedContentType.isEmpty()) {
-            return normalizedContentType;
-        }
-        return "application/octet-stream";
-    }
-
-    private boolean looksLikeJson(String body) {
-        if (body.isEmpty()) {
-            return false;
-        }
-        if (!(body.startsWith("{") || body.startsWith("["))) {
-            return false;
-        }
-        return body.indexOf(':') >= 0 || body.indexOf('{') >= 0;
-    }
-
-    private boolean looksLikeHtml(String body) {
-        if (body.isEmpty()) {
-            return false;
-        }
-        String lower = body.toLowerCase(Locale.ROOT);
-        return lower.startsWith("<!doctype html")
-            || lower.startsWith("<html")
-            || lower.contains("<script");
+        return contentSniffer.sniff(normalizedContentType, responseText, sourceUrl);
     }
 
-    private boolean looksLikeJavaScript(String body, String sourceUrl) {
-        String lowerSourceUrl = sourceUrl == null ? "" : sourceUrl.toLowerCase(Locale.ROOT);
-        if (lowerSourceUrl.endsWith(".js") || lowerSourceUrl.endsWith(".mjs")) {
-            return true;
-        }
-        if (body.isEmpty()) {
-            return false;
-        }
-        String lowerBody = body.toLowerCase(Locale.ROOT);
-        return lowerBody.contains("function ")
-            || lowerBody.contains("=>")
-            || lowerBody.contains("window.")
-            || lowerBody.contains("document.")
-            || lowerBody.contains("var ")
-            || lowerBody.contains("const ")
-            || lowerBody.contains("let ");
-    }
-
-    private List<JsAstEndpointExtractor.SourceRange> collectRegexLiteralRanges(String responseText, String normalizedContentType) {
-        if (!isJavaScriptContentType(normalizedContentType)) {
-            return new ArrayList<>();
-        }
-        return jsAstEndpointExtractor.extractRegexLiteralRanges(responseText);
-    }
-
-    private boolean isInsideRegexLiteral(int matchStart, List<JsAstEndpointExtractor.SourceRange> ranges) {
-        if (ranges == null || ranges.isEmpty()) {
-            return false;
-        }
-        for (JsAstEndpointExtractor.SourceRange range : ranges) {
-            if (range != null && range.contains(matchStart)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private String cleanMatch(String value) {
+    private CharRange cleanMatch(CharRange value) {
         if (value == null) {
             return null;
         }
-        String cleaned = value.trim();
-        if ((cleaned.startsWith("\"") && cleaned.endsWith("\"")) || (cleaned.startsWith("'") && cleaned.endsWith("'"))) {
-            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        CharRange cleaned = value.trim();
+        int length = cleaned.length();
+        if (length >= 2 && isMatchingQuotePair(cleaned.charAt(0), cleaned.charAt(length - 1))) {
+            cleaned = cleaned.subSequence(1, length - 1);
         } else {
             cleaned = trimQuotes(cleaned);
         }
-        while (!cleaned.isEmpty() && TRAILING_TRIM_CHARS.indexOf(cleaned.charAt(cleaned.length() - 1)) >= 0) {
-            cleaned = cleaned.substring(0, cleaned.length() - 1);
+        int end = cleaned.length();
+        while (end > 0 && TRAILING_TRIM_CHARS.indexOf(cleaned.charAt(end - 1)) >= 0) {
+            end -= 1;
         }
-        if (cleaned.isEmpty() || "/".equals(cleaned)) {
+        if (end == 0 || (end == 1 && cleaned.charAt(0) == '/')) {
             return null;
         }
-        return cleaned;
+        return end == cleaned.length() ? cleaned : cleaned.subSequence(0, end);
+    }
+
+    private boolean isMatchingQuotePair(char first, char last) {
+        return (first == '\"' && last == '\"') || (first == '\'' && last == '\'');
     }
 
-    private String trimQuotes(String value) {
-        String trimmed = value;
-        while (!trimmed.isEmpty() && (trimmed.charAt(0) == '\'' || trimmed.charAt(0) == '\"')) {
-            trimmed = trimmed.substring(1);
+    private CharRange trimQuotes(CharRange value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && isQuote(value.charAt(start))) {
+            start += 1;
+        }
+        while (end > start && isQuote(value.charAt(end - 1))) {
+            end -= 1;
         }
-        while (!trimmed.isEmpty() && (trimmed.charAt(trimmed.length() - 1) == '\'' || trimmed.charAt(trimmed.length() - 1) == '\"')) {
-            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        if (start == 0 && end == value.length()) {
+            return value;
         }
-        return trimmed;
+        return value.subSequence(start, end);
+    }
+
+    private boolean isQuote(char value) {
+        return value == '\'' || value == '\"';
     }
 
     private String normalizeContentType(String contentType) {
@@ -358,92 +1176,91 @@ public class EndpointExtractor {
         return contentType.trim().toLowerCase(Locale.ROOT);
     }
 
-    private boolean startsWithAny(String value, String[] prefixes) {
-        for (String prefix : prefixes) {
-            if (value.startsWith(prefix)) {
+    private boolean startsWithAnyIgnoreCase(CharRange value, String[] lowerPrefixes) {
+        for (String prefix : lowerPrefixes) {
+            if (value.startsWithIgnoreCase(prefix)) {
                 return true;
             }
         }
         return false;
     }
 
-    private boolean isLikelyRegexFragment(String value, String matchType) {
+    private boolean isLikelyRegexFragment(CharRange value, String matchType, ExtractionScratch scratch) {
         if (!"relative".equals(matchType) || value == null) {
             return false;
         }
-        String normalized = value.trim();
+        CharRange normalized = value.trim();
         if (normalized.isEmpty() || !normalized.startsWith("/") || normalized.startsWith("//")) {
             return false;
         }
 
-        String withoutQuery = stripQueryOnly(normalized);
+        CharRange withoutQuery = stripQueryOnly(normalized);
         if (withoutQuery.isEmpty()) {
             return false;
         }
-        if (REGEX_FLAG_ONLY_PATTERN.matcher(withoutQuery).matches()) {
+        if (scratch.matcher(REGEX_FLAG_ONLY_PATTERN, withoutQuery).matches()) {
             return true;
         }
-        if (REGEX_FLAG_TEST_PATTERN.matcher(withoutQuery).matches()) {
+        if (scratch.matcher(REGEX_FLAG_TEST_PATTERN, withoutQuery).matches()) {
             return true;
         }
         if (withoutQuery.startsWith("/(") || withoutQuery.startsWith("/[") || withoutQuery.startsWith("/^")) {
             return true;
         }
-        if (isRegexBodyWithTrailingFlags(normalized)) {
+        if (isRegexBodyWithTrailingFlags(normalized, scratch)) {
             return true;
         }
         if (isRegexBodyWithNonPathSuffix(normalized)) {
             return true;
         }
-        if (isRegexBodyWithoutFlags(normalized)) {
+        if (isRegexBodyWithoutFlags(normalized, scratch)) {
             return true;
         }
-        if (isOpenRegexFragment(normalized)) {
+        if (isOpenRegexFragment(normalized, scratch)) {
             return true;
         }
-        if (withoutQuery.contains("\\") || withoutQuery.contains("|") || withoutQuery.contains(".test(")) {
+        if (withoutQuery.indexOf('\\') >= 0 || withoutQuery.indexOf('|') >= 0 || withoutQuery.indexOf(".test(") >= 0) {
             return true;
         }
         return false;
     }
 
-    private String stripQueryOnly(String value) {
+    private CharRange stripQueryOnly(CharRange value) {
         int queryIndex = value.indexOf('?');
-        int end = value.length();
-        if (queryIndex >= 0 && queryIndex < end) {
-            end = queryIndex;
+        if (queryIndex < 0) {
+            return value;
         }
-        return value.substring(0, end);
+        return value.subSequence(0, queryIndex);
     }
 
-    private boolean isRegexBodyWithTrailingFlags(String value) {
+    private boolean isRegexBodyWithTrailingFlags(CharRange value, ExtractionScratch scratch) {
         int lastSlash = value.lastIndexOf('/');
         if (lastSlash <= 0 || lastSlash >= value.length() - 1) {
             return false;
         }
-        String flags = value.substring(lastSlash + 1);
-        if (!REGEX_FLAGS_PATTERN.matcher(flags).matches()) {
+        CharRange flags = value.subSequence(lastSlash + 1, value.length());
+        if (!scratch.matcher(REGEX_FLAGS_PATTERN, flags).matches()) {
             return false;
         }
-        String regexBody = value.substring(1, lastSlash);
+        CharRange regexBody = value.subSequence(1, lastSlash);
         if (regexBody.isEmpty()) {
             return false;
         }
         if (regexBody.length() == 1) {
             return true;
         }
-        if (regexBody.indexOf('/') < 0 && !URL_PATH_SEGMENT_PATTERN.matcher(regexBody).matches()) {
+        if (regexBody.indexOf('/') < 0 && !scratch.matcher(URL_PATH_SEGMENT_PATTERN, regexBody).matches()) {
             return true;
         }
         return containsRegexMeta(regexBody);
     }
 
-    private boolean isRegexBodyWithoutFlags(String value) {
+    private boolean isRegexBodyWithoutFlags(CharRange value, ExtractionScratch scratch) {
         int closingSlash = value.lastIndexOf('/');
         if (closingSlash <= 1 || closingSlash != value.length() - 1) {
             return false;
         }
-        String regexBody = value.substring(1, closingSlash);
+        CharRange regexBody = value.subSequence(1, closingSlash);
         if (regexBody.isEmpty()) {
             return false;
         }
@@ -456,25 +1273,24 @@ public class EndpointExtractor {
         if (containsRegexMeta(regexBody)) {
             return true;
         }
-        return !URL_PATH_SEGMENT_PATTERN.matcher(regexBody).matches();
+        return !scratch.matcher(URL_PATH_SEGMENT_PATTERN, regexBody).matches();
     }
 
-    private boolean isRegexBodyWithNonPathSuffix(String value) {
+    private boolean isRegexBodyWithNonPathSuffix(CharRange value) {
         int closingSlash = value.indexOf('/', 1);
         if (closingSlash <= 1 || closingSlash >= value.length() - 1) {
             return false;
         }
-        String regexBody = value.substring(1, closingSlash);
+        CharRange regexBody = value.subSequence(1, closingSlash);
         if (regexBody.isEmpty()) {
             return false;
         }
         if (!containsRegexMeta(regexBody) && regexBody.length() > 1) {
             return false;
         }
-        String suffix = value.substring(closingSlash + 1);
         boolean hasAlphaNumeric = false;
-        for (int i = 0; i < suffix.length(); i++) {
-            char character = suffix.charAt(i);
+        for (int i = closingSlash + 1; i < value.length(); i++) {
+            char character = value.charAt(i);
             if (Character.isLetterOrDigit(character)) {
                 hasAlphaNumeric = true;
                 break;
@@ -483,12 +1299,12 @@ public class EndpointExtractor {
         return !hasAlphaNumeric;
     }
 
-    private boolean isOpenRegexFragment(String value) {
+    private boolean isOpenRegexFragment(CharRange value, ExtractionScratch scratch) {
         int nextSlash = value.indexOf('/', 1);
         if (nextSlash >= 0) {
             return false;
         }
-        String fragment = value.substring(1);
+        CharRange fragment = value.subSequence(1, value.length());
         if (fragment.isEmpty()) {
             return false;
         }
@@ -496,13 +1312,13 @@ public class EndpointExtractor {
         if (queryMark >= 0 && fragment.indexOf('=', queryMark + 1) >= 0) {
             return false;
         }
-        if (fragment.contains(".test")) {
+        if (fragment.indexOf(".test") >= 0) {
             return true;
         }
-        return REGEX_META_FRAGMENT_PATTERN.matcher(fragment).find();
+        return scratch.matcher(REGEX_META_FRAGMENT_PATTERN, fragment).find();
     }
 
-    private boolean containsRegexMeta(String value) {
+    private boolean containsRegexMeta(CharRange value) {
         for (int i = 0; i < value.length(); i++) {
             char ch = value.charAt(i);
             if (ch == '\\' || ch == '[' || ch == ']' || ch == '(' || ch == ')' || ch == '{' || ch == '}'
@@ -514,7 +1330,7 @@ public class EndpointExtractor {
         return value.indexOf('-') >= 0;
     }
 
-    private boolean isRegexConsumerContext(String responseText, int matchStart, String matchType, String contentType) {
+    private boolean isRegexConsumerContext(CharSequence responseText, int matchStart, String matchType, String contentType) {
         if (!"relative".equals(matchType) || !isJavaScriptContentType(contentType)) {
             return false;
         }
@@ -544,7 +1360,7 @@ public class EndpointExtractor {
         if (methodEnd < index + 1) {
             return false;
         }
-        String methodName = responseText.substring(index + 1, methodEnd + 1).toLowerCase(Locale.ROOT);
+        CharRange methodName = new CharRange(responseText, index + 1, methodEnd + 1);
 
         while (index >= 0 && Character.isWhitespace(responseText.charAt(index))) {
             index -= 1;
@@ -554,7 +1370,7 @@ public class EndpointExtractor {
         }
 
         for (String consumer : REGEX_CONSUMER_METHODS) {
-            if (consumer.equals(methodName)) {
+            if (consumer.length() == methodName.length() && methodName.startsWithIgnoreCase(consumer)) {
                 return true;
             }
         }
@@ -564,4 +1380,255 @@ public class EndpointExtractor {
     private boolean isIdentifierPart(char value) {
         return Character.isLetterOrDigit(value) || value == '_' || value == '$';
     }
+
+    private class JsonCandidateCollector implements JsonStringTokenizer.Visitor {
+        private final CandidateSink target;
+        private final ExtractionScratch scratch;
+        private final String sourceUrl;
+        private final int families;
+
+        private JsonCandidateCollector(CandidateSink target, ExtractionScratch scratch, String sourceUrl, int families) {
+            this.target = target;
+            this.scratch = scratch;
+            this.sourceUrl = sourceUrl;
+            this.families = families;
+        }
+
+        @Override
+        public void onString(CharSequence value, boolean key, int depth, String containerKey, boolean complete) {
+            if (key && depth == 2 && complete && OPENAPI_PATHS_KEY.equals(containerKey) && value.length() > 1 && value.charAt(0) == '/') {
+                collectSingleCandidate(target, scratch, CharRange.of(value.toString()), "relative", JSON_CONTENT_TYPE, sourceUrl);
+                return;
+            }
+            if (!containsSlash(value)) {
+                return;
+            }
+            FusedEndpointScanner.Matches matches = new FusedEndpointScanner(value, families)
+                .scan(0, value.length(), scratch.stringCursors(), ExtractionContext.unbounded(), scratch.stringMatches);
+            if (matches.totalCount() == 0) {
+                return;
+            }
+            String text = value.toString();
+            for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+                ExtractionRule rule = ruleRegistry.builtInRule(family);
+                for (int i = 0; i < matches.count(family); i++) {
+                    if (!complete && matches.end(family, i) >= text.length()) {
+                        continue;
+                    }
+                    collectPositionalCandidate(
+                        target,
+                        scratch,
+                        text,
+                        matches.start(family, i),
+                        matches.end(family, i),
+                        rule.getMatchType(),
+                        JSON_CONTENT_TYPE,
+                        sourceUrl,
+                        LexicalRegionIndex.empty()
+                    );
+                }
+            }
+        }
+
+        private boolean containsSlash(CharSequence value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) == '/') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private class HtmlCandidateCollector implements HtmlTokenizer.Visitor {
+        private final List<CharRange> scriptBlocks;
+        private LexicalRegionIndex.Builder attributeRegions = new LexicalRegionIndex.Builder();
+
+        private HtmlCandidateCollector(List<CharRange> scriptBlocks) {
+            this.scriptBlocks = scriptBlocks;
+        }
+
+        @Override
+        public void onAttribute(HtmlTokenizer.AttributeKind kind, CharSequence name, CharSequence text, int valueStart, int valueEnd) {
+            CharRange value = new CharRange(text, valueStart, valueEnd).trim();
+            boolean dataAttribute = kind == HtmlTokenizer.AttributeKind.DATA;
+            if (!isEndpointAttributeValue(value, dataAttribute)) {
+                return;
+            }
+            attributeRegions.add(LexicalRegionIndex.RegionKind.ATTRIBUTE_VALUE, value.getStart(), value.getEnd());
+        }
+
+        @Override
+        public void onScript(CharSequence text, int contentStart, int contentEnd) {
+            if (scriptBlocks != null) {
+                scriptBlocks.add(new CharRange(text, contentStart, contentEnd));
+            }
+        }
+
+        private LexicalRegionIndex drainAttributeRegions() {
+            LexicalRegionIndex regions = attributeRegions.build();
+            attributeRegions = new LexicalRegionIndex.Builder();
+            return regions;
+        }
+
+        private boolean isEndpointAttributeValue(CharRange value, boolean dataAttribute) {
+            if (value.isEmpty() || value.charAt(0) == '#') {
+                return false;
+            }
+            boolean hasSlash = false;
+            boolean pathStarted = false;
+            for (int i = 0; i < value.length(); i++) {
+                char current = value.charAt(i);
+                if (current <= ' ' || current == '<' || current == '>' || current == '{' || current == '`') {
+                    return false;
+                }
+                if (current == ':' && !pathStarted && !startsWithAnyIgnoreCase(value, HTTP_SCHEMES)) {
+                    return false;
+                }
+                hasSlash |= current == '/';
+                pathStarted |= current == '/' || current == '?' || current == '#';
+            }
+            return hasSlash || !dataAttribute;
+        }
+    }
+
+    private static class CountingSink implements CandidateSink {
+        private final CandidateSink delegate;
+        private int count;
+
+        private CountingSink(CandidateSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(EndpointCandidate candidate) {
+            count += 1;
+            delegate.accept(candidate);
+        }
+
+        private int count() {
+            return count;
+        }
+    }
+
+    private class ScriptExtractionTask extends RecursiveAction {
+        private final List<JsSourceDocument> documents;
+        private final List<List<String>> results;
+        private final int from;
+        private final int to;
+        private final ExtractionContext context;
+
+        private ScriptExtractionTask(
+            List<JsSourceDocument> documents,
+            List<List<String>> results,
+            int from,
+            int to,
+            ExtractionContext context
+        ) {
+            this.documents = documents;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            context.checkpoint();
+            if (to - from == 1) {
+                results.set(from, jsAstEndpointExtractor.extract(documents.get(from), context));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new ScriptExtractionTask(documents, results, from, middle, context),
+                new ScriptExtractionTask(documents, results, middle, to, context)
+            );
+        }
+    }
+
+    private static class ExtractionScratch {
+        private final CandidateHashSet values = new CandidateHashSet(SCRATCH_INITIAL_CANDIDATES);
+        private final Map<Pattern, Matcher> matchers = new IdentityHashMap<>();
+        private final int[] fusedCursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+        private final int[] stringCursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+        private final FusedEndpointScanner.Matches fusedMatches = new FusedEndpointScanner.Matches();
+        private final FusedEndpointScanner.Matches stringMatches = new FusedEndpointScanner.Matches();
+        private final int[] mergeCursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+        private final int[] ruleHits = new int[FusedEndpointScanner.FAMILY_COUNT + 1];
+        private final long[] ruleNanos = new long[FusedEndpointScanner.FAMILY_COUNT + 1];
+        private boolean transientBuffer;
+        private boolean inUse;
+
+        private ExtractionScratch begin(boolean transientBuffer) {
+            this.transientBuffer = transientBuffer;
+            this.inUse = true;
+            values.clear();
+            return this;
+        }
+
+        private void end() {
+            values.clear();
+            fusedMatches.clear();
+            stringMatches.clear();
+            for (Matcher matcher : matchers.values()) {
+                matcher.reset("");
+            }
+            inUse = false;
+        }
+
+        private void resetCandidates() {
+            values.clear();
+        }
+
+        private boolean contains(CharRange value, String matchType) {
+            return values.contains(value, "absolute".equals(matchType));
+        }
+
+        private CharRange add(CharRange value, String matchType) {
+            boolean absolute = "absolute".equals(matchType);
+            if (values.contains(value, absolute)) {
+                return null;
+            }
+            CharRange retained = transientBuffer ? CharRange.of(value.toString()) : value;
+            values.add(retained, absolute);
+            return retained;
+        }
+
+        private Matcher matcher(Pattern pattern, CharSequence input) {
+            Matcher matcher = matchers.get(pattern);
+            if (matcher == null) {
+                matcher = pattern.matcher(input);
+                matchers.put(pattern, matcher);
+                return matcher;
+            }
+            return matcher.reset(input);
+        }
+
+        private int[] fusedCursors() {
+            Arrays.fill(fusedCursors, 0);
+            return fusedCursors;
+        }
+
+        private int[] stringCursors() {
+            Arrays.fill(stringCursors, 0);
+            return stringCursors;
+        }
+
+        private int[] mergeCursors() {
+            Arrays.fill(mergeCursors, 0);
+            return mergeCursors;
+        }
+
+        private void resetRuleCounters() {
+            Arrays.fill(ruleHits, 0);
+            Arrays.fill(ruleNanos, 0L);
+        }
+    }
+
+    public enum ScanMode {
+        LEGACY,
+        FUSED
+    }
 }
@@ -13,8 +13,33 @@ public class EndpointNormalizer {
     private static final Pattern COLON_PARAM_PATTERN = Pattern.compile("(?<=/):([A-Za-z0-9_]+)");
     private static final Pattern NEXTJS_PARAM_PATTERN = Pattern.compile("\\[(?:\\.\\.\\.)?([A-Za-z0-9_]+)\\]");
     private static final Pattern OPTIONAL_NEXTJS_PARAM_PATTERN = Pattern.compile("\\[\\[(?:\\.\\.\\.)?([A-Za-z0-9_]+)\\]\\]");
+    private static final ThreadLocal<StringBuilder> RESOLVE_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final ResolveMode resolveMode;
+    private final UriReferenceResolver resolver;
+
+    public EndpointNormalizer() {
+        this(ResolveMode.RFC3986);
+    }
+
+    public EndpointNormalizer(ResolveMode resolveMode) {
+        this.resolveMode = resolveMode == null ? ResolveMode.RFC3986 : resolveMode;
+        this.resolver = new UriReferenceResolver();
+    }
+
+    public ResolveMode getResolveMode() {
+        return resolveMode;
+    }
+
+    public NormalizationContext prepare(String baseUrl) {
+        return NormalizationContext.of(baseUrl);
+    }
 
     public String normalize(EndpointCandidate candidate, String baseUrl) {
+        return normalize(candidate, prepare(baseUrl));
+    }
+
+    public String normalize(EndpointCandidate candidate, NormalizationContext context) {
         String rawValue = candidate == null ? null : candidate.getRawValue();
         if (rawValue == null) {
             return null;
@@ -41,6 +66,21 @@ public class EndpointNormalizer {
             return null;
         }
 
+        if (resolveMode == ResolveMode.RFC3986) {
+            StringBuilder resolved = RESOLVE_BUFFER.get();
+            resolved.setLength(0);
+            int outcome = resolver.resolve(cleanedValue, context, resolved);
+            if (outcome == UriReferenceResolver.RESOLVED) {
+                return resolved.toString();
+            }
+            if (outcome == UriReferenceResolver.UNCHANGED) {
+                return cleanedValue;
+            }
+            if (outcome == UriReferenceResolver.REJECTED) {
+                return null;
+            }
+        }
+
         URI candidateUri = parseUri(toParseSafeValue(cleanedValue));
         if (candidateUri == null) {
             return null;
@@ -49,7 +89,7 @@ public class EndpointNormalizer {
         if (candidateUri.getScheme() != null && !candidateUri.getScheme().isEmpty()) {
             return normalizeAbsolute(cleanedValue, candidateUri);
         }
-        return normalizeRelative(cleanedValue, baseUrl);
+        return normalizeRelative(cleanedValue, context);
     }
 
     private String normalizeAbsolute(String cleanedValue, URI parsed) {
@@ -63,11 +103,11 @@ public class EndpointNormalizer {
         return cleanedValue;
     }
 
-    private String normalizeRelative(String cleanedValue, String baseUrl) {
+    private String normalizeRelative(String cleanedValue, NormalizationContext context) {
         if (cleanedValue.startsWith("//")) {
             return null;
         }
-        URI baseUri = parseUri(baseUrl == null ? "" : baseUrl);
+        URI baseUri = context == null ? null : context.getBaseUri();
         if (baseUri == null) {
             return null;
         }
@@ -353,6 +393,11 @@ public class EndpointNormalizer {
         return Character.digit(character, 16) >= 0;
     }
 
+    public enum ResolveMode {
+        LEGACY,
+        RFC3986
+    }
+
     private static class DecodedEntity {
         private final String replacement;
         private final int nextIndex;
@@ -10,6 +10,7 @@ public class EndpointRecord {
     private final String sourceUrl;
     private final String sourceRequestMethod;
     private final List<RequestHeader> sourceRequestHeaders;
+    private final String origin;
     private int count;
     private final long firstSeenAt;
     private long lastSeenAt;
@@ -23,6 +24,20 @@ public class EndpointRecord {
         int count,
         long firstSeenAt,
         long lastSeenAt
+    ) {
+        this(endpointUrl, host, sourceUrl, sourceRequestMethod, sourceRequestHeaders, count, firstSeenAt, lastSeenAt, EndpointCandidate.ORIGIN_PATTERN);
+    }
+
+    public EndpointRecord(
+        String endpointUrl,
+        String host,
+        String sourceUrl,
+        String sourceRequestMethod,
+        List<RequestHeader> sourceRequestHeaders,
+        int count,
+        long firstSeenAt,
+        long lastSeenAt,
+        String origin
     ) {
         this.endpointUrl = endpointUrl;
         this.host = host;
@@ -34,6 +49,7 @@ public class EndpointRecord {
         this.count = count;
         this.firstSeenAt = firstSeenAt;
         this.lastSeenAt = lastSeenAt;
+        this.origin = origin == null ? EndpointCandidate.ORIGIN_PATTERN : origin;
     }
 
     public String getEndpointUrl() {
@@ -56,6 +72,10 @@ public class EndpointRecord {
         return sourceRequestHeaders;
     }
 
+    public String getOrigin() {
+        return origin;
+    }
+
     public int getCount() {
         return count;
     }
@@ -72,6 +92,10 @@ public class EndpointRecord {
         count += 1;
     }
 
+    public void decrementCount(int amount) {
+        count = Math.max(0, count - amount);
+    }
+
     public void setLastSeenAt(long lastSeenAt) {
         this.lastSeenAt = lastSeenAt;
     }
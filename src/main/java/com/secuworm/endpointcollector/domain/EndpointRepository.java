@@ -1,6 +1,7 @@
 package com.secuworm.endpointcollector.domain;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +16,90 @@ public class EndpointRepository {
         String sourceRequestMethod,
         List<RequestHeader> sourceRequestHeaders
     ) {
+        return upsert(endpointUrl, host, sourceUrl, sourceRequestMethod, sourceRequestHeaders, EndpointCandidate.ORIGIN_PATTERN);
+    }
+
+    public synchronized EndpointRecord upsert(
+        String endpointUrl,
+        String host,
+        String sourceUrl,
+        String sourceRequestMethod,
+        List<RequestHeader> sourceRequestHeaders,
+        String origin
+    ) {
+        return upsertRecord(endpointUrl, host, sourceUrl, sourceRequestMethod, sourceRequestHeaders, origin, System.currentTimeMillis());
+    }
+
+    public synchronized EndpointRecord upsert(String endpointUrl, String host, String sourceUrl) {
+        return upsert(endpointUrl, host, sourceUrl, "", null);
+    }
+
+    public synchronized void upsertAll(List<Upsert> upserts) {
+        upsertAll(upserts, null);
+    }
+
+    public synchronized void upsertAll(List<Upsert> upserts, UpsertScope scope) {
+        if (upserts == null || upserts.isEmpty()) {
+            return;
+        }
         long now = System.currentTimeMillis();
+        for (Upsert upsert : upserts) {
+            if (scope != null) {
+                scope.touch(upsert.endpointUrl, endpointMap.get(upsert.endpointUrl));
+            }
+            upsertRecord(
+                upsert.endpointUrl,
+                upsert.host,
+                upsert.sourceUrl,
+                upsert.sourceRequestMethod,
+                upsert.sourceRequestHeaders,
+                upsert.origin,
+                now
+            );
+        }
+    }
+
+    public synchronized void rollback(UpsertScope scope) {
+        if (scope == null) {
+            return;
+        }
+        for (Map.Entry<String, ScopedChange> entry : scope.changes.entrySet()) {
+            EndpointRecord record = endpointMap.get(entry.getKey());
+            ScopedChange change = entry.getValue();
+            if (record == null) {
+                continue;
+            }
+            if (change.created && record.getCount() <= change.upserts) {
+                endpointMap.remove(entry.getKey());
+                continue;
+            }
+            record.decrementCount(change.upserts);
+            record.setLastSeenAt(change.previousLastSeenAt);
+        }
+        scope.changes.clear();
+    }
+
+    public synchronized List<EndpointRecord> getAll() {
+        return new ArrayList<>(endpointMap.values());
+    }
+
+    public synchronized int size() {
+        return endpointMap.size();
+    }
+
+    public synchronized void clear() {
+        endpointMap.clear();
+    }
+
+    private EndpointRecord upsertRecord(
+        String endpointUrl,
+        String host,
+        String sourceUrl,
+        String sourceRequestMethod,
+        List<RequestHeader> sourceRequestHeaders,
+        String origin,
+        long now
+    ) {
         EndpointRecord record = endpointMap.get(endpointUrl);
         if (record == null) {
             EndpointRecord created = new EndpointRecord(
@@ -26,7 +110,8 @@ public class EndpointRepository {
                 sourceRequestHeaders,
                 1,
                 now,
-                now
+                now,
+                origin
             );
             endpointMap.put(endpointUrl, created);
             return created;
@@ -37,19 +122,52 @@ public class EndpointRepository {
         return record;
     }
 
-    public synchronized EndpointRecord upsert(String endpointUrl, String host, String sourceUrl) {
-        return upsert(endpointUrl, host, sourceUrl, "", null);
-    }
+    public static class UpsertScope {
+        private final Map<String, ScopedChange> changes = new HashMap<>();
 
-    public synchronized List<EndpointRecord> getAll() {
-        return new ArrayList<>(endpointMap.values());
+        private void touch(String endpointUrl, EndpointRecord existing) {
+            ScopedChange change = changes.get(endpointUrl);
+            if (change == null) {
+                change = new ScopedChange(existing == null, existing == null ? 0L : existing.getLastSeenAt());
+                changes.put(endpointUrl, change);
+            }
+            change.upserts += 1;
+        }
     }
 
-    public synchronized int size() {
-        return endpointMap.size();
+    private static class ScopedChange {
+        private final boolean created;
+        private final long previousLastSeenAt;
+        private int upserts;
+
+        private ScopedChange(boolean created, long previousLastSeenAt) {
+            this.created = created;
+            this.previousLastSeenAt = previousLastSeenAt;
+        }
     }
 
-    public synchronized void clear() {
-        endpointMap.clear();
+    public static class Upsert {
+        private final String endpointUrl;
+        private final String host;
+        private final String sourceUrl;
+        private final String sourceRequestMethod;
+        private final List<RequestHeader> sourceRequestHeaders;
+        private final String origin;
+
+        public Upsert(
+            String endpointUrl,
+            String host,
+            String sourceUrl,
+            String sourceRequestMethod,
+            List<RequestHeader> sourceRequestHeaders,
+            String origin
+        ) {
+            this.endpointUrl = endpointUrl;
+            this.host = host;
+            this.sourceUrl = sourceUrl;
+            this.sourceRequestMethod = sourceRequestMethod;
+            this.sourceRequestHeaders = sourceRequestHeaders;
+            this.origin = origin;
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ExtractionCache {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private final Map<Key, List<EndpointCandidate>> entries;
+
+    public ExtractionCache(int maxEntries) {
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<Key, List<EndpointCandidate>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<EndpointCandidate>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static Key keyOf(byte[] body, String contentType) {
+        byte[] source = body == null ? new byte[0] : body;
+        return new Key(hash(source), source.length, contentType);
+    }
+
+    public static Key keyOf(CharSequence text, String contentType) {
+        CharSequence source = text == null ? "" : text;
+        return new Key(hash(source), source.length(), contentType);
+    }
+
+    public synchronized List<EndpointCandidate> get(Key key, String sourceUrl) {
+        List<EndpointCandidate> cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        List<EndpointCandidate> rebound = new ArrayList<>(cached.size());
+        for (EndpointCandidate candidate : cached) {
+            rebound.add(new EndpointCandidate(candidate.getRawValue(), sourceUrl, candidate.getContentType(), candidate.getMatchType(), candidate.getOrigin()));
+        }
+        return rebound;
+    }
+
+    public synchronized void put(Key key, List<EndpointCandidate> candidates) {
+        if (key == null || candidates == null) {
+            return;
+        }
+        List<EndpointCandidate> detached = new ArrayList<>(candidates.size());
+        for (EndpointCandidate candidate : candidates) {
+            detached.add(new EndpointCandidate(candidate.getRawValue(), null, candidate.getContentType(), candidate.getMatchType(), candidate.getOrigin()));
+        }
+        entries.put(key, Collections.unmodifiableList(detached));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static long hash(byte[] bytes) {
+        long hash = PRIME_5 ^ (bytes.length * PRIME_1);
+        int index = 0;
+        for (; index + 8 <= bytes.length; index += 8) {
+            long block = (bytes[index] & 0xFFL)
+                | (bytes[index + 1] & 0xFFL) << 8
+                | (bytes[index + 2] & 0xFFL) << 16
+                | (bytes[index + 3] & 0xFFL) << 24
+                | (bytes[index + 4] & 0xFFL) << 32
+                | (bytes[index + 5] & 0xFFL) << 40
+                | (bytes[index + 6] & 0xFFL) << 48
+                | (bytes[index + 7] & 0xFFL) << 56;
+            hash = mixBlock(hash, block);
+        }
+        for (; index < bytes.length; index++) {
+            hash = mixTail(hash, bytes[index] & 0xFFL);
+        }
+        return avalanche(hash);
+    }
+
+    private static long hash(CharSequence text) {
+        int length = text.length();
+        long hash = PRIME_5 ^ (length * PRIME_2);
+        int index = 0;
+        for (; index + 4 <= length; index += 4) {
+            long block = text.charAt(index)
+                | (long) text.charAt(index + 1) << 16
+                | (long) text.charAt(index + 2) << 32
+                | (long) text.charAt(index + 3) << 48;
+            hash = mixBlock(hash, block);
+        }
+        for (; index < length; index++) {
+            hash = mixTail(hash, text.charAt(index));
+        }
+        return avalanche(hash);
+    }
+
+    private static long mixBlock(long hash, long block) {
+        long lane = Long.rotateLeft(block * PRIME_2, 31) * PRIME_1;
+        return Long.rotateLeft(hash ^ lane, 27) * PRIME_1 + PRIME_4;
+    }
+
+    private static long mixTail(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * PRIME_5), 11) * PRIME_1;
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        return hash ^ (hash >>> 32);
+    }
+
+    public static final class Key {
+        private final long hash;
+        private final int length;
+        private final String contentType;
+
+        private Key(long hash, int length, String contentType) {
+            this.hash = hash;
+            this.length = length;
+            this.contentType = contentType == null ? "" : contentType;
+        }
+
+        public static Key of(long hash, int length, String contentType) {
+            return new Key(hash, length, contentType);
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && length == key.length && contentType.equals(key.contentType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(hash) + contentType.hashCode();
+        }
+    }
+}
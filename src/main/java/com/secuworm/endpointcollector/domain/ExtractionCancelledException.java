@@ -0,0 +1,14 @@
+package com.secuworm.endpointcollector.domain;
+
+public class ExtractionCancelledException extends RuntimeException {
+    private final boolean deadlineExceeded;
+
+    public ExtractionCancelledException(String message, boolean deadlineExceeded) {
+        super(message);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
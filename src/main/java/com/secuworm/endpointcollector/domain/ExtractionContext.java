@@ -0,0 +1,85 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.function.BooleanSupplier;
+
+public class ExtractionContext {
+    private static final ExtractionContext UNBOUNDED = new ExtractionContext(0L, null, false);
+
+    private final long deadlineNanos;
+    private final BooleanSupplier stopRequested;
+    private final boolean astDeferred;
+    private volatile boolean degraded;
+    private volatile boolean astPending;
+
+    private ExtractionContext(long deadlineNanos, BooleanSupplier stopRequested, boolean astDeferred) {
+        this.deadlineNanos = deadlineNanos;
+        this.stopRequested = stopRequested;
+        this.astDeferred = astDeferred;
+    }
+
+    public static ExtractionContext unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static ExtractionContext withBudget(long budgetMillis, BooleanSupplier stopRequested) {
+        long deadlineNanos = budgetMillis > 0 ? System.nanoTime() + budgetMillis * 1_000_000L : 0L;
+        if (deadlineNanos == 0L && stopRequested == null) {
+            return UNBOUNDED;
+        }
+        return new ExtractionContext(deadlineNanos, stopRequested, false);
+    }
+
+    public ExtractionContext forItem() {
+        return this == UNBOUNDED ? new ExtractionContext(0L, null, false) : this;
+    }
+
+    public ExtractionContext deferringAst() {
+        return new ExtractionContext(deadlineNanos, stopRequested, true);
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested != null && stopRequested.getAsBoolean();
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public void checkpoint() {
+        if (this == UNBOUNDED) {
+            return;
+        }
+        if (isStopRequested()) {
+            throw new ExtractionCancelledException("extraction stopped", false);
+        }
+        if (isDeadlineExceeded()) {
+            throw new ExtractionCancelledException("extraction deadline exceeded", true);
+        }
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public synchronized boolean markDegraded() {
+        if (this == UNBOUNDED || degraded) {
+            return false;
+        }
+        degraded = true;
+        return true;
+    }
+
+    public boolean isAstDeferred() {
+        return astDeferred;
+    }
+
+    public boolean hasPendingAst() {
+        return astPending;
+    }
+
+    public void markAstPending() {
+        if (astDeferred) {
+            astPending = true;
+        }
+    }
+}
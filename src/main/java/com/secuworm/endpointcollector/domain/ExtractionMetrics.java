@@ -0,0 +1,89 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExtractionMetrics {
+    private final AtomicLong patternExecutions = new AtomicLong();
+    private final AtomicLong skippedPatternExecutions = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong degradedItems = new AtomicLong();
+    private final AtomicLong astSkippedItems = new AtomicLong();
+    private final Map<String, AtomicLong> patternAborts = new ConcurrentHashMap<>();
+    private final Map<String, RuleCounters> ruleCounters = new ConcurrentHashMap<>();
+
+    public void recordPatternExecutions(int executed, int skipped) {
+        patternExecutions.addAndGet(executed);
+        skippedPatternExecutions.addAndGet(skipped);
+    }
+
+    public void recordCacheLookup(boolean hit) {
+        if (hit) {
+            cacheHits.incrementAndGet();
+        } else {
+            cacheMisses.incrementAndGet();
+        }
+    }
+
+    public void recordDegradedItem() {
+        degradedItems.incrementAndGet();
+    }
+
+    public void recordAstSkippedItem() {
+        astSkippedItems.incrementAndGet();
+    }
+
+    public void recordPatternAbort(String patternName) {
+        patternAborts.computeIfAbsent(patternName, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void recordRuleExecution(String ruleName, int hits, long nanos) {
+        RuleCounters counters = ruleCounters.computeIfAbsent(ruleName, key -> new RuleCounters());
+        counters.executions.incrementAndGet();
+        counters.hits.addAndGet(hits);
+        counters.nanos.addAndGet(nanos);
+    }
+
+    public ExtractionStatistics snapshot() {
+        Map<String, Long> aborts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : patternAborts.entrySet()) {
+            aborts.put(entry.getKey(), entry.getValue().get());
+        }
+        Map<String, RuleStatistics> rules = new TreeMap<>();
+        for (Map.Entry<String, RuleCounters> entry : ruleCounters.entrySet()) {
+            RuleCounters counters = entry.getValue();
+            rules.put(entry.getKey(), new RuleStatistics(counters.executions.get(), counters.hits.get(), counters.nanos.get()));
+        }
+        return new ExtractionStatistics(
+            patternExecutions.get(),
+            skippedPatternExecutions.get(),
+            cacheHits.get(),
+            cacheMisses.get(),
+            degradedItems.get(),
+            astSkippedItems.get(),
+            Collections.unmodifiableMap(aborts),
+            Collections.unmodifiableMap(rules)
+        );
+    }
+
+    public void reset() {
+        patternExecutions.set(0);
+        skippedPatternExecutions.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        degradedItems.set(0);
+        astSkippedItems.set(0);
+        patternAborts.clear();
+        ruleCounters.clear();
+    }
+
+    private static class RuleCounters {
+        private final AtomicLong executions = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+    }
+}
@@ -0,0 +1,15 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.regex.Pattern;
+
+public interface ExtractionRule {
+    String getName();
+
+    Pattern getPattern();
+
+    int getValueGroup();
+
+    String getMatchType();
+
+    boolean appliesTo(String contentType);
+}
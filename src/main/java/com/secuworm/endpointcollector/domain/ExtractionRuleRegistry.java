@@ -0,0 +1,209 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+public class ExtractionRuleRegistry {
+    private static final Predicate<String> ANY_CONTENT_TYPE = contentType -> true;
+    private static final Predicate<String> SCRIPT_CAPABLE_CONTENT_TYPE = contentType ->
+        !"application/json".equals(contentType) && !"text/plain".equals(contentType);
+
+    private final ExtractionRule[] builtInRules;
+    private final List<ExtractionRule> customRules = new CopyOnWriteArrayList<>();
+    private final Map<String, ExecutionPlan> plans = new ConcurrentHashMap<>();
+
+    private ExtractionRuleRegistry(ExtractionRule[] builtInRules) {
+        this.builtInRules = builtInRules;
+    }
+
+    public static ExtractionRuleRegistry defaults() {
+        ExtractionRule[] rules = new ExtractionRule[FusedEndpointScanner.FAMILY_COUNT];
+        rules[FusedEndpointScanner.ABSOLUTE_URL] = builtIn(
+            FusedEndpointScanner.ABSOLUTE_URL,
+            Pattern.compile("https?://[^\\s\\\"'<>]+", Pattern.CASE_INSENSITIVE),
+            0,
+            "absolute",
+            ANY_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.RELATIVE_URL] = builtIn(
+            FusedEndpointScanner.RELATIVE_URL,
+            Pattern.compile("(?:^|(?<=[\\s\\\"'`=(:\\[,>{]))/(?!/)[^\\s\\\"'<>),;]+"),
+            0,
+            "relative",
+            ANY_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.DOT_RELATIVE_URL] = builtIn(
+            FusedEndpointScanner.DOT_RELATIVE_URL,
+            Pattern.compile("(?:^|(?<=[\\s\\\"'`=(:\\[,>{]))(?:\\.\\./|\\./)[^\\s\\\"'<>),;]+"),
+            0,
+            "relative",
+            ANY_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.FETCH_CALL] = builtIn(
+            FusedEndpointScanner.FETCH_CALL,
+            Pattern.compile("\\bfetch\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.AXIOS_METHOD] = builtIn(
+            FusedEndpointScanner.AXIOS_METHOD,
+            Pattern.compile("\\baxios\\s*\\.\\s*(?:get|post|put|patch|delete|head|options)\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.AXIOS_CONFIG_URL] = builtIn(
+            FusedEndpointScanner.AXIOS_CONFIG_URL,
+            Pattern.compile("\\baxios\\s*\\(\\s*\\{[^\\}]*?\\burl\\s*:\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE | Pattern.DOTALL),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.XHR_OPEN] = builtIn(
+            FusedEndpointScanner.XHR_OPEN,
+            Pattern.compile("\\.open\\s*\\(\\s*(?:[\"'`][A-Za-z]+[\"'`]\\s*,\\s*)?([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.NEW_URL] = builtIn(
+            FusedEndpointScanner.NEW_URL,
+            Pattern.compile("\\bnew\\s+URL\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.FRAMEWORK_ROUTE] = builtIn(
+            FusedEndpointScanner.FRAMEWORK_ROUTE,
+            Pattern.compile("\\b(?:app|router|fastify)\\s*\\.\\s*(?:get|post|put|patch|delete|head|options|all|use|route)\\s*\\(\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.FASTIFY_ROUTE_OBJECT] = builtIn(
+            FusedEndpointScanner.FASTIFY_ROUTE_OBJECT,
+            Pattern.compile("\\bfastify\\s*\\.\\s*route\\s*\\(\\s*\\{[^\\}]*?\\b(?:url|path)\\s*:\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE | Pattern.DOTALL),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.REACT_ROUTE] = builtIn(
+            FusedEndpointScanner.REACT_ROUTE,
+            Pattern.compile("<Route[^>]*\\bpath\\s*=\\s*([\"'`])([^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        rules[FusedEndpointScanner.ROUTE_OBJECT_PATH] = builtIn(
+            FusedEndpointScanner.ROUTE_OBJECT_PATH,
+            Pattern.compile("\\bpath\\s*:\\s*([\"'`])(/[^\"'`]+)\\1", Pattern.CASE_INSENSITIVE),
+            2,
+            null,
+            SCRIPT_CAPABLE_CONTENT_TYPE
+        );
+        return new ExtractionRuleRegistry(rules);
+    }
+
+    public ExtractionRuleRegistry register(ExtractionRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("rule is required");
+        }
+        for (ExtractionRule existing : getRules()) {
+            if (existing.getName().equals(rule.getName())) {
+                throw new IllegalArgumentException("duplicate rule name: " + rule.getName());
+            }
+        }
+        customRules.add(rule);
+        plans.clear();
+        return this;
+    }
+
+    public List<ExtractionRule> getRules() {
+        List<ExtractionRule> rules = new ArrayList<>(builtInRules.length + customRules.size());
+        Collections.addAll(rules, builtInRules);
+        rules.addAll(customRules);
+        return rules;
+    }
+
+    public long fingerprint() {
+        StringBuilder description = new StringBuilder();
+        for (ExtractionRule rule : getRules()) {
+            description.append(rule.getName()).append('\u0000')
+                .append(rule.getPattern().pattern()).append('\u0000')
+                .append(rule.getPattern().flags()).append('\u0000')
+                .append(rule.getValueGroup()).append('\u0000')
+                .append(rule.getMatchType()).append('\n');
+        }
+        return ExtractionCache.keyOf(description, "").getHash();
+    }
+
+    public ExtractionRule builtInRule(int family) {
+        return builtInRules[family];
+    }
+
+    public ExecutionPlan planFor(String contentType) {
+        String key = contentType == null ? "" : contentType;
+        return plans.computeIfAbsent(key, this::compilePlan);
+    }
+
+    private ExecutionPlan compilePlan(String contentType) {
+        int builtInFamilies = 0;
+        for (int family = 0; family < builtInRules.length; family++) {
+            if (builtInRules[family].appliesTo(contentType)) {
+                builtInFamilies |= TriggerKeywordFilter.familyBit(family);
+            }
+        }
+        List<ExtractionRule> applicableCustomRules = new ArrayList<>();
+        for (ExtractionRule rule : customRules) {
+            if (rule.appliesTo(contentType)) {
+                applicableCustomRules.add(rule);
+            }
+        }
+        return new ExecutionPlan(contentType, builtInFamilies, applicableCustomRules);
+    }
+
+    private static ExtractionRule builtIn(
+        int family,
+        Pattern pattern,
+        int valueGroup,
+        String matchType,
+        Predicate<String> contentTypeFilter
+    ) {
+        return new PatternExtractionRule(FusedEndpointScanner.familyName(family), pattern, valueGroup, matchType, contentTypeFilter);
+    }
+
+    public static class ExecutionPlan {
+        private final String contentType;
+        private final int builtInFamilies;
+        private final List<ExtractionRule> customRules;
+
+        private ExecutionPlan(String contentType, int builtInFamilies, List<ExtractionRule> customRules) {
+            this.contentType = contentType;
+            this.builtInFamilies = builtInFamilies;
+            this.customRules = Collections.unmodifiableList(customRules);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public int getBuiltInFamilies() {
+            return builtInFamilies;
+        }
+
+        public boolean includes(int family) {
+            return TriggerKeywordFilter.isEnabled(builtInFamilies, family);
+        }
+
+        public List<ExtractionRule> getCustomRules() {
+            return customRules;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class ExtractionStatistics {
+    private static final ExtractionStatistics EMPTY = new ExtractionStatistics(0, 0);
+
+    private final long patternExecutions;
+    private final long skippedPatternExecutions;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long degradedItems;
+    private final long astSkippedItems;
+    private final Map<String, Long> patternAborts;
+    private final Map<String, RuleStatistics> ruleStatistics;
+
+    public ExtractionStatistics(long patternExecutions, long skippedPatternExecutions) {
+        this(patternExecutions, skippedPatternExecutions, 0, 0);
+    }
+
+    public ExtractionStatistics(long patternExecutions, long skippedPatternExecutions, long cacheHits, long cacheMisses) {
+        this(patternExecutions, skippedPatternExecutions, cacheHits, cacheMisses, 0, 0);
+    }
+
+    public ExtractionStatistics(
+        long patternExecutions,
+        long skippedPatternExecutions,
+        long cacheHits,
+        long cacheMisses,
+        long degradedItems,
+        long astSkippedItems
+    ) {
+        this(
+            patternExecutions,
+            skippedPatternExecutions,
+            cacheHits,
+            cacheMisses,
+            degradedItems,
+            astSkippedItems,
+            Collections.emptyMap(),
+            Collections.emptyMap()
+        );
+    }
+
+    public ExtractionStatistics(
+        long patternExecutions,
+        long skippedPatternExecutions,
+        long cacheHits,
+        long cacheMisses,
+        long degradedItems,
+        long astSkippedItems,
+        Map<String, Long> patternAborts,
+        Map<String, RuleStatistics> ruleStatistics
+    ) {
+        this.patternExecutions = patternExecutions;
+        this.skippedPatternExecutions = skippedPatternExecutions;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.degradedItems = degradedItems;
+        this.astSkippedItems = astSkippedItems;
+        this.patternAborts = patternAborts == null ? Collections.emptyMap() : patternAborts;
+        this.ruleStatistics = ruleStatistics == null ? Collections.emptyMap() : ruleStatistics;
+    }
+
+    public static ExtractionStatistics empty() {
+        return EMPTY;
+    }
+
+    public long getPatternExecutions() {
+        return patternExecutions;
+    }
+
+    public long getSkippedPatternExecutions() {
+        return skippedPatternExecutions;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public long getDegradedItems() {
+        return degradedItems;
+    }
+
+    public long getAstSkippedItems() {
+        return astSkippedItems;
+    }
+
+    public Map<String, Long> getPatternAborts() {
+        return patternAborts;
+    }
+
+    public long getPatternAborts(String patternName) {
+        Long aborts = patternAborts.get(patternName);
+        return aborts == null ? 0L : aborts;
+    }
+
+    public Map<String, RuleStatistics> getRuleStatistics() {
+        return ruleStatistics;
+    }
+
+    public RuleStatistics getRuleStatistics(String ruleName) {
+        RuleStatistics statistics = ruleStatistics.get(ruleName);
+        return statistics == null ? new RuleStatistics(0, 0, 0) : statistics;
+    }
+}
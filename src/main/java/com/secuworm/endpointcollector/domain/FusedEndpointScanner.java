@@ -0,0 +1,809 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+
+public class FusedEndpointScanner {
+    public static final int ABSOLUTE_URL = 0;
+    public static final int RELATIVE_URL = 1;
+    public static final int DOT_RELATIVE_URL = 2;
+    public static final int FETCH_CALL = 3;
+    public static final int AXIOS_METHOD = 4;
+    public static final int AXIOS_CONFIG_URL = 5;
+    public static final int XHR_OPEN = 6;
+    public static final int NEW_URL = 7;
+    public static final int FRAMEWORK_ROUTE = 8;
+    public static final int FASTIFY_ROUTE_OBJECT = 9;
+    public static final int REACT_ROUTE = 10;
+    public static final int ROUTE_OBJECT_PATH = 11;
+    public static final int FAMILY_COUNT = 12;
+
+    private static final String[] FAMILY_NAMES = new String[]{
+        "ABSOLUTE_URL",
+        "RELATIVE_URL",
+        "DOT_RELATIVE_URL",
+        "FETCH_CALL",
+        "AXIOS_METHOD",
+        "AXIOS_CONFIG_URL",
+        "XHR_OPEN",
+        "NEW_URL",
+        "FRAMEWORK_ROUTE",
+        "FASTIFY_ROUTE_OBJECT",
+        "REACT_ROUTE",
+        "ROUTE_OBJECT_PATH"
+    };
+
+    private static final String[] AXIOS_METHODS = new String[]{"get", "post", "put", "patch", "delete", "head", "options"};
+    private static final String[] FRAMEWORK_OBJECTS = new String[]{"app", "router", "fastify"};
+    private static final String[] FRAMEWORK_METHODS = new String[]{
+        "get", "post", "put", "patch", "delete", "head", "options", "all", "use", "route"
+    };
+    private static final String[] ROUTE_OBJECT_KEYS = new String[]{"url", "path"};
+    private static final String[] AXIOS_CONFIG_KEYS = new String[]{"url"};
+    private static final boolean UNICODE_WORD_BOUNDARY = !Pattern.compile("\\bb").matcher("\u00e9b").find();
+    private static final int CHECKPOINT_MASK = 0xFFFF;
+    private static final int TRIGGER_BLOCK_CHARS = 4096;
+    private static final TriggerSet[] TRIGGER_SETS = new TriggerSet[1 << FAMILY_COUNT];
+
+    private final CharSequence text;
+    private final int length;
+    private final int enabledFamilies;
+    private final TriggerScanner triggerScanner;
+    private int valueStart;
+    private int valueEnd;
+
+    public FusedEndpointScanner(CharSequence text) {
+        this(text, TriggerKeywordFilter.ALL_FAMILIES);
+    }
+
+    public FusedEndpointScanner(CharSequence text, int enabledFamilies) {
+        this(text, enabledFamilies, TriggerScanners.preferred());
+    }
+
+    public FusedEndpointScanner(CharSequence text, int enabledFamilies, TriggerScanner triggerScanner) {
+        this.text = text == null ? "" : text;
+        this.length = this.text.length();
+        this.enabledFamilies = enabledFamilies & TriggerKeywordFilter.ALL_FAMILIES;
+        this.triggerScanner = triggerScanner;
+    }
+
+    public static TriggerSet triggerSet(int enabledFamilies) {
+        int families = enabledFamilies & TriggerKeywordFilter.ALL_FAMILIES;
+        TriggerSet triggers = TRIGGER_SETS[families];
+        if (triggers == null) {
+            triggers = createTriggerSet(families);
+            TRIGGER_SETS[families] = triggers;
+        }
+        return triggers;
+    }
+
+    public static String familyName(int family) {
+        return FAMILY_NAMES[family];
+    }
+
+    public TriggerScanner getTriggerScanner() {
+        return triggerScanner;
+    }
+
+    public Matches scan() {
+        return scan(0, length, new int[FAMILY_COUNT]);
+    }
+
+    public Matches scan(int fromPosition, int toPosition, int[] cursors) {
+        return scan(fromPosition, toPosition, cursors, ExtractionContext.unbounded());
+    }
+
+    public Matches scan(int fromPosition, int toPosition, int[] cursors, ExtractionContext context) {
+        return scan(fromPosition, toPosition, cursors, context, new Matches());
+    }
+
+    public Matches scan(int fromPosition, int toPosition, int[] cursors, ExtractionContext context, Matches matches) {
+        if (cursors == null || cursors.length != FAMILY_COUNT) {
+            throw new IllegalArgumentException("cursors must hold one entry per family");
+        }
+        matches.clear();
+        int limit = Math.min(toPosition, length);
+        ExtractionContext activeContext = context == null ? ExtractionContext.unbounded() : context;
+        if (triggerScanner != null) {
+            scanTriggerPositions(Math.max(fromPosition, 0), limit, cursors, activeContext, matches);
+            return matches;
+        }
+        for (int position = Math.max(fromPosition, 0); position < limit; position++) {
+            if ((position & CHECKPOINT_MASK) == 0) {
+                activeContext.checkpoint();
+            }
+            dispatch(matches, cursors, position);
+        }
+        return matches;
+    }
+
+    public Matches scanSegments(
+        int fromPosition,
+        int toPosition,
+        int[] cursors,
+        ExtractionContext context,
+        Matches matches,
+        ForkJoinPool pool,
+        int segmentCount
+    ) {
+        int from = Math.max(fromPosition, 0);
+        int limit = Math.min(toPosition, length);
+        if (pool == null || segmentCount < 2 || limit - from < segmentCount) {
+            return scan(fromPosition, toPosition, cursors, context, matches);
+        }
+        if (cursors == null || cursors.length != FAMILY_COUNT) {
+            throw new IllegalArgumentException("cursors must hold one entry per family");
+        }
+        ExtractionContext activeContext = context == null ? ExtractionContext.unbounded() : context;
+        int[] bounds = new int[segmentCount + 1];
+        for (int i = 0; i <= segmentCount; i++) {
+            bounds[i] = from + (int) ((long) (limit - from) * i / segmentCount);
+        }
+        Matches[] segments = new Matches[segmentCount];
+        pool.invoke(new SegmentScanTask(bounds, segments, 0, segmentCount, activeContext));
+        matches.clear();
+        for (int family = 0; family < FAMILY_COUNT; family++) {
+            if (isEnabled(enabledFamilies, family)) {
+                cursors[family] = mergeFamily(family, cursors[family], bounds, segments, activeContext, matches);
+            }
+        }
+        return matches;
+    }
+
+    private int mergeFamily(int family, int cursor, int[] bounds, Matches[] segments, ExtractionContext context, Matches merged) {
+        int position = cursor;
+        for (int i = 0; i < segments.length; i++) {
+            Matches segment = segments[i];
+            int count = segment.count(family);
+            int first = 0;
+            while (first < count && segment.start(family, first) < position) {
+                first += 1;
+            }
+            if (first > 0 && segment.end(family, first - 1) > position) {
+                int[] resyncCursors = new int[FAMILY_COUNT];
+                resyncCursors[family] = position;
+                segment = new FusedEndpointScanner(text, TriggerKeywordFilter.familyBit(family), triggerScanner)
+                    .scan(position, bounds[i + 1], resyncCursors, context);
+                count = segment.count(family);
+                first = 0;
+            }
+            for (int j = first; j < count; j++) {
+                merged.add(family, segment.start(family, j), segment.end(family, j), segment.valueStart(family, j), segment.valueEnd(family, j));
+                position = segment.end(family, j);
+            }
+        }
+        return position;
+    }
+
+    private void scanTriggerPositions(int from, int limit, int[] cursors, ExtractionContext context, Matches matches) {
+        TriggerSet triggers = triggerSet(enabledFamilies);
+        if (triggers.size() == 0) {
+            return;
+        }
+        long[] bitmap = new long[TRIGGER_BLOCK_CHARS / Long.SIZE];
+        for (int blockStart = from; blockStart < limit; blockStart += TRIGGER_BLOCK_CHARS) {
+            if (((blockStart - from) & CHECKPOINT_MASK) < TRIGGER_BLOCK_CHARS) {
+                context.checkpoint();
+            }
+            int blockEnd = Math.min(limit, blockStart + TRIGGER_BLOCK_CHARS);
+            triggerScanner.mark(text, blockStart, blockEnd, triggers, bitmap);
+            int words = (blockEnd - blockStart + Long.SIZE - 1) / Long.SIZE;
+            for (int word = 0; word < words; word++) {
+                long bits = bitmap[word];
+                while (bits != 0L) {
+                    dispatch(matches, cursors, blockStart + word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    private void dispatch(Matches matches, int[] cursors, int position) {
+        switch (text.charAt(position)) {
+            case 'h':
+            case 'H':
+                tryFamily(matches, cursors, ABSOLUTE_URL, position);
+                break;
+            case '/':
+                tryFamily(matches, cursors, RELATIVE_URL, position);
+                break;
+            case '.':
+                tryFamily(matches, cursors, DOT_RELATIVE_URL, position);
+                tryFamily(matches, cursors, XHR_OPEN, position);
+                break;
+            case 'f':
+            case 'F':
+                tryFamily(matches, cursors, FETCH_CALL, position);
+                tryFamily(matches, cursors, FRAMEWORK_ROUTE, position);
+                tryFamily(matches, cursors, FASTIFY_ROUTE_OBJECT, position);
+                break;
+            case 'a':
+            case 'A':
+                tryFamily(matches, cursors, AXIOS_METHOD, position);
+                tryFamily(matches, cursors, AXIOS_CONFIG_URL, position);
+                tryFamily(matches, cursors, FRAMEWORK_ROUTE, position);
+                break;
+            case 'n':
+            case 'N':
+                tryFamily(matches, cursors, NEW_URL, position);
+                break;
+            case 'r':
+            case 'R':
+                tryFamily(matches, cursors, FRAMEWORK_ROUTE, position);
+                break;
+            case '<':
+                tryFamily(matches, cursors, REACT_ROUTE, position);
+                break;
+            case 'p':
+            case 'P':
+                tryFamily(matches, cursors, ROUTE_OBJECT_PATH, position);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static TriggerSet createTriggerSet(int families) {
+        StringBuilder triggers = new StringBuilder();
+        if (isEnabled(families, ABSOLUTE_URL)) {
+            triggers.append('h');
+        }
+        if (isEnabled(families, RELATIVE_URL)) {
+            triggers.append('/');
+        }
+        if (isEnabled(families, DOT_RELATIVE_URL) || isEnabled(families, XHR_OPEN)) {
+            triggers.append('.');
+        }
+        if (isEnabled(families, FETCH_CALL) || isEnabled(families, FRAMEWORK_ROUTE) || isEnabled(families, FASTIFY_ROUTE_OBJECT)) {
+            triggers.append('f');
+        }
+        if (isEnabled(families, AXIOS_METHOD) || isEnabled(families, AXIOS_CONFIG_URL) || isEnabled(families, FRAMEWORK_ROUTE)) {
+            triggers.append('a');
+        }
+        if (isEnabled(families, NEW_URL)) {
+            triggers.append('n');
+        }
+        if (isEnabled(families, FRAMEWORK_ROUTE)) {
+            triggers.append('r');
+        }
+        if (isEnabled(families, REACT_ROUTE)) {
+            triggers.append('<');
+        }
+        if (isEnabled(families, ROUTE_OBJECT_PATH)) {
+            triggers.append('p');
+        }
+        return new TriggerSet(triggers.toString().toCharArray());
+    }
+
+    private static boolean isEnabled(int families, int family) {
+        return TriggerKeywordFilter.isEnabled(families, family);
+    }
+
+    private void tryFamily(Matches matches, int[] cursors, int family, int position) {
+        if (position < cursors[family] || !TriggerKeywordFilter.isEnabled(enabledFamilies, family)) {
+            return;
+        }
+        int end = matchFamilyAt(family, position);
+        if (end < 0) {
+            return;
+        }
+        matches.add(family, position, end, valueStart, valueEnd);
+        cursors[family] = end;
+    }
+
+    private int matchFamilyAt(int family, int position) {
+        switch (family) {
+            case ABSOLUTE_URL:
+                return matchAbsoluteUrl(position);
+            case RELATIVE_URL:
+                return matchRelativeUrl(position);
+            case DOT_RELATIVE_URL:
+                return matchDotRelativeUrl(position);
+            case FETCH_CALL:
+                return matchFetchCall(position);
+            case AXIOS_METHOD:
+                return matchAxiosMethod(position);
+            case AXIOS_CONFIG_URL:
+                return matchAxiosConfigUrl(position);
+            case XHR_OPEN:
+                return matchXhrOpen(position);
+            case NEW_URL:
+                return matchNewUrl(position);
+            case FRAMEWORK_ROUTE:
+                return matchFrameworkRoute(position);
+            case FASTIFY_ROUTE_OBJECT:
+                return matchFastifyRouteObject(position);
+            case REACT_ROUTE:
+                return matchReactRoute(position);
+            case ROUTE_OBJECT_PATH:
+                return matchRouteObjectPath(position);
+            default:
+                return -1;
+        }
+    }
+
+    private int matchAbsoluteUrl(int position) {
+        if (!regionMatchesIgnoreCase(position, "http")) {
+            return -1;
+        }
+        int index = position + 4;
+        if (index < length && isIgnoreCase(text.charAt(index), 's') && regionMatchesIgnoreCase(index + 1, "://")) {
+            index += 4;
+        } else if (regionMatchesIgnoreCase(index, "://")) {
+            index += 3;
+        } else {
+            return -1;
+        }
+        int end = index;
+        while (end < length && !isAbsoluteTerminator(text.charAt(end))) {
+            end += 1;
+        }
+        if (end == index) {
+            return -1;
+        }
+        return setValue(position, end);
+    }
+
+    private int matchRelativeUrl(int position) {
+        if (!hasRelativeBoundaryBefore(position)) {
+            return -1;
+        }
+        int index = position + 1;
+        if (index >= length || text.charAt(index) == '/') {
+            return -1;
+        }
+        int end = scanRelativeBody(index);
+        if (end == index) {
+            return -1;
+        }
+        return setValue(position, end);
+    }
+
+    private int matchDotRelativeUrl(int position) {
+        if (!hasRelativeBoundaryBefore(position)) {
+            return -1;
+        }
+        int index;
+        if (regionMatchesIgnoreCase(position, "../")) {
+            index = position + 3;
+        } else if (regionMatchesIgnoreCase(position, "./")) {
+            index = position + 2;
+        } else {
+            return -1;
+        }
+        int end = scanRelativeBody(index);
+        if (end == index) {
+            return -1;
+        }
+        return setValue(position, end);
+    }
+
+    private int matchFetchCall(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "fetch")) {
+            return -1;
+        }
+        return matchCallArgument(skipSpaces(position + 5), false);
+    }
+
+    private int matchAxiosMethod(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "axios")) {
+            return -1;
+        }
+        int index = skipSpaces(position + 5);
+        if (!isCharAt(index, '.')) {
+            return -1;
+        }
+        index = skipSpaces(index + 1);
+        int methodLength = matchAnyIgnoreCase(index, AXIOS_METHODS);
+        if (methodLength < 0) {
+            return -1;
+        }
+        return matchCallArgument(skipSpaces(index + methodLength), false);
+    }
+
+    private int matchAxiosConfigUrl(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "axios")) {
+            return -1;
+        }
+        return matchObjectArgument(skipSpaces(position + 5), AXIOS_CONFIG_KEYS);
+    }
+
+    private int matchXhrOpen(int position) {
+        if (!regionMatchesIgnoreCase(position, ".open")) {
+            return -1;
+        }
+        int index = skipSpaces(position + 5);
+        if (!isCharAt(index, '(')) {
+            return -1;
+        }
+        index = skipSpaces(index + 1);
+        if (index < length && isQuote(text.charAt(index))) {
+            int methodEnd = index + 1;
+            while (methodEnd < length && isAsciiLetter(text.charAt(methodEnd))) {
+                methodEnd += 1;
+            }
+            if (methodEnd > index + 1 && methodEnd < length && isQuote(text.charAt(methodEnd))) {
+                int separator = skipSpaces(methodEnd + 1);
+                if (isCharAt(separator, ',')) {
+                    int end = matchQuotedValue(skipSpaces(separator + 1), false);
+                    if (end >= 0) {
+                        return end;
+                    }
+                }
+            }
+        }
+        return matchQuotedValue(index, false);
+    }
+
+    private int matchNewUrl(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "new")) {
+            return -1;
+        }
+        int index = position + 3;
+        if (index >= length || !isRegexSpace(text.charAt(index))) {
+            return -1;
+        }
+        index = skipSpaces(index);
+        if (!regionMatchesIgnoreCase(index, "url")) {
+            return -1;
+        }
+        return matchCallArgument(skipSpaces(index + 3), false);
+    }
+
+    private int matchFrameworkRoute(int position) {
+        if (!hasWordBoundaryBefore(position)) {
+            return -1;
+        }
+        int objectLength = matchAnyIgnoreCase(position, FRAMEWORK_OBJECTS);
+        if (objectLength < 0) {
+            return -1;
+        }
+        int index = skipSpaces(position + objectLength);
+        if (!isCharAt(index, '.')) {
+            return -1;
+        }
+        index = skipSpaces(index + 1);
+        int methodLength = matchAnyIgnoreCase(index, FRAMEWORK_METHODS);
+        if (methodLength < 0) {
+            return -1;
+        }
+        return matchCallArgument(skipSpaces(index + methodLength), false);
+    }
+
+    private int matchFastifyRouteObject(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "fastify")) {
+            return -1;
+        }
+        int index = skipSpaces(position + 7);
+        if (!isCharAt(index, '.')) {
+            return -1;
+        }
+        index = skipSpaces(index + 1);
+        if (!regionMatchesIgnoreCase(index, "route")) {
+            return -1;
+        }
+        return matchObjectArgument(skipSpaces(index + 5), ROUTE_OBJECT_KEYS);
+    }
+
+    private int matchReactRoute(int position) {
+        if (!regionMatchesIgnoreCase(position, "<route")) {
+            return -1;
+        }
+        int attributesStart = position + 6;
+        int attributesEnd = attributesStart;
+        while (attributesEnd < length && text.charAt(attributesEnd) != '>') {
+            attributesEnd += 1;
+        }
+        for (int index = attributesEnd; index >= attributesStart; index--) {
+            if (!hasWordBoundaryBefore(index) || !regionMatchesIgnoreCase(index, "path")) {
+                continue;
+            }
+            int assignment = skipSpaces(index + 4);
+            if (!isCharAt(assignment, '=')) {
+                continue;
+            }
+            int end = matchQuotedValue(skipSpaces(assignment + 1), false);
+            if (end >= 0) {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    private int matchRouteObjectPath(int position) {
+        if (!hasWordBoundaryBefore(position) || !regionMatchesIgnoreCase(position, "path")) {
+            return -1;
+        }
+        int index = skipSpaces(position + 4);
+        if (!isCharAt(index, ':')) {
+            return -1;
+        }
+        return matchQuotedValue(skipSpaces(index + 1), true);
+    }
+
+    private int matchCallArgument(int index, boolean rootPathOnly) {
+        if (!isCharAt(index, '(')) {
+            return -1;
+        }
+        return matchQuotedValue(skipSpaces(index + 1), rootPathOnly);
+    }
+
+    private int matchObjectArgument(int index, String[] keys) {
+        if (!isCharAt(index, '(')) {
+            return -1;
+        }
+        index = skipSpaces(index + 1);
+        if (!isCharAt(index, '{')) {
+            return -1;
+        }
+        for (int keyStart = index + 1; keyStart <= length; keyStart++) {
+            int end = matchObjectKeyValue(keyStart, keys);
+            if (end >= 0) {
+                return end;
+            }
+            if (keyStart == length || text.charAt(keyStart) == '}') {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private int matchObjectKeyValue(int index, String[] keys) {
+        if (!hasWordBoundaryBefore(index)) {
+            return -1;
+        }
+        int keyLength = matchAnyIgnoreCase(index, keys);
+        if (keyLength < 0) {
+            return -1;
+        }
+        int separator = skipSpaces(index + keyLength);
+        if (!isCharAt(separator, ':')) {
+            return -1;
+        }
+        return matchQuotedValue(skipSpaces(separator + 1), false);
+    }
+
+    private int matchQuotedValue(int index, boolean rootPathOnly) {
+        if (index >= length) {
+            return -1;
+        }
+        char quote = text.charAt(index);
+        if (!isQuote(quote)) {
+            return -1;
+        }
+        int start = index + 1;
+        int end = start;
+        while (end < length && !isQuote(text.charAt(end))) {
+            end += 1;
+        }
+        if (end == start || end >= length || text.charAt(end) != quote) {
+            return -1;
+        }
+        if (rootPathOnly && (text.charAt(start) != '/' || end - start < 2)) {
+            return -1;
+        }
+        valueStart = start;
+        valueEnd = end;
+        return end + 1;
+    }
+
+    private int setValue(int start, int end) {
+        valueStart = start;
+        valueEnd = end;
+        return end;
+    }
+
+    private int scanRelativeBody(int index) {
+        int end = index;
+        while (end < length && !isRelativeTerminator(text.charAt(end))) {
+            end += 1;
+        }
+        return end;
+    }
+
+    private int skipSpaces(int index) {
+        while (index < length && isRegexSpace(text.charAt(index))) {
+            index += 1;
+        }
+        return index;
+    }
+
+    private boolean isCharAt(int index, char expected) {
+        return index < length && text.charAt(index) == expected;
+    }
+
+    private int matchAnyIgnoreCase(int index, String[] candidates) {
+        for (String candidate : candidates) {
+            if (regionMatchesIgnoreCase(index, candidate)) {
+                return candidate.length();
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatchesIgnoreCase(int index, String lowerLiteral) {
+        if (index < 0 || index + lowerLiteral.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < lowerLiteral.length(); i++) {
+            if (!isIgnoreCase(text.charAt(index + i), lowerLiteral.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isIgnoreCase(char actual, char lowerExpected) {
+        if (actual == lowerExpected) {
+            return true;
+        }
+        return actual >= 'A' && actual <= 'Z' && (char) (actual + ('a' - 'A')) == lowerExpected;
+    }
+
+    private boolean hasRelativeBoundaryBefore(int position) {
+        if (position == 0) {
+            return true;
+        }
+        char previous = text.charAt(position - 1);
+        return isRegexSpace(previous)
+            || previous == '"'
+            || previous == '\''
+            || previous == '`'
+            || previous == '='
+            || previous == '('
+            || previous == ':'
+            || previous == '['
+            || previous == ','
+            || previous == '>'
+            || previous == '{';
+    }
+
+    private boolean hasWordBoundaryBefore(int position) {
+        if (position <= 0) {
+            return true;
+        }
+        if (position >= length) {
+            return false;
+        }
+        int previous = Character.codePointBefore(text, position);
+        if (isWordCodePoint(previous)) {
+            return false;
+        }
+        if (Character.getType(previous) != Character.NON_SPACING_MARK) {
+            return true;
+        }
+        return !hasBaseCharacter(position - 1);
+    }
+
+    private boolean hasBaseCharacter(int index) {
+        for (int cursor = index; cursor >= 0; cursor--) {
+            int codePoint = Character.codePointAt(text, cursor);
+            if (Character.isLetterOrDigit(codePoint)) {
+                return true;
+            }
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            return false;
+        }
+        return false;
+    }
+
+    private boolean isWordCodePoint(int codePoint) {
+        if (codePoint == '_') {
+            return true;
+        }
+        if (UNICODE_WORD_BOUNDARY) {
+            return Character.isLetterOrDigit(codePoint);
+        }
+        return codePoint < 128 && Character.isLetterOrDigit(codePoint);
+    }
+
+    private boolean isAbsoluteTerminator(char value) {
+        return isRegexSpace(value) || value == '"' || value == '\'' || value == '<' || value == '>';
+    }
+
+    private boolean isRelativeTerminator(char value) {
+        return isAbsoluteTerminator(value) || value == ')' || value == ',' || value == ';';
+    }
+
+    private boolean isQuote(char value) {
+        return value == '"' || value == '\'' || value == '`';
+    }
+
+    private boolean isAsciiLetter(char value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z');
+    }
+
+    private boolean isRegexSpace(char value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\u000B' || value == '\f' || value == '\r';
+    }
+
+    private class SegmentScanTask extends RecursiveAction {
+        private final int[] bounds;
+        private final Matches[] results;
+        private final int from;
+        private final int to;
+        private final ExtractionContext context;
+
+        private SegmentScanTask(int[] bounds, Matches[] results, int from, int to, ExtractionContext context) {
+            this.bounds = bounds;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            context.checkpoint();
+            if (to - from == 1) {
+                results[from] = new FusedEndpointScanner(text, enabledFamilies, triggerScanner)
+                    .scan(bounds[from], bounds[from + 1], new int[FAMILY_COUNT], context);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new SegmentScanTask(bounds, results, from, middle, context),
+                new SegmentScanTask(bounds, results, middle, to, context)
+            );
+        }
+    }
+
+    public static class Matches {
+        private static final int FIELDS = 4;
+
+        private final int[][] ranges = new int[FAMILY_COUNT][];
+        private final int[] counts = new int[FAMILY_COUNT];
+
+        public void clear() {
+            Arrays.fill(counts, 0);
+        }
+
+        void add(int family, int start, int end, int valueStart, int valueEnd) {
+            int[] familyRanges = ranges[family];
+            int offset = counts[family] * FIELDS;
+            if (familyRanges == null) {
+                familyRanges = new int[FIELDS * 16];
+            } else if (offset + FIELDS > familyRanges.length) {
+                familyRanges = Arrays.copyOf(familyRanges, familyRanges.length * 2);
+            }
+            familyRanges[offset] = start;
+            familyRanges[offset + 1] = end;
+            familyRanges[offset + 2] = valueStart;
+            familyRanges[offset + 3] = valueEnd;
+            ranges[family] = familyRanges;
+            counts[family] += 1;
+        }
+
+        public int count(int family) {
+            return counts[family];
+        }
+
+        public int totalCount() {
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        public int start(int family, int index) {
+            return ranges[family][index * FIELDS];
+        }
+
+        public int end(int family, int index) {
+            return ranges[family][index * FIELDS + 1];
+        }
+
+        public int valueStart(int family, int index) {
+            return ranges[family][index * FIELDS + 2];
+        }
+
+        public int valueEnd(int family, int index) {
+            return ranges[family][index * FIELDS + 3];
+        }
+    }
+}
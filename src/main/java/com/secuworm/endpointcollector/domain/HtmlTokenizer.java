@@ -0,0 +1,332 @@
+package com.secuworm.endpointcollector.domain;
+
+public class HtmlTokenizer {
+    private static final int DATA = 0;
+    private static final int TAG_OPEN = 1;
+    private static final int END_TAG = 2;
+    private static final int MARKUP_DECLARATION = 3;
+    private static final int COMMENT_START = 4;
+    private static final int COMMENT = 5;
+    private static final int BOGUS_COMMENT = 6;
+    private static final int TAG_NAME = 7;
+    private static final int BEFORE_ATTRIBUTE_NAME = 8;
+    private static final int ATTRIBUTE_NAME = 9;
+    private static final int AFTER_ATTRIBUTE_NAME = 10;
+    private static final int BEFORE_ATTRIBUTE_VALUE = 11;
+    private static final int DOUBLE_QUOTED_VALUE = 12;
+    private static final int SINGLE_QUOTED_VALUE = 13;
+    private static final int UNQUOTED_VALUE = 14;
+    private static final int RAW_TEXT = 15;
+    private static final int MAX_NAME_CHARS = 32;
+    private static final String[] URL_ATTRIBUTES = new String[]{"href", "src", "action", "formaction"};
+    private static final String DATA_ATTRIBUTE_PREFIX = "data-";
+    private static final String[] RAW_TEXT_ELEMENTS = new String[]{"script", "style", "textarea", "title"};
+    private static final String SCRIPT_ELEMENT = "script";
+
+    private final Visitor visitor;
+    private final StringBuilder tagName = new StringBuilder();
+    private final StringBuilder attributeName = new StringBuilder();
+    private int state = DATA;
+    private int commentDashes;
+    private AttributeKind attributeKind;
+    private long valueStart;
+    private String rawTextElement;
+    private int rawTextMatched;
+    private long rawTextStart;
+    private long position;
+
+    public HtmlTokenizer(Visitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must not be null");
+        }
+        this.visitor = visitor;
+    }
+
+    public void feed(CharSequence text, long baseOffset, int from, int to) {
+        position = baseOffset + from;
+        for (int i = from; i < to; i++, position++) {
+            accept(text, baseOffset, text.charAt(i));
+        }
+    }
+
+    private void accept(CharSequence text, long baseOffset, char current) {
+        switch (state) {
+            case DATA:
+                if (current == '<') {
+                    state = TAG_OPEN;
+                }
+                return;
+            case TAG_OPEN:
+                acceptTagOpen(current);
+                return;
+            case END_TAG:
+            case BOGUS_COMMENT:
+                if (current == '>') {
+                    state = DATA;
+                }
+                return;
+            case MARKUP_DECLARATION:
+                state = current == '-' ? COMMENT_START : BOGUS_COMMENT;
+                if (current == '>') {
+                    state = DATA;
+                }
+                return;
+            case COMMENT_START:
+                if (current == '-') {
+                    state = COMMENT;
+                    commentDashes = 0;
+                } else {
+                    state = current == '>' ? DATA : BOGUS_COMMENT;
+                }
+                return;
+            case COMMENT:
+                acceptComment(current);
+                return;
+            case TAG_NAME:
+                acceptTagName(current);
+                return;
+            case BEFORE_ATTRIBUTE_NAME:
+                acceptBeforeAttributeName(current);
+                return;
+            case ATTRIBUTE_NAME:
+                acceptAttributeName(current);
+                return;
+            case AFTER_ATTRIBUTE_NAME:
+                acceptAfterAttributeName(current);
+                return;
+            case BEFORE_ATTRIBUTE_VALUE:
+                acceptBeforeAttributeValue(current);
+                return;
+            case DOUBLE_QUOTED_VALUE:
+            case SINGLE_QUOTED_VALUE:
+                if (current == (state == DOUBLE_QUOTED_VALUE ? '"' : '\'')) {
+                    emitAttribute(text, baseOffset);
+                    state = BEFORE_ATTRIBUTE_NAME;
+                }
+                return;
+            case UNQUOTED_VALUE:
+                if (isWhitespace(current)) {
+                    emitAttribute(text, baseOffset);
+                    state = BEFORE_ATTRIBUTE_NAME;
+                } else if (current == '>') {
+                    emitAttribute(text, baseOffset);
+                    endStartTag();
+                }
+                return;
+            case RAW_TEXT:
+                acceptRawText(text, baseOffset, current);
+                return;
+            default:
+                state = DATA;
+        }
+    }
+
+    private void acceptTagOpen(char current) {
+        if (current == '!') {
+            state = MARKUP_DECLARATION;
+        } else if (current == '/') {
+            state = END_TAG;
+        } else if (current == '?') {
+            state = BOGUS_COMMENT;
+        } else if (isAsciiLetter(current)) {
+            state = TAG_NAME;
+            tagName.setLength(0);
+            tagName.append(toLowerAscii(current));
+        } else {
+            state = current == '<' ? TAG_OPEN : DATA;
+        }
+    }
+
+    private void acceptComment(char current) {
+        if (current == '>' && commentDashes >= 2) {
+            state = DATA;
+            return;
+        }
+        commentDashes = current == '-' ? commentDashes + 1 : 0;
+    }
+
+    private void acceptTagName(char current) {
+        if (isWhitespace(current) || current == '/') {
+            state = BEFORE_ATTRIBUTE_NAME;
+        } else if (current == '>') {
+            endStartTag();
+        } else if (tagName.length() < MAX_NAME_CHARS) {
+            tagName.append(toLowerAscii(current));
+        }
+    }
+
+    private void acceptBeforeAttributeName(char current) {
+        if (isWhitespace(current) || current == '/') {
+            return;
+        }
+        if (current == '>') {
+            endStartTag();
+            return;
+        }
+        state = ATTRIBUTE_NAME;
+        attributeName.setLength(0);
+        attributeName.append(toLowerAscii(current));
+    }
+
+    private void acceptAttributeName(char current) {
+        if (isWhitespace(current)) {
+            state = AFTER_ATTRIBUTE_NAME;
+        } else if (current == '/') {
+            state = BEFORE_ATTRIBUTE_NAME;
+        } else if (current == '=') {
+            state = BEFORE_ATTRIBUTE_VALUE;
+        } else if (current == '>') {
+            endStartTag();
+        } else if (attributeName.length() < MAX_NAME_CHARS) {
+            attributeName.append(toLowerAscii(current));
+        }
+    }
+
+    private void acceptAfterAttributeName(char current) {
+        if (isWhitespace(current)) {
+            return;
+        }
+        if (current == '=') {
+            state = BEFORE_ATTRIBUTE_VALUE;
+        } else if (current == '>') {
+            endStartTag();
+        } else if (current == '/') {
+            state = BEFORE_ATTRIBUTE_NAME;
+        } else {
+            state = ATTRIBUTE_NAME;
+            attributeName.setLength(0);
+            attributeName.append(toLowerAscii(current));
+        }
+    }
+
+    private void acceptBeforeAttributeValue(char current) {
+        if (isWhitespace(current)) {
+            return;
+        }
+        if (current == '>') {
+            endStartTag();
+            return;
+        }
+        attributeKind = endpointAttributeKind(attributeName);
+        if (current == '"') {
+            state = DOUBLE_QUOTED_VALUE;
+            valueStart = position + 1;
+        } else if (current == '\'') {
+            state = SINGLE_QUOTED_VALUE;
+            valueStart = position + 1;
+        } else {
+            state = UNQUOTED_VALUE;
+            valueStart = position;
+        }
+    }
+
+    private void acceptRawText(CharSequence text, long baseOffset, char current) {
+        int closingLength = rawTextElement.length() + 2;
+        if (rawTextMatched == closingLength) {
+            if (isWhitespace(current) || current == '/' || current == '>') {
+                long contentEnd = position - closingLength;
+                if (SCRIPT_ELEMENT.equals(rawTextElement) && rawTextStart >= baseOffset) {
+                    visitor.onScript(text, (int) (rawTextStart - baseOffset), (int) (contentEnd - baseOffset));
+                }
+                rawTextElement = null;
+                state = current == '>' ? DATA : END_TAG;
+                return;
+            }
+            rawTextMatched = 0;
+        }
+        if (matchesClosingChar(current, rawTextMatched)) {
+            rawTextMatched += 1;
+        } else {
+            rawTextMatched = current == '<' ? 1 : 0;
+        }
+    }
+
+    private boolean matchesClosingChar(char current, int index) {
+        if (index == 0) {
+            return current == '<';
+        }
+        if (index == 1) {
+            return current == '/';
+        }
+        return toLowerAscii(current) == rawTextElement.charAt(index - 2);
+    }
+
+    private void emitAttribute(CharSequence text, long baseOffset) {
+        if (attributeKind == null || valueStart < baseOffset) {
+            return;
+        }
+        visitor.onAttribute(attributeKind, attributeName, text, (int) (valueStart - baseOffset), (int) (position - baseOffset));
+    }
+
+    private void endStartTag() {
+        rawTextElement = rawTextElement(tagName);
+        if (rawTextElement == null) {
+            state = DATA;
+            return;
+        }
+        state = RAW_TEXT;
+        rawTextMatched = 0;
+        rawTextStart = position + 1;
+    }
+
+    private static String rawTextElement(CharSequence name) {
+        for (String element : RAW_TEXT_ELEMENTS) {
+            if (contentEquals(name, element)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static AttributeKind endpointAttributeKind(CharSequence name) {
+        for (String attribute : URL_ATTRIBUTES) {
+            if (contentEquals(name, attribute)) {
+                return AttributeKind.URL;
+            }
+        }
+        if (name.length() <= DATA_ATTRIBUTE_PREFIX.length()) {
+            return null;
+        }
+        for (int i = 0; i < DATA_ATTRIBUTE_PREFIX.length(); i++) {
+            if (name.charAt(i) != DATA_ATTRIBUTE_PREFIX.charAt(i)) {
+                return null;
+            }
+        }
+        return AttributeKind.DATA;
+    }
+
+    private static boolean contentEquals(CharSequence value, String literal) {
+        if (value.length() != literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (value.charAt(i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z');
+    }
+
+    private static char toLowerAscii(char value) {
+        return value >= 'A' && value <= 'Z' ? (char) (value + ('a' - 'A')) : value;
+    }
+
+    private static boolean isWhitespace(char value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\r' || value == '\f';
+    }
+
+    public enum AttributeKind {
+        URL,
+        DATA
+    }
+
+    public interface Visitor {
+        void onAttribute(AttributeKind kind, CharSequence name, CharSequence text, int valueStart, int valueEnd);
+
+        void onScript(CharSequence text, int contentStart, int contentEnd);
+    }
+}
@@ -1,8 +1,5 @@
 package com.secuworm.endpointcollector.domain;
 
-import org.mozilla.javascript.CompilerEnvirons;
-import org.mozilla.javascript.Context;
-import org.mozilla.javascript.Parser;
 import org.mozilla.javascript.Token;
 import org.mozilla.javascript.ast.ArrayLiteral;
 import org.mozilla.javascript.ast.AstNode;
@@ -16,7 +13,6 @@ import org.mozilla.javascript.ast.ObjectLiteral;
 import org.mozilla.javascript.ast.ObjectProperty;
 import org.mozilla.javascript.ast.ParenthesizedExpression;
 import org.mozilla.javascript.ast.PropertyGet;
-import org.mozilla.javascript.ast.RegExpLiteral;
 import org.mozilla.javascript.ast.StringLiteral;
 import org.mozilla.javascript.ast.TemplateCharacters;
 import org.mozilla.javascript.ast.TemplateLiteral;
@@ -43,94 +39,149 @@ public class JsAstEndpointExtractor {
         "use",
         "route"
     };
+    private static final int CHECKPOINT_MASK = 0x3FF;
+    private static final int MAX_CONSTANT_PASSES = 8;
 
     public List<String> extract(String javascriptSource) {
-        if (javascriptSource == null || javascriptSource.trim().isEmpty()) {
+        return extract(new JsSourceDocument(javascriptSource));
+    }
+
+    public List<String> extract(JsSourceDocument document) {
+        return extract(document, ExtractionContext.unbounded());
+    }
+
+    public List<String> extract(JsSourceDocument document, ExtractionContext context) {
+        if (document == null || document.isBlank()) {
             return new ArrayList<>();
         }
+        ExtractionContext activeContext = context == null ? ExtractionContext.unbounded() : context;
 
-        AstRoot root = parseAstRoot(javascriptSource);
+        activeContext.checkpoint();
+        AstRoot root = document.getAstRoot();
         if (root == null) {
             return new ArrayList<>();
         }
+        activeContext.checkpoint();
 
-        Map<String, String> constants = collectStringConstants(root);
-        Set<String> discovered = new LinkedHashSet<>();
-
+        List<VariableInitializer> initializers = new ArrayList<>();
+        List<AstNode> callSites = new ArrayList<>();
+        int[] visited = new int[1];
         root.visit(node -> {
-            if (node instanceof FunctionCall) {
-                extractFromFunctionCall((FunctionCall) node, constants, discovered);
-            } else if (node instanceof NewExpression) {
-                extractFromNewExpression((NewExpression) node, constants, discovered);
+            if ((++visited[0] & CHECKPOINT_MASK) == 0) {
+                activeContext.checkpoint();
+            }
+            if (node instanceof VariableInitializer) {
+                initializers.add((VariableInitializer) node);
+            } else if (node instanceof FunctionCall || node instanceof NewExpression) {
+                callSites.add(node);
             }
             return true;
         });
 
+        Map<String, String> constants = resolveStringConstants(initializers);
+        Set<String> discovered = new LinkedHashSet<>();
+        for (int i = 0; i < callSites.size(); i++) {
+            if ((i & CHECKPOINT_MASK) == CHECKPOINT_MASK) {
+                activeContext.checkpoint();
+            }
+            AstNode callSite = callSites.get(i);
+            if (callSite instanceof FunctionCall) {
+                extractFromFunctionCall((FunctionCall) callSite, constants, discovered);
+            } else if (callSite instanceof NewExpression) {
+                extractFromNewExpression((NewExpression) callSite, constants, discovered);
+            }
+        }
         return new ArrayList<>(discovered);
     }
 
     public List<SourceRange> extractRegexLiteralRanges(String javascriptSource) {
-        AstRoot root = parseAstRoot(javascriptSource);
-        if (root == null) {
-            return new ArrayList<>();
-        }
-        List<SourceRange> ranges = new ArrayList<>();
-        root.visit(node -> {
-            if (node instanceof RegExpLiteral) {
-                int start = node.getAbsolutePosition();
-                int end = start + node.getLength();
-                if (start >= 0 && end > start) {
-                    ranges.add(new SourceRange(start, end));
-                }
-            }
-            return true;
-        });
-        return ranges;
+        return extractRegexLiteralRanges(new JsSourceDocument(javascriptSource));
     }
 
-    private AstRoot parseAstRoot(String javascriptSource) {
-        if (javascriptSource == null || javascriptSource.trim().isEmpty()) {
-            return null;
+    public List<SourceRange> extractRegexLiteralRanges(JsSourceDocument document) {
+        List<SourceRange> ranges = new ArrayList<>();
+        if (document == null || document.length() == 0) {
+            return ranges;
         }
-        try {
-            Parser parser = createParser();
-            return parser.parse(javascriptSource, "endpoint-collector-inline.js", 1);
-        } catch (Exception ex) {
-            return null;
+        LexicalRegionIndex index = document.getLexicalRegions();
+        int count = index.count(LexicalRegionIndex.RegionKind.REGEX_LITERAL);
+        for (int i = 0; i < count; i++) {
+            ranges.add(new SourceRange(
+                index.start(LexicalRegionIndex.RegionKind.REGEX_LITERAL, i),
+                index.end(LexicalRegionIndex.RegionKind.REGEX_LITERAL, i)
+            ));
         }
+        return ranges;
     }
 
-    private Parser createParser() {
-        CompilerEnvirons environs = new CompilerEnvirons();
-        environs.setLanguageVersion(Context.VERSION_ES6);
-        environs.setRecoverFromErrors(true);
-        environs.setIdeMode(true);
-        return new Parser(environs);
-    }
-
-    private Map<String, String> collectStringConstants(AstRoot root) {
+    private Map<String, String> resolveStringConstants(List<VariableInitializer> initializers) {
         Map<String, String> constants = new HashMap<>();
-        root.visit(node -> {
-            if (!(node instanceof VariableInitializer)) {
-                return true;
+        Map<String, Integer> pendingNames = new HashMap<>();
+        List<VariableInitializer> pending = new ArrayList<>();
+        for (VariableInitializer initializer : initializers) {
+            if (initializer.getTarget() instanceof Name && initializer.getInitializer() != null) {
+                pending.add(initializer);
+                pendingNames.merge(((Name) initializer.getTarget()).getIdentifier(), 1, Integer::sum);
             }
-            VariableInitializer initializer = (VariableInitializer) node;
-            if (!(initializer.getTarget() instanceof Name)) {
-                return true;
+        }
+        for (int pass = 0; pass < MAX_CONSTANT_PASSES && !pending.isEmpty(); pass++) {
+            List<VariableInitializer> deferred = new ArrayList<>();
+            for (VariableInitializer initializer : pending) {
+                if (referencesPendingName(initializer.getInitializer(), pendingNames)) {
+                    deferred.add(initializer);
+                    continue;
+                }
+                resolveConstant(initializer, constants);
+                pendingNames.computeIfPresent(((Name) initializer.getTarget()).getIdentifier(), (name, count) -> count > 1 ? count - 1 : null);
             }
-            Name target = (Name) initializer.getTarget();
-            AstNode valueNode = initializer.getInitializer();
-            if (valueNode == null) {
-                return true;
+            if (deferred.size() == pending.size()) {
+                break;
             }
+            pending = deferred;
+        }
+        for (VariableInitializer initializer : pending) {
+            resolveConstant(initializer, constants);
+        }
+        return constants;
+    }
 
-            String resolved = resolveExpression(valueNode, constants);
-            if (isEndpointLike(resolved)) {
-                constants.put(target.getIdentifier(), resolved);
+    private void resolveConstant(VariableInitializer initializer, Map<String, String> constants) {
+        String resolved = resolveExpression(initializer.getInitializer(), constants);
+        if (isEndpointLike(resolved)) {
+            constants.put(((Name) initializer.getTarget()).getIdentifier(), resolved);
+        }
+    }
+
+    private boolean referencesPendingName(AstNode node, Map<String, Integer> pendingNames) {
+        if (node instanceof ParenthesizedExpression) {
+            return referencesPendingName(((ParenthesizedExpression) node).getExpression(), pendingNames);
+        }
+        if (node instanceof Name) {
+            return pendingNames.containsKey(((Name) node).getIdentifier());
+        }
+        if (node instanceof TemplateLiteral) {
+            for (AstNode element : ((TemplateLiteral) node).getElements()) {
+                if (!(element instanceof TemplateCharacters) && referencesPendingName(element, pendingNames)) {
+                    return true;
+                }
             }
-            return true;
-        });
-        return constants;
+            return false;
+        }
+        if (node instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) node;
+            return infix.getOperator() == Token.ADD
+                && (referencesPendingName(infix.getLeft(), pendingNames) || referencesPendingName(infix.getRight(), pendingNames));
+        }
+        if (node instanceof ConditionalExpression) {
+            ConditionalExpression conditional = (ConditionalExpression) node;
+            return referencesPendingName(conditional.getTrueExpression(), pendingNames)
+                || referencesPendingName(conditional.getFalseExpression(), pendingNames);
+        }
+        if (node instanceof ArrayLiteral) {
+            List<AstNode> elements = ((ArrayLiteral) node).getElements();
+            return !elements.isEmpty() && referencesPendingName(elements.get(0), pendingNames);
+        }
+        return false;
     }
 
     private void extractFromFunctionCall(
@@ -0,0 +1,256 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class JsBundleSplitter {
+    private static final String[] BUNDLE_MARKERS = new String[]{
+        "__webpack_require__",
+        "__webpack_modules__",
+        "webpackChunk",
+        "webpackJsonp",
+        "define(",
+        "System.register("
+    };
+    private static final LexicalRegionIndex.RegionKind[] OPAQUE_KINDS = new LexicalRegionIndex.RegionKind[]{
+        LexicalRegionIndex.RegionKind.REGEX_LITERAL,
+        LexicalRegionIndex.RegionKind.COMMENT,
+        LexicalRegionIndex.RegionKind.STRING,
+        LexicalRegionIndex.RegionKind.TEMPLATE
+    };
+    private static final Pattern MODULE_MAP_ANCHOR = Pattern.compile(
+        "__webpack_modules__\\s*=\\s*\\(?\\s*[\\[{]"
+            + "|\\.push\\(\\s*\\[\\s*\\[[^\\[\\]]*\\]\\s*,\\s*\\(?\\s*[\\[{]"
+            + "|\\}\\s*\\)\\s*\\(\\s*[\\[{]"
+    );
+    private static final Pattern MODULE_FUNCTION = Pattern.compile(
+        "\\(*\\s*(?:async\\s*)?(?:function\\b|\\([^()]*\\)\\s*=>|[A-Za-z_$][\\w$]*\\s*=>)"
+    );
+    private static final Pattern MODULE_CALL = Pattern.compile("(?<![\\w$.])(?:define|System\\.register)\\s*\\(");
+    private static final String MODULE_PLACEHOLDER = "null";
+
+    private final int minModules;
+
+    public JsBundleSplitter(int minModules) {
+        this.minModules = Math.max(2, minModules);
+    }
+
+    public List<CharRange> split(CharSequence source, LexicalRegionIndex regions) {
+        List<CharRange> modules = new ArrayList<>();
+        if (source == null || !containsMarker(source)) {
+            return modules;
+        }
+        LexicalRegionIndex lexicalRegions = regions == null ? LexicalRegionIndex.empty() : regions;
+        Matcher anchor = MODULE_MAP_ANCHOR.matcher(source);
+        int from = 0;
+        while (from < source.length() && anchor.find(from)) {
+            from = anchor.end();
+            if (isOpaque(lexicalRegions, anchor.start())) {
+                continue;
+            }
+            List<CharRange> entries = splitModuleMap(source, lexicalRegions, anchor.end() - 1);
+            if (entries != null && entries.size() >= minModules) {
+                modules.addAll(entries);
+                from = entries.get(entries.size() - 1).getEnd();
+            }
+        }
+        if (modules.isEmpty()) {
+            collectModuleCalls(source, lexicalRegions, modules);
+        }
+        return modules.size() >= minModules ? modules : new ArrayList<>();
+    }
+
+    public static String prelude(CharSequence source, List<CharRange> modules) {
+        StringBuilder prelude = new StringBuilder(source.length());
+        int from = 0;
+        for (CharRange module : modules) {
+            prelude.append(source, from, module.getStart()).append(MODULE_PLACEHOLDER);
+            from = module.getEnd();
+        }
+        return prelude.append(source, from, source.length()).toString();
+    }
+
+    public static String moduleSource(CharRange module) {
+        return new StringBuilder(module.length() + 2).append('(').append(module).append(')').toString();
+    }
+
+    private List<CharRange> splitModuleMap(CharSequence source, LexicalRegionIndex regions, int opener) {
+        boolean objectMap = source.charAt(opener) == '{';
+        List<CharRange> entries = new ArrayList<>();
+        RegionCursor cursor = new RegionCursor(regions, opener + 1);
+        int depth = 0;
+        int entryStart = opener + 1;
+        int length = source.length();
+        for (int i = opener + 1; i < length; i++) {
+            int skipTo = cursor.skip(i);
+            if (skipTo > i) {
+                i = skipTo - 1;
+                continue;
+            }
+            char current = source.charAt(i);
+            if (current == '{' || current == '[' || current == '(') {
+                depth += 1;
+            } else if (current == '}' || current == ']' || current == ')') {
+                if (depth == 0) {
+                    return acceptEntry(source, regions, entryStart, i, objectMap, entries) ? entries : null;
+                }
+                depth -= 1;
+            } else if (current == ',' && depth == 0) {
+                if (!acceptEntry(source, regions, entryStart, i, objectMap, entries)) {
+                    return null;
+                }
+                entryStart = i + 1;
+            }
+        }
+        return null;
+    }
+
+    private boolean acceptEntry(
+        CharSequence source,
+        LexicalRegionIndex regions,
+        int start,
+        int end,
+        boolean objectMap,
+        List<CharRange> entries
+    ) {
+        CharRange entry = new CharRange(source, start, end).trim();
+        if (entry.isEmpty()) {
+            return true;
+        }
+        CharRange value = objectMap ? propertyValue(source, regions, entry) : entry;
+        if (value == null || !MODULE_FUNCTION.matcher(value).lookingAt()) {
+            return false;
+        }
+        entries.add(value);
+        return true;
+    }
+
+    private CharRange propertyValue(CharSequence source, LexicalRegionIndex regions, CharRange entry) {
+        int position = entry.getStart();
+        int end = entry.getEnd();
+        int keyEnd = regions.indexOf(LexicalRegionIndex.RegionKind.STRING, position);
+        if (keyEnd >= 0) {
+            position = regions.end(LexicalRegionIndex.RegionKind.STRING, keyEnd);
+        } else {
+            while (position < end && isIdentifierChar(source.charAt(position))) {
+                position += 1;
+            }
+        }
+        while (position < end && Character.isWhitespace(source.charAt(position))) {
+            position += 1;
+        }
+        if (position >= end || source.charAt(position) != ':') {
+            return null;
+        }
+        return new CharRange(source, position + 1, end).trim();
+    }
+
+    private void collectModuleCalls(CharSequence source, LexicalRegionIndex regions, List<CharRange> modules) {
+        Matcher call = MODULE_CALL.matcher(source).useTransparentBounds(true);
+        RegionCursor cursor = new RegionCursor(regions, 0);
+        int depth = 0;
+        int callStart = -1;
+        int length = source.length();
+        for (int i = 0; i < length; i++) {
+            int skipTo = cursor.skip(i);
+            if (skipTo > i) {
+                i = skipTo - 1;
+                continue;
+            }
+            char current = source.charAt(i);
+            if (depth == 0 && (current == 'd' || current == 'S') && call.region(i, length).lookingAt()) {
+                callStart = i;
+                i = call.end() - 1;
+                depth = 1;
+            } else if (current == '{' || current == '[' || current == '(') {
+                depth += 1;
+            } else if (current == '}' || current == ']' || current == ')') {
+                depth = Math.max(0, depth - 1);
+                if (depth == 0 && callStart >= 0) {
+                    modules.add(new CharRange(source, callStart, i + 1));
+                    callStart = -1;
+                }
+            }
+        }
+    }
+
+    private static boolean containsMarker(CharSequence source) {
+        int length = source.length();
+        for (int index = 0; index < length; index++) {
+            char current = source.charAt(index);
+            for (String marker : BUNDLE_MARKERS) {
+                if (marker.charAt(0) == current && regionMatches(source, index, marker)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence source, int index, String literal) {
+        if (index + literal.length() > source.length()) {
+            return false;
+        }
+        for (int i = 1; i < literal.length(); i++) {
+            if (source.charAt(index + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOpaque(LexicalRegionIndex regions, int offset) {
+        for (LexicalRegionIndex.RegionKind kind : OPAQUE_KINDS) {
+            if (regions.contains(kind, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierChar(char value) {
+        return Character.isLetterOrDigit(value) || value == '_' || value == '$';
+    }
+
+    private static class RegionCursor {
+        private final LexicalRegionIndex regions;
+        private final int[] indexes = new int[OPAQUE_KINDS.length];
+
+        private RegionCursor(LexicalRegionIndex regions, int offset) {
+            this.regions = regions;
+            for (int k = 0; k < OPAQUE_KINDS.length; k++) {
+                indexes[k] = firstEndingAfter(OPAQUE_KINDS[k], offset);
+            }
+        }
+
+        private int skip(int offset) {
+            for (int k = 0; k < OPAQUE_KINDS.length; k++) {
+                LexicalRegionIndex.RegionKind kind = OPAQUE_KINDS[k];
+                int count = regions.count(kind);
+                while (indexes[k] < count && regions.end(kind, indexes[k]) <= offset) {
+                    indexes[k] += 1;
+                }
+                if (indexes[k] < count && regions.start(kind, indexes[k]) <= offset) {
+                    return regions.end(kind, indexes[k]);
+                }
+            }
+            return offset;
+        }
+
+        private int firstEndingAfter(LexicalRegionIndex.RegionKind kind, int offset) {
+            int low = 0;
+            int high = regions.count(kind);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (regions.end(kind, middle) <= offset) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
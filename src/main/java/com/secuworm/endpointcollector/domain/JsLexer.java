@@ -0,0 +1,609 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public class JsLexer {
+    private static final int WORD_REGEX_PREFIX = 1;
+    private static final int WORD_BLOCK_PREFIX = 1 << 1;
+    private static final int WORD_CONTROL = 1 << 2;
+    private static final int WORD_OPERAND_PREFIX = 1 << 3;
+    private static final int WORD_INFIX = 1 << 4;
+    private static final int WORD_CASE_LABEL = 1 << 5;
+    private static final Keyword[][] KEYWORDS = buildKeywordTable();
+
+    private static final String BINARY_ONLY_OPERATORS = "<>%&|^=?";
+    private static final String OPERATOR_CHARACTERS = "<>%&|^=?*!+-/~";
+    private static final int MAX_KEYWORD_LENGTH = 10;
+    private static final int TOKEN_NONE = 0;
+    private static final int TOKEN_PUNCTUATOR = 1;
+    private static final int TOKEN_IDENTIFIER = 2;
+    private static final int TOKEN_KEYWORD = 3;
+    private static final int TOKEN_VALUE = 4;
+    private static final int TOKEN_CLOSE_PAREN = 5;
+    private static final int TOKEN_CLOSE_BRACE = 6;
+    private static final int TOKEN_ARROW = 7;
+
+    private static final int BRACE_BLOCK = 0;
+    private static final int BRACE_EXPRESSION = 1;
+    private static final int BRACE_TEMPLATE = 2;
+    private static final int CHECKPOINT_MASK = 0x3FFF;
+
+    public LexicalRegionIndex scan(CharSequence source) {
+        return scan(source, ExtractionContext.unbounded());
+    }
+
+    public LexicalRegionIndex scan(CharSequence source, ExtractionContext context) {
+        LexicalRegionIndex.Builder builder = new LexicalRegionIndex.Builder();
+        if (source == null || source.length() == 0) {
+            return builder.build();
+        }
+        if (!new Scanner(source, builder, context == null ? ExtractionContext.unbounded() : context).run()) {
+            return LexicalRegionIndex.empty();
+        }
+        return builder.build();
+    }
+
+    private static Keyword[][] buildKeywordTable() {
+        Keyword[][] table = new Keyword[26][0];
+        registerKeywords(table, WORD_REGEX_PREFIX,
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void",
+            "throw", "case", "do", "else", "yield", "await");
+        registerKeywords(table, WORD_BLOCK_PREFIX, "else", "do", "try", "finally");
+        registerKeywords(table, WORD_CONTROL, "if", "while", "for", "with");
+        registerKeywords(table, WORD_OPERAND_PREFIX,
+            "var", "let", "const", "function", "class", "extends", "new", "typeof", "instanceof", "in", "of",
+            "delete", "void", "return", "throw", "case", "do", "else", "yield", "await", "async", "get", "set",
+            "static", "import", "export", "from", "as", "default", "try", "finally", "break", "continue", "enum");
+        registerKeywords(table, WORD_INFIX, "in", "instanceof", "of", "as", "from", "extends");
+        registerKeywords(table, WORD_CASE_LABEL, "case", "default");
+        return table;
+    }
+
+    private static void registerKeywords(Keyword[][] table, int flag, String... words) {
+        for (String word : words) {
+            int bucket = word.charAt(0) - 'a';
+            Keyword existing = null;
+            for (Keyword keyword : table[bucket]) {
+                if (keyword.word.equals(word)) {
+                    existing = keyword;
+                }
+            }
+            if (existing == null) {
+                existing = new Keyword(word);
+                table[bucket] = Arrays.copyOf(table[bucket], table[bucket].length + 1);
+                table[bucket][table[bucket].length - 1] = existing;
+            }
+            existing.flags |= flag;
+        }
+    }
+
+    private static class Keyword {
+        private final String word;
+        private int flags;
+
+        private Keyword(String word) {
+            this.word = word;
+        }
+    }
+
+    private static class Scanner {
+        private final CharSequence source;
+        private final int length;
+        private final LexicalRegionIndex.Builder builder;
+        private final ExtractionContext context;
+        private int position;
+        private int steps;
+        private boolean regexAllowed = true;
+        private int previousToken = TOKEN_NONE;
+        private boolean previousWasDot;
+        private char previousPunctuator;
+        private boolean caseClausePending;
+        private boolean caseClauseColon;
+        private int previousWordFlags;
+        private boolean lastParenWasControl;
+        private int[] parenStack = new int[16];
+        private int parenDepth;
+        private int[] braceStack = new int[16];
+        private int[] templateStartStack = new int[16];
+        private int braceDepth;
+        private int bracketDepth;
+        private boolean malformed;
+        private boolean lineBreakBefore;
+
+        private Scanner(CharSequence source, LexicalRegionIndex.Builder builder, ExtractionContext context) {
+            this.source = source;
+            this.length = source.length();
+            this.builder = builder;
+            this.context = context;
+        }
+
+        private boolean run() {
+            if (regionMatches(0, "#!")) {
+                position = skipToLineEnd(2);
+                builder.add(LexicalRegionIndex.RegionKind.COMMENT, 0, position);
+            }
+            while (position < length && !malformed) {
+                if ((++steps & CHECKPOINT_MASK) == 0) {
+                    context.checkpoint();
+                }
+                char current = source.charAt(position);
+                if (isWhitespace(current)) {
+                    lineBreakBefore |= isLineTerminator(current);
+                    position += 1;
+                    continue;
+                }
+                if (isHtmlLikeComment(current)) {
+                    int start = position;
+                    position = skipToLineEnd(position + 3);
+                    builder.add(LexicalRegionIndex.RegionKind.COMMENT, start, position);
+                    continue;
+                }
+                if (current == '/') {
+                    if (scanSlash()) {
+                        continue;
+                    }
+                } else if (current == '"' || current == '\'') {
+                    checkAdjacentOperand(0);
+                    scanString(current);
+                } else if (current == '`') {
+                    int start = position;
+                    position += 1;
+                    scanTemplate(start);
+                } else if (isIdentifierStart(current)) {
+                    scanWord();
+                } else if (isDigit(current) || (current == '.' && position + 1 < length && isDigit(source.charAt(position + 1)))) {
+                    checkAdjacentOperand(0);
+                    scanNumber();
+                } else {
+                    scanPunctuator(current);
+                }
+                lineBreakBefore = false;
+            }
+            return !malformed && parenDepth == 0 && braceDepth == 0 && bracketDepth == 0;
+        }
+
+        private boolean isHtmlLikeComment(char current) {
+            if (current == '<') {
+                return regionMatches(position, "<!--");
+            }
+            return current == '-' && (lineBreakBefore || previousToken == TOKEN_NONE) && regionMatches(position, "-->");
+        }
+
+        private boolean scanSlash() {
+            int start = position;
+            char next = position + 1 < length ? source.charAt(position + 1) : '\0';
+            if (next == '/') {
+                position = skipToLineEnd(position + 2);
+                builder.add(LexicalRegionIndex.RegionKind.COMMENT, start, position);
+                return true;
+            }
+            if (next == '*') {
+                int close = indexOf("*/", position + 2);
+                malformed |= close < 0;
+                position = close < 0 ? length : close + 2;
+                for (int i = start + 2; i < position && !lineBreakBefore; i++) {
+                    lineBreakBefore = isLineTerminator(source.charAt(i));
+                }
+                builder.add(LexicalRegionIndex.RegionKind.COMMENT, start, position);
+                return true;
+            }
+            if (regexAllowed) {
+                int end = scanRegexBody(position + 1);
+                if (end >= 0) {
+                    while (end < length && isIdentifierPart(source.charAt(end))) {
+                        end += 1;
+                    }
+                    builder.add(LexicalRegionIndex.RegionKind.REGEX_LITERAL, start, end);
+                    position = end;
+                    markValue();
+                    return false;
+                }
+                malformed = true;
+            }
+            position += next == '=' ? 2 : 1;
+            previousPunctuator = '/';
+            markPunctuator(true);
+            return false;
+        }
+
+        private int scanRegexBody(int index) {
+            boolean inClass = false;
+            int groupDepth = 0;
+            while (index < length) {
+                char current = source.charAt(index);
+                if (isLineTerminator(current)) {
+                    return -1;
+                }
+                if (current == '\\') {
+                    if (index + 1 >= length || isLineTerminator(source.charAt(index + 1))) {
+                        return -1;
+                    }
+                    index += 2;
+                    continue;
+                }
+                if (current == '[') {
+                    inClass = true;
+                } else if (current == ']') {
+                    inClass = false;
+                } else if (inClass) {
+                    index += 1;
+                    continue;
+                } else if (current == '(') {
+                    groupDepth += 1;
+                } else if (current == ')') {
+                    groupDepth -= 1;
+                    if (groupDepth < 0) {
+                        return -1;
+                    }
+                } else if (current == '/') {
+                    return groupDepth == 0 ? index + 1 : -1;
+                }
+                index += 1;
+            }
+            return -1;
+        }
+
+        private void scanString(char quote) {
+            int start = position;
+            position += 1;
+            while (position < length) {
+                char current = source.charAt(position);
+                if (current == '\\') {
+                    position += regionMatches(position + 1, "\r\n") ? 3 : 2;
+                    continue;
+                }
+                if (current == quote) {
+                    position += 1;
+                    builder.add(LexicalRegionIndex.RegionKind.STRING, start, position);
+                    markValue();
+                    return;
+                }
+                if (current == '\n' || current == '\r') {
+                    break;
+                }
+                position += 1;
+            }
+            malformed = true;
+            position = Math.min(position, length);
+            builder.add(LexicalRegionIndex.RegionKind.STRING, start, position);
+            markValue();
+        }
+
+        private void scanTemplate(int templateStart) {
+            while (position < length) {
+                char current = source.charAt(position);
+                if (current == '\\') {
+                    position += 2;
+                    continue;
+                }
+                if (current == '`') {
+                    position += 1;
+                    builder.add(LexicalRegionIndex.RegionKind.TEMPLATE, templateStart, position);
+                    markValue();
+                    return;
+                }
+                if (current == '$' && position + 1 < length && source.charAt(position + 1) == '{') {
+                    position += 2;
+                    pushBrace(BRACE_TEMPLATE, templateStart);
+                    previousPunctuator = '{';
+                    markPunctuator(true);
+                    return;
+                }
+                position += 1;
+            }
+            malformed = true;
+            position = length;
+            builder.add(LexicalRegionIndex.RegionKind.TEMPLATE, templateStart, position);
+            markValue();
+        }
+
+        private void scanWord() {
+            int start = position;
+            position += 1;
+            while (position < length && isIdentifierPart(source.charAt(position))) {
+                position += 1;
+            }
+            int wordFlags = wordFlags(start, position);
+            boolean propertyName = previousWasDot;
+            checkAdjacentOperand(wordFlags);
+            previousWasDot = false;
+            previousWordFlags = wordFlags;
+            if (!propertyName && (wordFlags & WORD_CASE_LABEL) != 0 && isInsideBlock()) {
+                caseClausePending = true;
+            }
+            if (!propertyName && (wordFlags & WORD_REGEX_PREFIX) != 0) {
+                previousToken = TOKEN_KEYWORD;
+                regexAllowed = true;
+                return;
+            }
+            previousToken = propertyName ? TOKEN_IDENTIFIER : (isKeywordLike(wordFlags) ? TOKEN_KEYWORD : TOKEN_IDENTIFIER);
+            regexAllowed = false;
+        }
+
+        private void scanNumber() {
+            position += 1;
+            while (position < length) {
+                char current = source.charAt(position);
+                if (isIdentifierPart(current) || current == '.') {
+                    position += 1;
+                    continue;
+                }
+                char previous = source.charAt(position - 1);
+                if ((current == '+' || current == '-') && (previous == 'e' || previous == 'E')) {
+                    position += 1;
+                    continue;
+                }
+                break;
+            }
+            markValue();
+        }
+
+        private void scanPunctuator(char current) {
+            int braceKind = current == '{' ? openingBraceKind() : BRACE_BLOCK;
+            checkLeftOperand(current);
+            caseClauseColon = current == ':' && caseClausePending;
+            if (current == ':') {
+                caseClausePending = false;
+            }
+            previousPunctuator = current;
+            switch (current) {
+                case '(':
+                    pushParen(previousToken == TOKEN_KEYWORD && (previousWordFlags & WORD_CONTROL) != 0 && !previousWasDot);
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                case ')':
+                    lastParenWasControl = popParen();
+                    position += 1;
+                    previousToken = TOKEN_CLOSE_PAREN;
+                    previousWasDot = false;
+                    regexAllowed = lastParenWasControl;
+                    return;
+                case '{':
+                    pushBrace(braceKind, -1);
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                case '}':
+                    closeBrace();
+                    return;
+                case '[':
+                    bracketDepth += 1;
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                case ']':
+                    if (bracketDepth == 0) {
+                        malformed = true;
+                    } else {
+                        bracketDepth -= 1;
+                    }
+                    position += 1;
+                    previousToken = TOKEN_VALUE;
+                    previousWasDot = false;
+                    regexAllowed = false;
+                    return;
+                case '.':
+                    boolean spread = regionMatches(position, "...");
+                    position += spread ? 3 : 1;
+                    markPunctuator(true);
+                    previousWasDot = !spread;
+                    return;
+                case '?':
+                    if (regionMatches(position, "?.") && !(position + 2 < length && isDigit(source.charAt(position + 2)))) {
+                        position += 2;
+                        markPunctuator(true);
+                        previousWasDot = true;
+                        return;
+                    }
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                case '=':
+                    if (regionMatches(position, "=>")) {
+                        position += 2;
+                        markPunctuator(true);
+                        previousToken = TOKEN_ARROW;
+                        return;
+                    }
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                case '+':
+                case '-':
+                    if (position + 1 < length && source.charAt(position + 1) == current) {
+                        position += 2;
+                        boolean postfix = !lineBreakBefore && (previousToken == TOKEN_IDENTIFIER
+                            || previousToken == TOKEN_VALUE
+                            || (previousToken == TOKEN_CLOSE_PAREN && !lastParenWasControl));
+                        if (postfix) {
+                            markValue();
+                        } else {
+                            markPunctuator(true);
+                        }
+                        return;
+                    }
+                    position += 1;
+                    markPunctuator(true);
+                    return;
+                default:
+                    position += 1;
+                    markPunctuator(true);
+            }
+        }
+
+        private void checkAdjacentOperand(int wordFlags) {
+            if (lineBreakBefore || (wordFlags & WORD_INFIX) != 0) {
+                return;
+            }
+            if (previousToken == TOKEN_VALUE
+                || (previousToken == TOKEN_IDENTIFIER && (previousWordFlags & WORD_OPERAND_PREFIX) == 0)) {
+                malformed = true;
+            }
+        }
+
+        private void checkLeftOperand(char current) {
+            if (BINARY_ONLY_OPERATORS.indexOf(current) < 0) {
+                return;
+            }
+            if (previousToken == TOKEN_NONE
+                || (previousToken == TOKEN_PUNCTUATOR && OPERATOR_CHARACTERS.indexOf(previousPunctuator) < 0)) {
+                malformed = true;
+            }
+        }
+
+        private int openingBraceKind() {
+            if (previousToken == TOKEN_KEYWORD) {
+                return (previousWordFlags & WORD_BLOCK_PREFIX) != 0 || (previousWordFlags & WORD_REGEX_PREFIX) == 0
+                    ? BRACE_BLOCK
+                    : BRACE_EXPRESSION;
+            }
+            if (previousToken != TOKEN_PUNCTUATOR) {
+                return BRACE_BLOCK;
+            }
+            char previous = previousPunctuator;
+            if (previous == ';' || previous == '{' || previous == '}') {
+                return BRACE_BLOCK;
+            }
+            if (previous == ':') {
+                return caseClauseColon ? BRACE_BLOCK : BRACE_EXPRESSION;
+            }
+            return BRACE_EXPRESSION;
+        }
+
+        private boolean isInsideBlock() {
+            return braceDepth == 0 || braceStack[braceDepth - 1] == BRACE_BLOCK;
+        }
+
+        private void closeBrace() {
+            position += 1;
+            if (braceDepth == 0) {
+                malformed = true;
+                previousToken = TOKEN_CLOSE_BRACE;
+                previousWasDot = false;
+                regexAllowed = true;
+                return;
+            }
+            braceDepth -= 1;
+            int kind = braceStack[braceDepth];
+            if (kind == BRACE_TEMPLATE) {
+                scanTemplate(templateStartStack[braceDepth]);
+                return;
+            }
+            previousWasDot = false;
+            if (kind == BRACE_BLOCK) {
+                previousToken = TOKEN_CLOSE_BRACE;
+                regexAllowed = true;
+            } else {
+                previousToken = TOKEN_VALUE;
+                regexAllowed = false;
+            }
+        }
+
+        private void markPunctuator(boolean allowsRegex) {
+            previousToken = TOKEN_PUNCTUATOR;
+            previousWasDot = false;
+            regexAllowed = allowsRegex;
+        }
+
+        private void markValue() {
+            previousToken = TOKEN_VALUE;
+            previousWasDot = false;
+            regexAllowed = false;
+        }
+
+        private void pushParen(boolean control) {
+            if (parenDepth == parenStack.length) {
+                parenStack = Arrays.copyOf(parenStack, parenDepth * 2);
+            }
+            parenStack[parenDepth] = control ? 1 : 0;
+            parenDepth += 1;
+        }
+
+        private boolean popParen() {
+            if (parenDepth == 0) {
+                malformed = true;
+                return false;
+            }
+            parenDepth -= 1;
+            return parenStack[parenDepth] == 1;
+        }
+
+        private void pushBrace(int kind, int templateStart) {
+            if (braceDepth == braceStack.length) {
+                braceStack = Arrays.copyOf(braceStack, braceDepth * 2);
+                templateStartStack = Arrays.copyOf(templateStartStack, braceDepth * 2);
+            }
+            braceStack[braceDepth] = kind;
+            templateStartStack[braceDepth] = templateStart;
+            braceDepth += 1;
+        }
+
+        private int skipToLineEnd(int index) {
+            while (index < length && !isLineTerminator(source.charAt(index))) {
+                index += 1;
+            }
+            return index;
+        }
+
+        private int indexOf(String literal, int from) {
+            for (int index = from; index + literal.length() <= length; index++) {
+                if (regionMatches(index, literal)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        private boolean regionMatches(int index, String literal) {
+            if (index < 0 || index + literal.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (source.charAt(index + i) != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int wordFlags(int start, int end) {
+            char initial = source.charAt(start);
+            if (end - start > MAX_KEYWORD_LENGTH || initial < 'a' || initial > 'z') {
+                return 0;
+            }
+            for (Keyword keyword : KEYWORDS[initial - 'a']) {
+                if (keyword.word.length() == end - start && regionMatches(start, keyword.word)) {
+                    return keyword.flags;
+                }
+            }
+            return 0;
+        }
+
+        private boolean isKeywordLike(int wordFlags) {
+            return (wordFlags & (WORD_CONTROL | WORD_BLOCK_PREFIX)) != 0;
+        }
+
+        private boolean isIdentifierStart(char value) {
+            return Character.isJavaIdentifierStart(value) || value == '\\' || value == '#';
+        }
+
+        private boolean isIdentifierPart(char value) {
+            return Character.isJavaIdentifierPart(value) || value == '\\';
+        }
+
+        private boolean isDigit(char value) {
+            return value >= '0' && value <= '9';
+        }
+
+        private boolean isWhitespace(char value) {
+            return value == ' ' || value == '\t' || value == '\n' || value == '\r' || value == '\u000B'
+                || value == '\f' || value == '\u00A0' || value == '\uFEFF' || value == '\u2028' || value == '\u2029'
+                || (value > 127 && Character.isSpaceChar(value));
+        }
+
+        private boolean isLineTerminator(char value) {
+            return value == '\n' || value == '\r' || value == '\u2028' || value == '\u2029';
+        }
+    }
+}
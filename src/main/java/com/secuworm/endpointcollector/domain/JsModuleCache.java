@@ -0,0 +1,62 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JsModuleCache {
+    private static final String MODULE_KEY_TYPE = "application/javascript;module";
+
+    private final Map<ExtractionCache.Key, List<String>> entries;
+    private long hits;
+    private long misses;
+
+    public JsModuleCache(int maxEntries) {
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<ExtractionCache.Key, List<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ExtractionCache.Key, List<String>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static ExtractionCache.Key keyOf(CharSequence moduleSource) {
+        return ExtractionCache.keyOf(moduleSource, MODULE_KEY_TYPE);
+    }
+
+    public synchronized List<String> get(ExtractionCache.Key key) {
+        List<String> cached = entries.get(key);
+        if (cached == null) {
+            misses += 1;
+            return null;
+        }
+        hits += 1;
+        return cached;
+    }
+
+    public synchronized void put(ExtractionCache.Key key, List<String> candidates) {
+        if (key == null || candidates == null) {
+            return;
+        }
+        entries.put(key, Collections.unmodifiableList(new ArrayList<>(candidates)));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package com.secuworm.endpointcollector.domain;
+
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Parser;
+import org.mozilla.javascript.ast.AstRoot;
+
+public class JsSourceDocument {
+    private static final JsLexer LEXER = new JsLexer();
+
+    private final CharSequence text;
+    private String source;
+    private boolean parsed;
+    private AstRoot astRoot;
+    private LexicalRegionIndex lexicalRegions;
+
+    public JsSourceDocument(CharSequence source) {
+        this.text = source == null ? "" : source;
+    }
+
+    public String getSource() {
+        if (source == null) {
+            source = text.toString();
+        }
+        return source;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    public boolean isBlank() {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public AstRoot getAstRoot() {
+        if (!parsed) {
+            parsed = true;
+            astRoot = parse();
+        }
+        return astRoot;
+    }
+
+    public LexicalRegionIndex getLexicalRegions() {
+        return getLexicalRegions(ExtractionContext.unbounded());
+    }
+
+    public LexicalRegionIndex getLexicalRegions(ExtractionContext context) {
+        if (lexicalRegions == null) {
+            lexicalRegions = LEXER.scan(getSource(), context);
+        }
+        return lexicalRegions;
+    }
+
+    private AstRoot parse() {
+        if (isBlank()) {
+            return null;
+        }
+        try {
+            return createParser().parse(getSource(), "endpoint-collector-inline.js", 1);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private Parser createParser() {
+        CompilerEnvirons environs = new CompilerEnvirons();
+        environs.setLanguageVersion(Context.VERSION_ES6);
+        environs.setRecoverFromErrors(true);
+        environs.setIdeMode(true);
+        return new Parser(environs);
+    }
+}
@@ -0,0 +1,341 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public class JsonStringTokenizer {
+    private static final int EXPECT_VALUE = 0;
+    private static final int EXPECT_VALUE_OR_END = 1;
+    private static final int EXPECT_KEY = 2;
+    private static final int EXPECT_KEY_OR_END = 3;
+    private static final int EXPECT_COLON = 4;
+    private static final int EXPECT_COMMA_OR_END = 5;
+    private static final int EXPECT_NOTHING = 6;
+    private static final int LEXEME_NONE = 0;
+    private static final int LEXEME_STRING = 1;
+    private static final int LEXEME_ESCAPE = 2;
+    private static final int LEXEME_UNICODE = 3;
+    private static final int LEXEME_SCALAR = 4;
+    private static final char OBJECT = '{';
+    private static final char ARRAY = '[';
+
+    private final Visitor visitor;
+    private final int maxStringChars;
+    private final int carryChars;
+    private final StringBuilder lexeme = new StringBuilder();
+    private char[] containers = new char[16];
+    private String[] containerKeys = new String[16];
+    private int depth;
+    private int expect = EXPECT_VALUE;
+    private int lexemeState = LEXEME_NONE;
+    private boolean lexemeIsKey;
+    private boolean lexemeTruncated;
+    private int unicodeDigits;
+    private int unicodeValue;
+    private String pendingKey;
+    private boolean malformed;
+
+    public JsonStringTokenizer(Visitor visitor, int maxStringChars) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must not be null");
+        }
+        this.visitor = visitor;
+        this.maxStringChars = Math.max(64, maxStringChars);
+        this.carryChars = Math.min(2048, this.maxStringChars / 4);
+    }
+
+    public static boolean looksLikeDocument(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char current = text.charAt(i);
+            if (current == '\uFEFF' || isWhitespace(current)) {
+                continue;
+            }
+            return current == '{' || current == '[';
+        }
+        return false;
+    }
+
+    public boolean feed(CharSequence text, int from, int to) {
+        if (text instanceof Utf8ByteSequence) {
+            return feed((Utf8ByteSequence) text, from, to);
+        }
+        for (int i = from; i < to && !malformed; i++) {
+            accept(text.charAt(i));
+        }
+        return !malformed;
+    }
+
+    public boolean feed(Utf8ByteSequence text, int from, int to) {
+        for (int i = from; i < to && !malformed; i++) {
+            if (!text.continuesPreviousChar(i)) {
+                accept(text.charAt(i));
+            }
+        }
+        return !malformed;
+    }
+
+    public boolean finish() {
+        if (lexemeState == LEXEME_SCALAR) {
+            endScalar();
+        }
+        if (lexemeState != LEXEME_NONE || depth != 0 || expect != EXPECT_NOTHING) {
+            malformed = true;
+        }
+        return !malformed;
+    }
+
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    private void accept(char current) {
+        switch (lexemeState) {
+            case LEXEME_STRING:
+                acceptStringChar(current);
+                return;
+            case LEXEME_ESCAPE:
+                acceptEscapeChar(current);
+                return;
+            case LEXEME_UNICODE:
+                acceptUnicodeDigit(current);
+                return;
+            case LEXEME_SCALAR:
+                if (isScalarChar(current)) {
+                    lexeme.append(current);
+                    return;
+                }
+                endScalar();
+                if (malformed) {
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (isWhitespace(current) || (current == '\uFEFF' && expect == EXPECT_VALUE && depth == 0)) {
+            return;
+        }
+        switch (current) {
+            case '{':
+            case '[':
+                requireValue();
+                push(current);
+                expect = current == OBJECT ? EXPECT_KEY_OR_END : EXPECT_VALUE_OR_END;
+                return;
+            case '}':
+            case ']':
+                closeContainer(current == '}' ? OBJECT : ARRAY);
+                return;
+            case ':':
+                if (expect != EXPECT_COLON) {
+                    malformed = true;
+                    return;
+                }
+                expect = EXPECT_VALUE;
+                return;
+            case ',':
+                if (expect != EXPECT_COMMA_OR_END || depth == 0) {
+                    malformed = true;
+                    return;
+                }
+                expect = containers[depth - 1] == OBJECT ? EXPECT_KEY : EXPECT_VALUE;
+                return;
+            case '"':
+                startString();
+                return;
+            default:
+                if (!isScalarChar(current)) {
+                    malformed = true;
+                    return;
+                }
+                requireValue();
+                lexemeState = LEXEME_SCALAR;
+                lexeme.setLength(0);
+                lexeme.append(current);
+        }
+    }
+
+    private void startString() {
+        if (expect == EXPECT_KEY || expect == EXPECT_KEY_OR_END) {
+            lexemeIsKey = true;
+        } else {
+            requireValue();
+            lexemeIsKey = false;
+        }
+        if (malformed) {
+            return;
+        }
+        lexemeState = LEXEME_STRING;
+        lexemeTruncated = false;
+        lexeme.setLength(0);
+    }
+
+    private void acceptStringChar(char current) {
+        if (current == '"') {
+            endString();
+            return;
+        }
+        if (current == '\\') {
+            lexemeState = LEXEME_ESCAPE;
+            return;
+        }
+        if (current < 0x20) {
+            malformed = true;
+            return;
+        }
+        appendStringChar(current);
+    }
+
+    private void acceptEscapeChar(char current) {
+        lexemeState = LEXEME_STRING;
+        switch (current) {
+            case '"':
+            case '\\':
+            case '/':
+                appendStringChar(current);
+                return;
+            case 'b':
+                appendStringChar('\b');
+                return;
+            case 'f':
+                appendStringChar('\f');
+                return;
+            case 'n':
+                appendStringChar('\n');
+                return;
+            case 'r':
+                appendStringChar('\r');
+                return;
+            case 't':
+                appendStringChar('\t');
+                return;
+            case 'u':
+                lexemeState = LEXEME_UNICODE;
+                unicodeDigits = 0;
+                unicodeValue = 0;
+                return;
+            default:
+                malformed = true;
+        }
+    }
+
+    private void acceptUnicodeDigit(char current) {
+        int digit = Character.digit(current, 16);
+        if (digit < 0) {
+            malformed = true;
+            return;
+        }
+        unicodeValue = unicodeValue * 16 + digit;
+        unicodeDigits += 1;
+        if (unicodeDigits == 4) {
+            lexemeState = LEXEME_STRING;
+            appendStringChar((char) unicodeValue);
+        }
+    }
+
+    private void appendStringChar(char current) {
+        if (lexeme.length() >= maxStringChars) {
+            if (lexemeIsKey) {
+                lexemeTruncated = true;
+                return;
+            }
+            visitor.onString(lexeme, false, depth, containerKey(), false);
+            lexeme.delete(0, lexeme.length() - carryChars);
+        }
+        lexeme.append(current);
+    }
+
+    private void endString() {
+        lexemeState = LEXEME_NONE;
+        if (lexemeIsKey) {
+            pendingKey = lexemeTruncated ? "" : lexeme.toString();
+            visitor.onString(lexeme, true, depth, containerKey(), !lexemeTruncated);
+            expect = EXPECT_COLON;
+            return;
+        }
+        visitor.onString(lexeme, false, depth, containerKey(), true);
+        afterValue();
+    }
+
+    private void endScalar() {
+        lexemeState = LEXEME_NONE;
+        if (!isValidScalar(lexeme)) {
+            malformed = true;
+            return;
+        }
+        afterValue();
+    }
+
+    private void requireValue() {
+        if (expect != EXPECT_VALUE && expect != EXPECT_VALUE_OR_END) {
+            malformed = true;
+        }
+    }
+
+    private void afterValue() {
+        expect = depth == 0 ? EXPECT_NOTHING : EXPECT_COMMA_OR_END;
+    }
+
+    private void push(char container) {
+        if (malformed) {
+            return;
+        }
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            containerKeys = Arrays.copyOf(containerKeys, depth * 2);
+        }
+        boolean parentIsObject = depth > 0 && containers[depth - 1] == OBJECT;
+        containerKeys[depth] = parentIsObject ? pendingKey : null;
+        containers[depth] = container;
+        depth += 1;
+        pendingKey = null;
+    }
+
+    private void closeContainer(char container) {
+        if (depth == 0 || containers[depth - 1] != container) {
+            malformed = true;
+            return;
+        }
+        boolean emptyAllowed = container == OBJECT ? expect == EXPECT_KEY_OR_END : expect == EXPECT_VALUE_OR_END;
+        if (!emptyAllowed && expect != EXPECT_COMMA_OR_END) {
+            malformed = true;
+            return;
+        }
+        depth -= 1;
+        containerKeys[depth] = null;
+        afterValue();
+    }
+
+    private String containerKey() {
+        return depth == 0 ? null : containerKeys[depth - 1];
+    }
+
+    private static boolean isValidScalar(CharSequence value) {
+        String scalar = value.toString();
+        if ("true".equals(scalar) || "false".equals(scalar) || "null".equals(scalar)) {
+            return true;
+        }
+        char first = scalar.charAt(0);
+        return first == '-' || (first >= '0' && first <= '9');
+    }
+
+    private static boolean isScalarChar(char value) {
+        return (value >= 'a' && value <= 'z')
+            || (value >= 'A' && value <= 'Z')
+            || (value >= '0' && value <= '9')
+            || value == '-'
+            || value == '+'
+            || value == '.';
+    }
+
+    private static boolean isWhitespace(char value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\r';
+    }
+
+    public interface Visitor {
+        void onString(CharSequence value, boolean key, int depth, String containerKey, boolean complete);
+    }
+}
@@ -0,0 +1,127 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public class LexicalRegionIndex {
+    private static final LexicalRegionIndex EMPTY = new Builder().build();
+
+    private final int[][] starts;
+    private final int[][] ends;
+
+    private LexicalRegionIndex(int[][] starts, int[][] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static LexicalRegionIndex empty() {
+        return EMPTY;
+    }
+
+    public boolean contains(RegionKind kind, int offset) {
+        return indexOf(kind, offset) >= 0;
+    }
+
+    public int indexOf(RegionKind kind, int offset) {
+        int[] kindStarts = starts[kind.ordinal()];
+        int low = 0;
+        int high = kindStarts.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (kindStarts[middle] <= offset) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return candidate >= 0 && offset < ends[kind.ordinal()][candidate] ? candidate : -1;
+    }
+
+    public int count(RegionKind kind) {
+        return starts[kind.ordinal()].length;
+    }
+
+    public int start(RegionKind kind, int index) {
+        return starts[kind.ordinal()][index];
+    }
+
+    public int end(RegionKind kind, int index) {
+        return ends[kind.ordinal()][index];
+    }
+
+    public boolean isEmpty() {
+        for (int[] kindStarts : starts) {
+            if (kindStarts.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public enum RegionKind {
+        REGEX_LITERAL,
+        COMMENT,
+        STRING,
+        TEMPLATE,
+        ATTRIBUTE_VALUE
+    }
+
+    public static class Builder {
+        private final int[][] starts;
+        private final int[][] ends;
+        private final int[] sizes;
+
+        public Builder() {
+            int kindCount = RegionKind.values().length;
+            this.starts = new int[kindCount][16];
+            this.ends = new int[kindCount][16];
+            this.sizes = new int[kindCount];
+        }
+
+        public Builder add(RegionKind kind, int startInclusive, int endExclusive) {
+            if (kind == null || startInclusive < 0 || endExclusive <= startInclusive) {
+                return this;
+            }
+            int index = kind.ordinal();
+            if (sizes[index] == starts[index].length) {
+                starts[index] = Arrays.copyOf(starts[index], sizes[index] * 2);
+                ends[index] = Arrays.copyOf(ends[index], sizes[index] * 2);
+            }
+            starts[index][sizes[index]] = startInclusive;
+            ends[index][sizes[index]] = endExclusive;
+            sizes[index] += 1;
+            return this;
+        }
+
+        public LexicalRegionIndex build() {
+            int kindCount = sizes.length;
+            int[][] mergedStarts = new int[kindCount][];
+            int[][] mergedEnds = new int[kindCount][];
+            for (int kind = 0; kind < kindCount; kind++) {
+                long[] packed = new long[sizes[kind]];
+                for (int i = 0; i < sizes[kind]; i++) {
+                    packed[i] = ((long) starts[kind][i] << 32) | (ends[kind][i] & 0xFFFFFFFFL);
+                }
+                Arrays.sort(packed);
+                int[] kindStarts = new int[packed.length];
+                int[] kindEnds = new int[packed.length];
+                int count = 0;
+                for (long range : packed) {
+                    int start = (int) (range >>> 32);
+                    int end = (int) range;
+                    if (count > 0 && start <= kindEnds[count - 1]) {
+                        kindEnds[count - 1] = Math.max(kindEnds[count - 1], end);
+                        continue;
+                    }
+                    kindStarts[count] = start;
+                    kindEnds[count] = end;
+                    count += 1;
+                }
+                mergedStarts[kind] = Arrays.copyOf(kindStarts, count);
+                mergedEnds[kind] = Arrays.copyOf(kindEnds, count);
+            }
+            return new LexicalRegionIndex(mergedStarts, mergedEnds);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+public class NormalizationContext {
+    private static final String[] NO_SEGMENTS = new String[0];
+
+    private final String baseUrl;
+    private final URI baseUri;
+    private final String authority;
+    private final String[] directorySegments;
+
+    NormalizationContext(String baseUrl, String authority, String[] directorySegments) {
+        this.baseUrl = baseUrl;
+        this.baseUri = parseUri(baseUrl);
+        this.authority = authority;
+        this.directorySegments = directorySegments == null ? NO_SEGMENTS : directorySegments;
+    }
+
+    public static NormalizationContext of(String baseUrl) {
+        return UriReferenceResolver.prepare(baseUrl);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public boolean isResolvable() {
+        return authority != null;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public int getDirectorySegmentCount() {
+        return directorySegments.length;
+    }
+
+    public String getDirectorySegment(int index) {
+        return directorySegments[index];
+    }
+
+    private static URI parseUri(String value) {
+        try {
+            return new URI(value == null ? "" : value);
+        } catch (URISyntaxException ex) {
+            return null;
+        }
+    }
+}
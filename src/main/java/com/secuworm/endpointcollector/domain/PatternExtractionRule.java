@@ -0,0 +1,51 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+public class PatternExtractionRule implements ExtractionRule {
+    private final String name;
+    private final Pattern pattern;
+    private final int valueGroup;
+    private final String matchType;
+    private final Predicate<String> contentTypeFilter;
+
+    public PatternExtractionRule(String name, Pattern pattern, int valueGroup, String matchType, Predicate<String> contentTypeFilter) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("rule name is required");
+        }
+        if (pattern == null) {
+            throw new IllegalArgumentException("rule pattern is required");
+        }
+        this.name = name;
+        this.pattern = pattern;
+        this.valueGroup = Math.max(0, valueGroup);
+        this.matchType = matchType;
+        this.contentTypeFilter = contentTypeFilter == null ? contentType -> true : contentTypeFilter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public int getValueGroup() {
+        return valueGroup;
+    }
+
+    @Override
+    public String getMatchType() {
+        return matchType;
+    }
+
+    @Override
+    public boolean appliesTo(String contentType) {
+        return contentTypeFilter.test(contentType == null ? "" : contentType);
+    }
+}
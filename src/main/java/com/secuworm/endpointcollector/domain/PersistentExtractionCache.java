@@ -0,0 +1,292 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PersistentExtractionCache implements AutoCloseable {
+    public static final String FILE_NAME = "extraction-cache.bin";
+
+    private static final int MAGIC = 0x4C524443;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_PREFIX_BYTES = 4;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private final Path file;
+    private final long maxBytes;
+    private final Map<ExtractionCache.Key, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private FileChannel channel;
+    private long hits;
+    private long misses;
+
+    private PersistentExtractionCache(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = Math.max(HEADER_BYTES + RECORD_PREFIX_BYTES, maxBytes);
+    }
+
+    public static PersistentExtractionCache open(Path directory, long maxBytes) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory is required");
+        }
+        Files.createDirectories(directory);
+        PersistentExtractionCache cache = new PersistentExtractionCache(directory.resolve(FILE_NAME), maxBytes);
+        cache.load();
+        return cache;
+    }
+
+    public synchronized List<EndpointCandidate> get(ExtractionCache.Key key, long version, String sourceUrl) {
+        Entry entry = channel == null || key == null ? null : index.get(key);
+        if (entry == null || entry.version != version) {
+            misses += 1;
+            return null;
+        }
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(readRecord(entry.offset, entry.length)));
+            readKey(input);
+            input.readLong();
+            int count = input.readInt();
+            List<EndpointCandidate> candidates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String rawValue = input.readUTF();
+                String contentType = readNullable(input);
+                String matchType = readNullable(input);
+                String origin = input.readUTF();
+                candidates.add(new EndpointCandidate(rawValue, sourceUrl, contentType, matchType, origin));
+            }
+            hits += 1;
+            return candidates;
+        } catch (IOException ex) {
+            index.remove(key);
+            misses += 1;
+            return null;
+        }
+    }
+
+    public synchronized void put(ExtractionCache.Key key, long version, List<EndpointCandidate> candidates) throws IOException {
+        if (channel == null || key == null || candidates == null) {
+            return;
+        }
+        Entry existing = index.get(key);
+        if (existing != null && existing.version == version) {
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = encode(key, version, candidates);
+        } catch (UTFDataFormatException ex) {
+            return;
+        }
+        if (payload.length > MAX_RECORD_BYTES || RECORD_PREFIX_BYTES + payload.length > maxBytes - HEADER_BYTES) {
+            return;
+        }
+        long offset = channel.size();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX_BYTES + payload.length);
+        record.putInt(payload.length).put(payload).flip();
+        writeFully(channel, record, offset);
+        index.put(key, new Entry(offset, payload.length, version));
+        if (channel.size() > maxBytes) {
+            compact(maxBytes - maxBytes / 4);
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long sizeInBytes() throws IOException {
+        return channel == null ? 0L : channel.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+            channel = null;
+            index.clear();
+        }
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!hasValidHeader()) {
+            channel.truncate(0L);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(channel, header, 0L);
+            return;
+        }
+        long offset = HEADER_BYTES;
+        long size = channel.size();
+        ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX_BYTES);
+        while (offset + RECORD_PREFIX_BYTES <= size) {
+            prefix.clear();
+            if (!readFully(channel, prefix, offset)) {
+                break;
+            }
+            int length = prefix.getInt(0);
+            if (length <= 0 || length > MAX_RECORD_BYTES || offset + RECORD_PREFIX_BYTES + length > size) {
+                break;
+            }
+            try {
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(readRecord(offset, length)));
+                ExtractionCache.Key key = readKey(input);
+                index.put(key, new Entry(offset, length, input.readLong()));
+            } catch (IOException ex) {
+                break;
+            }
+            offset += RECORD_PREFIX_BYTES + length;
+        }
+        if (offset < size) {
+            channel.truncate(offset);
+        }
+        if (offset > maxBytes) {
+            compact(maxBytes - maxBytes / 4);
+        }
+    }
+
+    private boolean hasValidHeader() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        return readFully(channel, header, 0L) && header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION;
+    }
+
+    private void compact(long targetBytes) throws IOException {
+        List<ExtractionCache.Key> keys = new ArrayList<>(index.keySet());
+        long retainedBytes = HEADER_BYTES;
+        int firstRetained = keys.size();
+        while (firstRetained > 0) {
+            Entry entry = index.get(keys.get(firstRetained - 1));
+            if (retainedBytes + RECORD_PREFIX_BYTES + entry.length > targetBytes) {
+                break;
+            }
+            retainedBytes += RECORD_PREFIX_BYTES + entry.length;
+            firstRetained -= 1;
+        }
+        Path compacted = file.resolveSibling(file.getFileName() + COMPACTION_SUFFIX);
+        Map<ExtractionCache.Key, Entry> rewritten = new LinkedHashMap<>();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(target, header, 0L);
+            long offset = HEADER_BYTES;
+            for (int i = firstRetained; i < keys.size(); i++) {
+                Entry entry = index.get(keys.get(i));
+                ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX_BYTES + entry.length);
+                record.putInt(entry.length).put(readRecord(entry.offset, entry.length)).flip();
+                writeFully(target, record, offset);
+                rewritten.put(keys.get(i), new Entry(offset, entry.length, entry.version));
+                offset += RECORD_PREFIX_BYTES + entry.length;
+            }
+            target.force(false);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        index.putAll(rewritten);
+    }
+
+    private byte[] readRecord(long offset, int length) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, offset + RECORD_PREFIX_BYTES)) {
+            throw new IOException("truncated cache record at " + offset);
+        }
+        return payload.array();
+    }
+
+    private static byte[] encode(ExtractionCache.Key key, long version, List<EndpointCandidate> candidates) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + candidates.size() * 48);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeLong(key.getHash());
+        output.writeInt(key.getLength());
+        output.writeUTF(key.getContentType());
+        output.writeLong(version);
+        output.writeInt(candidates.size());
+        for (EndpointCandidate candidate : candidates) {
+            output.writeUTF(candidate.getRawValue() == null ? "" : candidate.getRawValue());
+            writeNullable(output, candidate.getContentType());
+            writeNullable(output, candidate.getMatchType());
+            output.writeUTF(candidate.getOrigin());
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static ExtractionCache.Key readKey(DataInputStream input) throws IOException {
+        long hash = input.readLong();
+        int length = input.readInt();
+        return ExtractionCache.Key.of(hash, length, input.readUTF());
+    }
+
+    private static void writeNullable(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += target.write(buffer, offset);
+        }
+    }
+
+    private static boolean readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static class Entry {
+        private final long offset;
+        private final int length;
+        private final long version;
+
+        private Entry(long offset, int length, long version) {
+            this.offset = offset;
+            this.length = length;
+            this.version = version;
+        }
+    }
+}
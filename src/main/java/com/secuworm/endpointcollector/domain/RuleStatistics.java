@@ -0,0 +1,29 @@
+package com.secuworm.endpointcollector.domain;
+
+public class RuleStatistics {
+    private final long executions;
+    private final long hits;
+    private final long nanos;
+
+    public RuleStatistics(long executions, long hits, long nanos) {
+        this.executions = executions;
+        this.hits = hits;
+        this.nanos = nanos;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getMillis() {
+        return nanos / 1_000_000.0;
+    }
+}
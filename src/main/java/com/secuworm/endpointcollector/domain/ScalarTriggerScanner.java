@@ -0,0 +1,22 @@
+package com.secuworm.endpointcollector.domain;
+
+public class ScalarTriggerScanner implements TriggerScanner {
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void mark(CharSequence text, int from, int to, TriggerSet triggers, long[] bitmap) {
+        for (int wordStart = from, word = 0; wordStart < to; wordStart += Long.SIZE, word++) {
+            int wordEnd = Math.min(to, wordStart + Long.SIZE);
+            long bits = 0L;
+            for (int position = wordStart; position < wordEnd; position++) {
+                if (triggers.matches(text.charAt(position))) {
+                    bits |= 1L << (position - wordStart);
+                }
+            }
+            bitmap[word] = bits;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.secuworm.endpointcollector.domain;
 
+import java.util.Map;
+
 public class ScanResult {
     private final int totalItems;
     private final int processedItems;
@@ -7,6 +9,10 @@ public class ScanResult {
     private final int uniqueEndpoints;
     private final int errorCount;
     private final long durationMs;
+    private final long patternPhaseMs;
+    private final long astPhaseMs;
+    private final int astEnrichedItems;
+    private final ExtractionStatistics extractionStatistics;
 
     public ScanResult(
         int totalItems,
@@ -14,7 +20,23 @@ public class ScanResult {
         int totalCandidates,
         int uniqueEndpoints,
         int errorCount,
-        long durationMs
+        long durationMs,
+        ExtractionStatistics extractionStatistics
+    ) {
+        this(totalItems, processedItems, totalCandidates, uniqueEndpoints, errorCount, durationMs, durationMs, 0L, 0, extractionStatistics);
+    }
+
+    public ScanResult(
+        int totalItems,
+        int processedItems,
+        int totalCandidates,
+        int uniqueEndpoints,
+        int errorCount,
+        long durationMs,
+        long patternPhaseMs,
+        long astPhaseMs,
+        int astEnrichedItems,
+        ExtractionStatistics extractionStatistics
     ) {
         this.totalItems = totalItems;
         this.processedItems = processedItems;
@@ -22,6 +44,21 @@ public class ScanResult {
         this.uniqueEndpoints = uniqueEndpoints;
         this.errorCount = errorCount;
         this.durationMs = durationMs;
+        this.patternPhaseMs = patternPhaseMs;
+        this.astPhaseMs = astPhaseMs;
+        this.astEnrichedItems = astEnrichedItems;
+        this.extractionStatistics = extractionStatistics == null ? ExtractionStatistics.empty() : extractionStatistics;
+    }
+
+    public ScanResult(
+        int totalItems,
+        int processedItems,
+        int totalCandidates,
+        int uniqueEndpoints,
+        int errorCount,
+        long durationMs
+    ) {
+        this(totalItems, processedItems, totalCandidates, uniqueEndpoints, errorCount, durationMs, null);
     }
 
     public int getTotalItems() {
@@ -47,4 +84,36 @@ public class ScanResult {
     public long getDurationMs() {
         return durationMs;
     }
+
+    public long getPatternPhaseMs() {
+        return patternPhaseMs;
+    }
+
+    public long getAstPhaseMs() {
+        return astPhaseMs;
+    }
+
+    public int getAstEnrichedItems() {
+        return astEnrichedItems;
+    }
+
+    public ExtractionStatistics getExtractionStatistics() {
+        return extractionStatistics;
+    }
+
+    public long getCacheHits() {
+        return extractionStatistics.getCacheHits();
+    }
+
+    public long getCacheMisses() {
+        return extractionStatistics.getCacheMisses();
+    }
+
+    public long getDegradedItems() {
+        return extractionStatistics.getDegradedItems();
+    }
+
+    public Map<String, Long> getPatternAborts() {
+        return extractionStatistics.getPatternAborts();
+    }
 }
@@ -0,0 +1,83 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+public class SlidingCharWindow {
+    private final Reader reader;
+    private final char[] buffer;
+    private final int overlapChars;
+    private final int contextChars;
+    private long baseOffset;
+    private int filled;
+    private int scanFrom;
+    private int scanTo;
+    private boolean started;
+    private boolean endOfInput;
+
+    public SlidingCharWindow(Reader reader, int windowChars, int overlapChars, int contextChars) {
+        if (reader == null) {
+            throw new IllegalArgumentException("reader must not be null");
+        }
+        if (overlapChars < 0 || contextChars < 0 || windowChars <= overlapChars + contextChars) {
+            throw new IllegalArgumentException("window must be larger than overlap and context");
+        }
+        this.reader = reader;
+        this.buffer = new char[windowChars];
+        this.overlapChars = overlapChars;
+        this.contextChars = contextChars;
+    }
+
+    public boolean next() throws IOException {
+        if (started) {
+            if (endOfInput) {
+                return false;
+            }
+            int keepFrom = scanTo - contextChars;
+            System.arraycopy(buffer, keepFrom, buffer, 0, filled - keepFrom);
+            baseOffset += keepFrom;
+            filled -= keepFrom;
+            scanFrom = contextChars;
+        }
+        started = true;
+        fill();
+        scanTo = endOfInput ? filled : filled - overlapChars;
+        return scanFrom < scanTo;
+    }
+
+    public CharSequence text() {
+        return CharBuffer.wrap(buffer, 0, filled);
+    }
+
+    public long getBaseOffset() {
+        return baseOffset;
+    }
+
+    public int getScanFrom() {
+        return scanFrom;
+    }
+
+    public int getScanTo() {
+        return scanTo;
+    }
+
+    public int length() {
+        return filled;
+    }
+
+    public boolean isLast() {
+        return endOfInput;
+    }
+
+    private void fill() throws IOException {
+        while (filled < buffer.length) {
+            int read = reader.read(buffer, filled, buffer.length - filled);
+            if (read < 0) {
+                endOfInput = true;
+                return;
+            }
+            filled += read;
+        }
+    }
+}
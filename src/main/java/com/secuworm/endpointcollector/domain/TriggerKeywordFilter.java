@@ -0,0 +1,188 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+public class TriggerKeywordFilter {
+    public static final int ALWAYS_ENABLED_FAMILIES = familyBit(FusedEndpointScanner.ABSOLUTE_URL)
+        | familyBit(FusedEndpointScanner.RELATIVE_URL)
+        | familyBit(FusedEndpointScanner.DOT_RELATIVE_URL);
+    public static final int ALL_FAMILIES = (1 << FusedEndpointScanner.FAMILY_COUNT) - 1;
+
+    private static final int ALPHABET_SIZE = 128;
+    private static final char NO_FOLLOW = 0;
+    private static final Trigger[] TRIGGERS = new Trigger[]{
+        new Trigger("fetch", '(', FusedEndpointScanner.FETCH_CALL),
+        new Trigger("axios", '.', FusedEndpointScanner.AXIOS_METHOD),
+        new Trigger("axios", '(', FusedEndpointScanner.AXIOS_CONFIG_URL),
+        new Trigger(".open", '(', FusedEndpointScanner.XHR_OPEN),
+        new Trigger("url", '(', FusedEndpointScanner.NEW_URL),
+        new Trigger("app", '.', FusedEndpointScanner.FRAMEWORK_ROUTE),
+        new Trigger("router", '.', FusedEndpointScanner.FRAMEWORK_ROUTE),
+        new Trigger("fastify", '.', FusedEndpointScanner.FRAMEWORK_ROUTE),
+        new Trigger("fastify", '.', FusedEndpointScanner.FASTIFY_ROUTE_OBJECT),
+        new Trigger("<route", NO_FOLLOW, FusedEndpointScanner.REACT_ROUTE),
+        new Trigger("path", ':', FusedEndpointScanner.ROUTE_OBJECT_PATH)
+    };
+    private static final Automaton AUTOMATON = Automaton.build(TRIGGERS);
+
+    public int detectEnabledFamilies(CharSequence text) {
+        int enabled = ALWAYS_ENABLED_FAMILIES;
+        if (text == null) {
+            return enabled;
+        }
+        int length = text.length();
+        int state = 0;
+        for (int position = 0; position < length && enabled != ALL_FAMILIES; position++) {
+            char current = text.charAt(position);
+            if (current >= ALPHABET_SIZE) {
+                state = 0;
+                continue;
+            }
+            state = AUTOMATON.next(state, foldCase(current));
+            for (int triggerIndex : AUTOMATON.outputs(state)) {
+                Trigger trigger = TRIGGERS[triggerIndex];
+                if (hasFollowCharacter(text, position + 1, trigger.follow)) {
+                    enabled |= familyBit(trigger.family);
+                }
+            }
+        }
+        return enabled;
+    }
+
+    public static int familyBit(int family) {
+        return 1 << family;
+    }
+
+    public static boolean isEnabled(int enabledFamilies, int family) {
+        return (enabledFamilies & familyBit(family)) != 0;
+    }
+
+    public static int countDisabled(int enabledFamilies) {
+        return FusedEndpointScanner.FAMILY_COUNT - Integer.bitCount(enabledFamilies & ALL_FAMILIES);
+    }
+
+    private boolean hasFollowCharacter(CharSequence text, int index, char follow) {
+        if (follow == NO_FOLLOW) {
+            return true;
+        }
+        int length = text.length();
+        while (index < length && isRegexSpace(text.charAt(index))) {
+            index += 1;
+        }
+        return index < length && text.charAt(index) == follow;
+    }
+
+    private static char foldCase(char value) {
+        if (value >= 'A' && value <= 'Z') {
+            return (char) (value + ('a' - 'A'));
+        }
+        return value;
+    }
+
+    private boolean isRegexSpace(char value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\u000B' || value == '\f' || value == '\r';
+    }
+
+    private static class Trigger {
+        private final String keyword;
+        private final char follow;
+        private final int family;
+
+        private Trigger(String keyword, char follow, int family) {
+            this.keyword = keyword;
+            this.follow = follow;
+            this.family = family;
+        }
+    }
+
+    private static class Automaton {
+        private final int[][] transitions;
+        private final int[][] outputs;
+
+        private Automaton(int[][] transitions, int[][] outputs) {
+            this.transitions = transitions;
+            this.outputs = outputs;
+        }
+
+        private int next(int state, char value) {
+            return transitions[state][value];
+        }
+
+        private int[] outputs(int state) {
+            return outputs[state];
+        }
+
+        private static Automaton build(Trigger[] triggers) {
+            List<int[]> goTo = new ArrayList<>();
+            List<List<Integer>> matches = new ArrayList<>();
+            goTo.add(newRow());
+            matches.add(new ArrayList<>());
+
+            for (int triggerIndex = 0; triggerIndex < triggers.length; triggerIndex++) {
+                String keyword = triggers[triggerIndex].keyword;
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    char value = keyword.charAt(i);
+                    if (goTo.get(state)[value] < 0) {
+                        goTo.get(state)[value] = goTo.size();
+                        goTo.add(newRow());
+                        matches.add(new ArrayList<>());
+                    }
+                    state = goTo.get(state)[value];
+                }
+                matches.get(state).add(triggerIndex);
+            }
+
+            int stateCount = goTo.size();
+            int[] failure = new int[stateCount];
+            int[][] transitions = new int[stateCount][];
+            Queue<Integer> queue = new ArrayDeque<>();
+            transitions[0] = new int[ALPHABET_SIZE];
+            for (int value = 0; value < ALPHABET_SIZE; value++) {
+                int child = goTo.get(0)[value];
+                if (child < 0) {
+                    transitions[0][value] = 0;
+                    continue;
+                }
+                transitions[0][value] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                matches.get(state).addAll(matches.get(failure[state]));
+                transitions[state] = new int[ALPHABET_SIZE];
+                for (int value = 0; value < ALPHABET_SIZE; value++) {
+                    int child = goTo.get(state)[value];
+                    if (child < 0) {
+                        transitions[state][value] = transitions[failure[state]][value];
+                        continue;
+                    }
+                    transitions[state][value] = child;
+                    failure[child] = transitions[failure[state]][value];
+                    queue.add(child);
+                }
+            }
+
+            int[][] outputs = new int[stateCount][];
+            for (int state = 0; state < stateCount; state++) {
+                List<Integer> stateMatches = matches.get(state);
+                outputs[state] = new int[stateMatches.size()];
+                for (int i = 0; i < stateMatches.size(); i++) {
+                    outputs[state][i] = stateMatches.get(i);
+                }
+            }
+            return new Automaton(transitions, outputs);
+        }
+
+        private static int[] newRow() {
+            int[] row = new int[ALPHABET_SIZE];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.secuworm.endpointcollector.domain;
+
+public interface TriggerScanner {
+    String getName();
+
+    void mark(CharSequence text, int from, int to, TriggerSet triggers, long[] bitmap);
+}
@@ -0,0 +1,65 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public final class TriggerScanners {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_SCANNER_CLASS = "com.secuworm.endpointcollector.domain.VectorTriggerScanner";
+    private static final String SELF_CHECK_TEXT = "<a href=\"/x\">Fetch('./y')</a> \u0130\u012F\u010F\u212A axios.get(`HTTP://h/p`) Router.path new\tURL ";
+    private static final TriggerScanner SCALAR = new ScalarTriggerScanner();
+    private static final TriggerScanner VECTOR = loadVectorScanner();
+
+    private TriggerScanners() {
+    }
+
+    public static TriggerScanner scalar() {
+        return SCALAR;
+    }
+
+    public static TriggerScanner vector() {
+        return VECTOR;
+    }
+
+    public static TriggerScanner preferred() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+
+    private static TriggerScanner loadVectorScanner() {
+        if (!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            return null;
+        }
+        try {
+            Object instance = Class.forName(VECTOR_SCANNER_CLASS).getDeclaredConstructor().newInstance();
+            if (!(instance instanceof TriggerScanner)) {
+                return null;
+            }
+            TriggerScanner scanner = (TriggerScanner) instance;
+            return agreesWithScalar(scanner) ? scanner : null;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static boolean agreesWithScalar(TriggerScanner scanner) {
+        StringBuilder probe = new StringBuilder();
+        while (probe.length() < 300) {
+            probe.append(SELF_CHECK_TEXT);
+        }
+        TriggerSet triggers = new TriggerSet('/', '.', '<', 'h', 'f', 'a', 'n', 'r', 'p');
+        int words = (probe.length() + Long.SIZE - 1) / Long.SIZE;
+        for (int from = 0; from < 70; from += 7) {
+            long[] expected = new long[words];
+            long[] actual = new long[words];
+            SCALAR.mark(probe, from, probe.length(), triggers, expected);
+            scanner.mark(probe, from, probe.length(), triggers, actual);
+            if (!Arrays.equals(expected, actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.secuworm.endpointcollector.domain;
+
+public class TriggerSet {
+    public static final char CASE_FOLD_BIT = 0x20;
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final char[] foldedChars;
+    private final boolean[] table = new boolean[ASCII_LIMIT];
+
+    public TriggerSet(char... triggers) {
+        StringBuilder distinct = new StringBuilder();
+        for (char trigger : triggers) {
+            char folded = fold(trigger);
+            if (folded >= ASCII_LIMIT) {
+                throw new IllegalArgumentException("trigger characters must be ASCII");
+            }
+            if (!table[folded]) {
+                table[folded] = true;
+                distinct.append(folded);
+            }
+        }
+        this.foldedChars = distinct.toString().toCharArray();
+    }
+
+    public static char fold(char value) {
+        return (char) (value | CASE_FOLD_BIT);
+    }
+
+    public boolean matches(char value) {
+        char folded = fold(value);
+        return folded < ASCII_LIMIT && table[folded];
+    }
+
+    public int size() {
+        return foldedChars.length;
+    }
+
+    public char foldedChar(int index) {
+        return foldedChars[index];
+    }
+}
@@ -0,0 +1,392 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.util.Arrays;
+
+public class UriReferenceResolver {
+    public static final int RESOLVED = 0;
+    public static final int UNCHANGED = 1;
+    public static final int REJECTED = 2;
+    public static final int UNSUPPORTED = 3;
+
+    private static final int PATH = 1;
+    private static final int QUERY = 2;
+    private static final int BRACE = 4;
+    private static final byte[] CHARACTER_CLASSES = createCharacterClasses();
+    private static final int DEFAULT_HTTP_PORT = 80;
+    private static final int DEFAULT_HTTPS_PORT = 443;
+    private static final int MAX_PORT_DIGITS = 5;
+    private static final int MAX_PORT = 65535;
+
+    private final ThreadLocal<ResolverScratch> scratch = ThreadLocal.withInitial(ResolverScratch::new);
+
+    public int resolve(CharSequence reference, CharSequence baseUrl, StringBuilder target) {
+        return resolve(reference, prepare(baseUrl == null ? null : baseUrl.toString()), target);
+    }
+
+    public int resolve(CharSequence reference, NormalizationContext context, StringBuilder target) {
+        if (reference == null || reference.length() == 0) {
+            return UNSUPPORTED;
+        }
+        int delimiter = indexOfAny(reference, 0, reference.length(), ":/?#");
+        if (delimiter >= 0 && reference.charAt(delimiter) == ':') {
+            if (!isHttpUrl(reference)) {
+                return REJECTED;
+            }
+            return parseAbsolute(reference, scratch.get().candidate, true) ? UNCHANGED : UNSUPPORTED;
+        }
+        if (startsWith(reference, 0, "//")) {
+            return REJECTED;
+        }
+        int length = reference.length();
+        int queryStart = indexOfAny(reference, 0, length, "?#");
+        int pathEnd = queryStart < 0 ? length : queryStart;
+        if (pathEnd == 0 || !hasValidCharacters(reference, 0, pathEnd, PATH | BRACE)) {
+            return UNSUPPORTED;
+        }
+        if (!hasValidSuffix(reference, pathEnd, true)) {
+            return UNSUPPORTED;
+        }
+        if (context == null || !context.isResolvable()) {
+            return UNSUPPORTED;
+        }
+
+        target.append(context.getAuthority());
+        int pathStart = target.length();
+        removeDotSegments(target, scratch.get(), reference.charAt(0) == '/' ? null : context, reference, pathEnd);
+        if (target.length() == pathStart) {
+            target.append('/');
+        }
+        appendSuffix(target, reference, pathEnd);
+        return RESOLVED;
+    }
+
+    static NormalizationContext prepare(String baseUrl) {
+        ParsedUrl base = new ParsedUrl();
+        if (baseUrl == null || !isHttpUrl(baseUrl) || !parseAbsolute(baseUrl, base, false) || base.pathEnd == base.pathStart) {
+            return new NormalizationContext(baseUrl, null, null);
+        }
+        StringBuilder authority = new StringBuilder(base.hostEnd + 8);
+        authority.append(base.https ? "https" : "http").append("://").append(baseUrl, base.hostStart, base.hostEnd);
+        if (base.port > 0 && base.port != (base.https ? DEFAULT_HTTPS_PORT : DEFAULT_HTTP_PORT)) {
+            authority.append(':').append(base.port);
+        }
+        ResolverScratch buffers = new ResolverScratch();
+        StringBuilder directory = new StringBuilder(base.pathEnd - base.pathStart);
+        int directoryEnd = lastIndexOf(baseUrl, base.pathStart, base.pathEnd, '/') + 1;
+        appendSegments(directory, buffers, baseUrl, base.pathStart, directoryEnd, 0);
+        String[] segments = new String[buffers.segmentCount];
+        for (int i = 0; i < segments.length; i++) {
+            int segmentEnd = i + 1 < segments.length ? buffers.segmentStarts[i + 1] : directory.length();
+            segments[i] = directory.substring(buffers.segmentStarts[i] + 1, segmentEnd);
+        }
+        return new NormalizationContext(baseUrl, authority.toString(), segments);
+    }
+
+    private static boolean parseAbsolute(CharSequence value, ParsedUrl parsed, boolean allowBraces) {
+        int schemeEnd = indexOf(value, 0, value.length(), ':');
+        parsed.https = schemeEnd == 5;
+        int hostStart = schemeEnd + 3;
+        int hostEnd = parseHost(value, hostStart);
+        if (hostEnd < 0) {
+            return false;
+        }
+        int length = value.length();
+        int position = hostEnd;
+        parsed.port = -1;
+        if (position < length && value.charAt(position) == ':') {
+            int digitsEnd = position + 1;
+            int port = 0;
+            while (digitsEnd < length && isDigit(value.charAt(digitsEnd)) && digitsEnd - position <= MAX_PORT_DIGITS) {
+                port = port * 10 + (value.charAt(digitsEnd) - '0');
+                digitsEnd += 1;
+            }
+            if (digitsEnd == position + 1 || port > MAX_PORT || (digitsEnd < length && indexOf("/?#", 0, 3, value.charAt(digitsEnd)) < 0)) {
+                return false;
+            }
+            parsed.port = port;
+            position = digitsEnd;
+        }
+        int pathEnd = indexOfAny(value, position, length, "?#");
+        if (pathEnd < 0) {
+            pathEnd = length;
+        }
+        int classes = allowBraces ? PATH | BRACE : PATH;
+        if (!hasValidCharacters(value, position, pathEnd, classes) || !hasValidSuffix(value, pathEnd, allowBraces)) {
+            return false;
+        }
+        parsed.hostStart = hostStart;
+        parsed.hostEnd = hostEnd;
+        parsed.pathStart = position;
+        parsed.pathEnd = pathEnd;
+        return true;
+    }
+
+    private static int parseHost(CharSequence value, int start) {
+        int length = value.length();
+        if (start >= length) {
+            return -1;
+        }
+        if (isDigit(value.charAt(start))) {
+            return parseIpv4(value, start);
+        }
+        int position = start;
+        int lastLabelStart = start;
+        while (position < length && isAlphanumeric(value.charAt(position))) {
+            lastLabelStart = position;
+            while (position < length && (isAlphanumeric(value.charAt(position)) || value.charAt(position) == '-')) {
+                position += 1;
+            }
+            if (value.charAt(position - 1) == '-') {
+                return -1;
+            }
+            if (position < length && value.charAt(position) == '.') {
+                position += 1;
+            } else {
+                break;
+            }
+        }
+        if (position < length && indexOf(":/?#", 0, 4, value.charAt(position)) < 0) {
+            return -1;
+        }
+        if (!isAsciiLetter(value.charAt(lastLabelStart))) {
+            return -1;
+        }
+        return position;
+    }
+
+    private static int parseIpv4(CharSequence value, int start) {
+        int length = value.length();
+        int position = start;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (position >= length || value.charAt(position) != '.') {
+                    return -1;
+                }
+                position += 1;
+            }
+            int digitsStart = position;
+            int number = 0;
+            while (position < length && isDigit(value.charAt(position)) && position - digitsStart < 3) {
+                number = number * 10 + (value.charAt(position) - '0');
+                position += 1;
+            }
+            int digits = position - digitsStart;
+            if (digits == 0 || number > 255 || (digits > 1 && value.charAt(digitsStart) == '0')) {
+                return -1;
+            }
+        }
+        if (position < length && indexOf(":/?#", 0, 4, value.charAt(position)) < 0) {
+            return -1;
+        }
+        return position;
+    }
+
+    private static void removeDotSegments(
+        StringBuilder target,
+        ResolverScratch buffers,
+        NormalizationContext directory,
+        CharSequence path,
+        int pathEnd
+    ) {
+        int pathOffset = target.length();
+        buffers.segmentCount = 0;
+        boolean trailingSlash = path.charAt(pathEnd - 1) == '/';
+        if (directory != null) {
+            for (int i = 0; i < directory.getDirectorySegmentCount(); i++) {
+                buffers.push(target.length());
+                target.append('/').append(directory.getDirectorySegment(i));
+            }
+        }
+        boolean lastWasDot = appendSegments(target, buffers, path, 0, pathEnd, pathOffset);
+        if ((trailingSlash || (directory != null && lastWasDot)) && buffers.segmentCount > 0) {
+            target.append('/');
+        }
+    }
+
+    private static boolean appendSegments(StringBuilder target, ResolverScratch buffers, CharSequence path, int from, int to, int pathOffset) {
+        boolean lastWasDot = false;
+        int segmentStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && path.charAt(i) != '/') {
+                continue;
+            }
+            int segmentLength = i - segmentStart;
+            if (segmentLength > 0) {
+                lastWasDot = false;
+                if (segmentLength == 1 && path.charAt(segmentStart) == '.') {
+                    lastWasDot = true;
+                } else if (segmentLength == 2 && path.charAt(segmentStart) == '.' && path.charAt(segmentStart + 1) == '.') {
+                    lastWasDot = true;
+                    if (buffers.segmentCount > 0) {
+                        buffers.segmentCount -= 1;
+                        target.setLength(buffers.segmentStarts[buffers.segmentCount]);
+                    } else {
+                        target.setLength(pathOffset);
+                    }
+                } else {
+                    buffers.push(target.length());
+                    target.append('/').append(path, segmentStart, i);
+                }
+            }
+            segmentStart = i + 1;
+        }
+        return lastWasDot;
+    }
+
+    private static void appendSuffix(StringBuilder target, CharSequence reference, int suffixStart) {
+        int length = reference.length();
+        if (suffixStart >= length) {
+            return;
+        }
+        int fragmentStart = indexOf(reference, suffixStart, length, '#');
+        if (reference.charAt(suffixStart) == '?') {
+            int queryEnd = fragmentStart < 0 ? length : fragmentStart;
+            if (queryEnd > suffixStart + 1) {
+                target.append(reference, suffixStart, queryEnd);
+            }
+        }
+        if (fragmentStart >= 0 && fragmentStart + 1 < length) {
+            target.append(reference, fragmentStart, length);
+        }
+    }
+
+    private static boolean hasValidSuffix(CharSequence value, int from, boolean allowBraces) {
+        int length = value.length();
+        if (from >= length) {
+            return true;
+        }
+        int fragmentStart = indexOf(value, from, length, '#');
+        int classes = allowBraces ? QUERY | BRACE : QUERY;
+        if (value.charAt(from) == '?') {
+            int queryEnd = fragmentStart < 0 ? length : fragmentStart;
+            if (!hasValidCharacters(value, from + 1, queryEnd, classes)) {
+                return false;
+            }
+        }
+        return fragmentStart < 0 || hasValidCharacters(value, fragmentStart + 1, length, classes);
+    }
+
+    private static boolean hasValidCharacters(CharSequence value, int from, int to, int classes) {
+        for (int i = from; i < to; i++) {
+            char current = value.charAt(i);
+            if (current == '%') {
+                if (i + 2 >= to || !isHexDigit(value.charAt(i + 1)) || !isHexDigit(value.charAt(i + 2))) {
+                    return false;
+                }
+                i += 2;
+                continue;
+            }
+            if (current >= 128 || (CHARACTER_CLASSES[current] & classes) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHttpUrl(CharSequence value) {
+        return startsWithIgnoreCase(value, "http://") || startsWithIgnoreCase(value, "https://");
+    }
+
+    private static boolean startsWith(CharSequence value, int offset, String prefix) {
+        if (value.length() - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (value.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithIgnoreCase(CharSequence value, String lowerPrefix) {
+        if (value.length() < lowerPrefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerPrefix.length(); i++) {
+            if (Character.toLowerCase(value.charAt(i)) != lowerPrefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence value, int from, int to, char expected) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == expected) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfAny(CharSequence value, int from, int to, String candidates) {
+        for (int i = from; i < to; i++) {
+            if (candidates.indexOf(value.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence value, int from, int to, char expected) {
+        for (int i = to - 1; i >= from; i--) {
+            if (value.charAt(i) == expected) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    private static boolean isDigit(char value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private static boolean isAsciiLetter(char value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z');
+    }
+
+    private static boolean isAlphanumeric(char value) {
+        return isAsciiLetter(value) || isDigit(value);
+    }
+
+    private static boolean isHexDigit(char value) {
+        return isDigit(value) || (value >= 'a' && value <= 'f') || (value >= 'A' && value <= 'F');
+    }
+
+    private static byte[] createCharacterClasses() {
+        byte[] classes = new byte[128];
+        for (char value = 0; value < 128; value++) {
+            if (isAlphanumeric(value) || "-_.!~*'():@&=+$,;/".indexOf(value) >= 0) {
+                classes[value] = (byte) (PATH | QUERY);
+            }
+        }
+        classes['?'] |= QUERY;
+        classes['{'] = BRACE;
+        classes['}'] = BRACE;
+        return classes;
+    }
+
+    private static class ParsedUrl {
+        private boolean https;
+        private int hostStart;
+        private int hostEnd;
+        private int port;
+        private int pathStart;
+        private int pathEnd;
+    }
+
+    private static class ResolverScratch {
+        private final ParsedUrl candidate = new ParsedUrl();
+        private int[] segmentStarts = new int[16];
+        private int segmentCount;
+
+        private void push(int offset) {
+            if (segmentCount == segmentStarts.length) {
+                segmentStarts = Arrays.copyOf(segmentStarts, segmentCount * 2);
+            }
+            segmentStarts[segmentCount] = offset;
+            segmentCount += 1;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.secuworm.endpointcollector.domain;
+
+import java.nio.charset.StandardCharsets;
+
+public class Utf8ByteSequence implements CharSequence {
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    public Utf8ByteSequence(byte[] bytes) {
+        this(bytes, 0, bytes == null ? 0 : bytes.length);
+    }
+
+    public Utf8ByteSequence(byte[] bytes, int offset, int length) {
+        byte[] source = bytes == null ? new byte[0] : bytes;
+        if (offset < 0 || length < 0 || offset + length > source.length) {
+            throw new IndexOutOfBoundsException("range [" + offset + ", " + (offset + length) + ") out of bounds for length " + source.length);
+        }
+        this.bytes = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+        }
+        byte value = bytes[offset + index];
+        if (value >= 0) {
+            return (char) value;
+        }
+        return decodeAt(offset + index);
+    }
+
+    @Override
+    public Utf8ByteSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+        return new Utf8ByteSequence(bytes, offset + start, end - start);
+    }
+
+    public boolean isAscii(int start, int end) {
+        for (int i = offset + start; i < offset + end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean continuesPreviousChar(int index) {
+        if (index <= 0 || index >= length || !isContinuation(bytes[offset + index])) {
+            return false;
+        }
+        return charAt(index) == charAt(index - 1);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private char decodeAt(int index) {
+        int lead = index;
+        while (lead > 0 && index - lead < 3 && isContinuation(bytes[lead])) {
+            lead -= 1;
+        }
+        int leadByte = bytes[lead] & 0xFF;
+        int sequenceLength;
+        int codePoint;
+        if (leadByte >= 0xC2 && leadByte <= 0xDF) {
+            sequenceLength = 2;
+            codePoint = leadByte & 0x1F;
+        } else if (leadByte >= 0xE0 && leadByte <= 0xEF) {
+            sequenceLength = 3;
+            codePoint = leadByte & 0x0F;
+        } else if (leadByte >= 0xF0 && leadByte <= 0xF4) {
+            sequenceLength = 4;
+            codePoint = leadByte & 0x07;
+        } else {
+            return REPLACEMENT_CHARACTER;
+        }
+        if (index >= lead + sequenceLength || lead + sequenceLength > bytes.length) {
+            return REPLACEMENT_CHARACTER;
+        }
+        for (int i = lead + 1; i < lead + sequenceLength; i++) {
+            if (!isContinuation(bytes[i])) {
+                return REPLACEMENT_CHARACTER;
+            }
+            codePoint = (codePoint << 6) | (bytes[i] & 0x3F);
+        }
+        if (!isWellFormed(codePoint, sequenceLength)) {
+            return REPLACEMENT_CHARACTER;
+        }
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return (char) codePoint;
+        }
+        if (index == lead + sequenceLength - 1) {
+            return Character.lowSurrogate(codePoint);
+        }
+        return Character.highSurrogate(codePoint);
+    }
+
+    private boolean isWellFormed(int codePoint, int sequenceLength) {
+        if (sequenceLength == 3 && (codePoint < 0x800 || (codePoint >= 0xD800 && codePoint <= 0xDFFF))) {
+            return false;
+        }
+        return sequenceLength != 4 || (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT && codePoint <= Character.MAX_CODE_POINT);
+    }
+
+    private boolean isContinuation(byte value) {
+        return (value & 0xC0) == 0x80;
+    }
+}
@@ -1,17 +1,65 @@
 package com.secuworm.endpointcollector.infra;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 public final class AppConfig {
     public static final int SCAN_BATCH_SIZE = 100;
+    public static final int REPOSITORY_UPSERT_BATCH_SIZE = 256;
     public static final String EXPORT_DEFAULT_FILENAME = "endpoints.csv";
+    public static final int STREAMING_BODY_THRESHOLD_BYTES = 8 * 1024 * 1024;
+    public static final int STREAM_WINDOW_CHARS = 1024 * 1024;
+    public static final int STREAM_WINDOW_OVERLAP_CHARS = 64 * 1024;
+    public static final int STREAM_WINDOW_CONTEXT_CHARS = 256;
+    public static final int EXTRACTION_CACHE_MAX_ENTRIES = 256;
+    public static final String DISK_CACHE_ENABLED_PROPERTY = "linkradar.diskCache";
+    public static final String DISK_CACHE_DIRECTORY_PROPERTY = "linkradar.diskCacheDir";
+    public static final long DISK_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    public static final String SCAN_PARALLELISM_PROPERTY = "linkradar.scanParallelism";
+    public static final int SCRIPT_EXTRACTION_PARALLELISM = scanParallelism();
+    public static final int PARALLEL_SCRIPT_MIN_CHARS = 64 * 1024;
+    public static final int PARALLEL_SCAN_MIN_CHARS = 4 * 1024 * 1024;
+    public static final int PARALLEL_SCAN_SEGMENT_CHARS = 1024 * 1024;
+    public static final int PARALLEL_WINDOW_SEGMENT_CHARS = 128 * 1024;
+    public static final int AST_EXTRACTION_MAX_CHARS = 2 * 1024 * 1024;
+    public static final int JS_BUNDLE_MIN_MODULES = 2;
+    public static final int JS_MODULE_CACHE_ENTRIES = 64 * 1024;
+    public static final long ITEM_EXTRACTION_BUDGET_MILLIS = 10_000L;
+    public static final long REGEX_MATCH_BUDGET_MILLIS = 1_000L;
+    public static final int JSON_MAX_STRING_CHARS = 64 * 1024;
+    public static final int CONTENT_SNIFF_PREFIX_CHARS = 4 * 1024;
+    public static final int CONTENT_SNIFF_CACHE_ENTRIES = 512;
     public static final Set<String> SUPPORTED_CONTENT_TYPES = createSupportedContentTypes();
 
     private AppConfig() {
     }
 
+    public static boolean isDiskCacheEnabled() {
+        return Boolean.parseBoolean(System.getProperty(DISK_CACHE_ENABLED_PROPERTY, "false"));
+    }
+
+    public static Path diskCacheDirectory() {
+        String configured = System.getProperty(DISK_CACHE_DIRECTORY_PROPERTY);
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Path.of(configured.trim());
+        }
+        return Path.of(System.getProperty("user.home"), ".BurpSuite", "link-radar");
+    }
+
+    private static int scanParallelism() {
+        String configured = System.getProperty(SCAN_PARALLELISM_PROPERTY);
+        if (configured != null && !configured.trim().isEmpty()) {
+            try {
+                return Math.max(1, Integer.parseInt(configured.trim()));
+            } catch (NumberFormatException ex) {
+                return Math.max(1, Runtime.getRuntime().availableProcessors());
+            }
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
     private static Set<String> createSupportedContentTypes() {
         Set<String> types = new HashSet<>();
         types.add("text/html");
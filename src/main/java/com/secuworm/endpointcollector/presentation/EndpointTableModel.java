@@ -7,7 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class EndpointTableModel extends AbstractTableModel {
-    private static final String[] COLUMNS = new String[]{"Endpoint", "Host", "Source URL", "Count"};
+    private static final String[] COLUMNS = new String[]{"Endpoint", "Host", "Source URL", "Count", "Found By"};
     private List<EndpointRecord> rows = new ArrayList<>();
 
     @Override
@@ -40,6 +40,9 @@ public class EndpointTableModel extends AbstractTableModel {
         if (columnIndex == 3) {
             return row.getCount();
         }
+        if (columnIndex == 4) {
+            return row.getOrigin();
+        }
         return "";
     }
 
@@ -126,7 +126,8 @@ public class ScanController {
                 historyItems,
                 (totalItems, processedItems, errorCount, uniqueEndpoints) ->
                     notifyStatus("Scanning: " + processedItems + "/" + totalItems + ", errors=" + errorCount + ", unique=" + uniqueEndpoints),
-                this::isUnloadRequested
+                this::isUnloadRequested,
+                this::publishPatternPhase
             );
 
             List<EndpointRecord> records = scanService.getRecords();
@@ -161,6 +162,21 @@ public class ScanController {
             "Completed: " + scanResult.getProcessedItems() + "/" + scanResult.getTotalItems()
                 + ", errors=" + scanResult.getErrorCount()
                 + ", unique=" + scanResult.getUniqueEndpoints()
+                + ", pattern=" + scanResult.getPatternPhaseMs() + "ms"
+                + ", ast=" + scanResult.getAstPhaseMs() + "ms"
+        );
+    }
+
+    private void publishPatternPhase(ScanResult patternResult) {
+        List<EndpointRecord> records = scanService.getRecords();
+        synchronized (lock) {
+            allRecords = new ArrayList<>(records);
+        }
+        runOnUi(this::applyFilterAndRender);
+        notifyStatus(
+            "Pattern pass complete: " + patternResult.getProcessedItems() + "/" + patternResult.getTotalItems()
+                + ", unique=" + patternResult.getUniqueEndpoints()
+                + ", enriching with AST..."
         );
     }
 
@@ -0,0 +1,72 @@
+package com.secuworm.endpointcollector.domain;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+public class VectorTriggerScanner implements TriggerScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int CHUNK_CHARS = 4096;
+    private static final ThreadLocal<char[]> CHUNKS = ThreadLocal.withInitial(() -> new char[CHUNK_CHARS]);
+
+    @Override
+    public String getName() {
+        return "vector-" + SPECIES.length() + "x16";
+    }
+
+    @Override
+    public void mark(CharSequence text, int from, int to, TriggerSet triggers, long[] bitmap) {
+        int words = (to - from + Long.SIZE - 1) / Long.SIZE;
+        Arrays.fill(bitmap, 0, words, 0L);
+        char[] chunk = CHUNKS.get();
+        for (int chunkStart = from; chunkStart < to; chunkStart += CHUNK_CHARS) {
+            int chunkLength = Math.min(CHUNK_CHARS, to - chunkStart);
+            copy(text, chunkStart, chunkLength, chunk);
+            markChunk(chunk, chunkLength, chunkStart - from, triggers, bitmap);
+        }
+    }
+
+    private void markChunk(char[] chunk, int length, int bitOffset, TriggerSet triggers, long[] bitmap) {
+        int lanes = SPECIES.length();
+        int upper = SPECIES.loopBound(length);
+        int index = 0;
+        for (; index < upper; index += lanes) {
+            ShortVector folded = ShortVector.fromCharArray(SPECIES, chunk, index).or((short) TriggerSet.CASE_FOLD_BIT);
+            VectorMask<Short> hits = folded.eq((short) triggers.foldedChar(0));
+            for (int trigger = 1; trigger < triggers.size(); trigger++) {
+                hits = hits.or(folded.eq((short) triggers.foldedChar(trigger)));
+            }
+            long bits = hits.toLong();
+            if (bits != 0L) {
+                setBits(bitmap, bitOffset + index, bits, lanes);
+            }
+        }
+        for (; index < length; index++) {
+            if (triggers.matches(chunk[index])) {
+                int bit = bitOffset + index;
+                bitmap[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    private void setBits(long[] bitmap, int bit, long bits, int lanes) {
+        int word = bit >>> 6;
+        int shift = bit & 63;
+        bitmap[word] |= bits << shift;
+        if (shift + lanes > Long.SIZE) {
+            bitmap[word + 1] |= bits >>> (Long.SIZE - shift);
+        }
+    }
+
+    private void copy(CharSequence text, int from, int length, char[] chunk) {
+        if (text instanceof String) {
+            ((String) text).getChars(from, from + length, chunk, 0);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            chunk[i] = text.charAt(from + i);
+        }
+    }
+}
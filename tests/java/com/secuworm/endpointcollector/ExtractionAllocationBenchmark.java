@@ -0,0 +1,73 @@
+package com.secuworm.endpointcollector;
+
+import com.secuworm.endpointcollector.domain.EndpointCandidate;
+import com.secuworm.endpointcollector.domain.EndpointExtractor;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class ExtractionAllocationBenchmark {
+    private static final int BODY_CHARS = 256 * 1024;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final String[] CONTENT_TYPES = new String[]{"text/plain", "application/json", "text/html", "application/javascript"};
+    private static final String[] BODY_SNIPPETS = new String[]{
+        "var routes = {users: '/api/v1/users', orders: \"/api/v1/orders\"};\n",
+        "fetch('/api/v1/session').then(function (r) { return r.json(); });\n",
+        "axios.get('/api/v1/items?page=' + page); xhr.open('GET', '/legacy/list');\n",
+        "var cdn = 'https://cdn.example/assets/app.js'; var icon = '../img/icon.png';\n",
+        "var ratio = width / height / 2; total = count++ / pages; // plain arithmetic\n",
+        "router.get('/health', handler); new URL('/callback', location.origin);\n"
+    };
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("thread allocation accounting is not supported by this JVM");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        String body = buildBody(BODY_CHARS);
+        EndpointExtractor extractor = new EndpointExtractor();
+        long threadId = Thread.currentThread().getId();
+        for (String contentType : CONTENT_TYPES) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                extractor.extract(body, contentType, "https://target.example/app.js");
+            }
+            long allocated = 0L;
+            long nanos = 0L;
+            int candidates = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                long started = System.nanoTime();
+                List<EndpointCandidate> result = extractor.extract(body, contentType, "https://target.example/app.js");
+                nanos += System.nanoTime() - started;
+                allocated += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+                candidates = result.size();
+            }
+            long bytesPerOp = allocated / MEASURED_ROUNDS;
+            System.out.printf(
+                "type=%s body=%dKiB candidates=%d time=%.2fms alloc=%dKiB/op alloc/candidate=%dB%n",
+                contentType,
+                body.length() / 1024,
+                candidates,
+                nanos / (MEASURED_ROUNDS * 1_000_000.0),
+                bytesPerOp / 1024,
+                bytesPerOp / Math.max(1, candidates)
+            );
+        }
+    }
+
+    private static String buildBody(int targetSize) {
+        StringBuilder body = new StringBuilder(targetSize + 1024);
+        int round = 0;
+        while (body.length() < targetSize) {
+            body.append("(function module").append(round).append("() {\n");
+            for (String snippet : BODY_SNIPPETS) {
+                body.append("    ").append(snippet.replace("/api/v1/", "/api/v1/m" + round + "/"));
+            }
+            body.append("})();\n");
+            round += 1;
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.secuworm.endpointcollector;
+
+import com.secuworm.endpointcollector.domain.JsLexer;
+import com.secuworm.endpointcollector.domain.LexicalRegionIndex;
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Parser;
+import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.RegExpLiteral;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsLexerBenchmark {
+    private static final String SAMPLE_DIRECTORY = "resources/sample_responses";
+    private static final int[] BUNDLE_SIZES = new int[]{64 * 1024, 512 * 1024, 2 * 1024 * 1024};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final String[] BUNDLE_SNIPPETS = new String[]{
+        "var edge = /(edge)\\/([\\d.]+)/i.test(navigator.userAgent);\n",
+        "var ratio = width / height / 2; total = count++ / pages;\n",
+        "if (match) /\\/api\\/v[0-9]+\\//.exec(path);\n",
+        "var routes = {users: '/api/v1/users', orders: \"/api/v1/orders\", search: /\\/search\\?q=/g};\n",
+        "function build(id) { return `/api/v1/items/${id}/detail?ts=${Date.now() / 1000}`; }\n",
+        "/* legacy /admin/ path */ fetch('/api/v1/session').then(function (r) { return r.json(); });\n",
+        "var cls = /[/\\]]+/; // comment with /slashes/\n",
+        "switch (mode) { case 1: { x = a / b; } /mode/.test(mode); default: {} }\n"
+    };
+
+    public static void main(String[] args) throws IOException {
+        List<String> samples = readSamples(args.length > 0 ? args[0] : SAMPLE_DIRECTORY);
+        JsLexer lexer = new JsLexer();
+        for (int bundleSize : BUNDLE_SIZES) {
+            String bundle = buildBundle(samples, bundleSize);
+            int rhinoRegexCount = rhinoRegexCount(bundle);
+            int lexerRegexCount = lexer.scan(bundle).count(LexicalRegionIndex.RegionKind.REGEX_LITERAL);
+            if (rhinoRegexCount != lexerRegexCount) {
+                throw new IllegalStateException("regex count mismatch: rhino=" + rhinoRegexCount + " lexer=" + lexerRegexCount);
+            }
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                rhinoRegexCount(bundle);
+                lexer.scan(bundle);
+            }
+            long rhinoNanos = 0L;
+            long lexerNanos = 0L;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long started = System.nanoTime();
+                rhinoRegexCount(bundle);
+                rhinoNanos += System.nanoTime() - started;
+                started = System.nanoTime();
+                lexer.scan(bundle);
+                lexerNanos += System.nanoTime() - started;
+            }
+            double rhinoMillis = rhinoNanos / (MEASURED_ROUNDS * 1_000_000.0);
+            double lexerMillis = lexerNanos / (MEASURED_ROUNDS * 1_000_000.0);
+            System.out.printf(
+                "bundle=%dKiB regexLiterals=%d rhino=%.2fms lexer=%.2fms speedup=%.1fx%n",
+                bundle.length() / 1024,
+                lexerRegexCount,
+                rhinoMillis,
+                lexerMillis,
+                rhinoMillis / Math.max(lexerMillis, 0.001)
+            );
+        }
+    }
+
+    private static List<String> readSamples(String directory) throws IOException {
+        List<String> samples = new ArrayList<>();
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            return samples;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    samples.add(Files.readString(path, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static String buildBundle(List<String> samples, int targetSize) {
+        StringBuilder bundle = new StringBuilder(targetSize + 1024);
+        int round = 0;
+        while (bundle.length() < targetSize) {
+            bundle.append("(function module").append(round).append("() {\n");
+            for (String sample : samples) {
+                bundle.append("{\n").append(sample).append("\n}\n");
+            }
+            for (String snippet : BUNDLE_SNIPPETS) {
+                bundle.append("    ").append(snippet);
+            }
+            bundle.append("})();\n");
+            round += 1;
+        }
+        return bundle.toString();
+    }
+
+    private static int rhinoRegexCount(String source) {
+        CompilerEnvirons environs = new CompilerEnvirons();
+        environs.setLanguageVersion(Context.VERSION_ES6);
+        environs.setRecoverFromErrors(true);
+        environs.setIdeMode(true);
+        AstRoot root = new Parser(environs).parse(source, "benchmark.js", 1);
+        int[] count = new int[1];
+        root.visit(node -> {
+            if (node instanceof RegExpLiteral) {
+                count[0] += 1;
+            }
+            return true;
+        });
+        return count[0];
+    }
+}
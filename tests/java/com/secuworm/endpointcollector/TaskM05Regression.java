@@ -4,28 +4,71 @@ import com.secuworm.endpointcollector.application.ExportService;
 import com.secuworm.endpointcollector.application.FilterService;
 import com.secuworm.endpointcollector.application.ScanService;
 import com.secuworm.endpointcollector.burpadapter.HistoryItemPayload;
+import com.secuworm.endpointcollector.domain.CandidateHashSet;
+import com.secuworm.endpointcollector.domain.CandidateSink;
+import com.secuworm.endpointcollector.domain.CharRange;
+import com.secuworm.endpointcollector.domain.ContentSniffer;
 import com.secuworm.endpointcollector.domain.EndpointCandidate;
 import com.secuworm.endpointcollector.domain.EndpointExtractor;
 import com.secuworm.endpointcollector.domain.EndpointNormalizer;
 import com.secuworm.endpointcollector.domain.EndpointRecord;
 import com.secuworm.endpointcollector.domain.EndpointRepository;
+import com.secuworm.endpointcollector.domain.ExtractionCache;
+import com.secuworm.endpointcollector.domain.ExtractionContext;
+import com.secuworm.endpointcollector.domain.ExtractionRuleRegistry;
+import com.secuworm.endpointcollector.domain.ExtractionStatistics;
+import com.secuworm.endpointcollector.domain.FusedEndpointScanner;
+import com.secuworm.endpointcollector.domain.HtmlTokenizer;
 import com.secuworm.endpointcollector.domain.JsAstEndpointExtractor;
+import com.secuworm.endpointcollector.domain.JsBundleSplitter;
+import com.secuworm.endpointcollector.domain.JsLexer;
+import com.secuworm.endpointcollector.domain.JsModuleCache;
+import com.secuworm.endpointcollector.domain.JsSourceDocument;
+import com.secuworm.endpointcollector.domain.LexicalRegionIndex;
+import com.secuworm.endpointcollector.domain.NormalizationContext;
+import com.secuworm.endpointcollector.domain.PatternExtractionRule;
+import com.secuworm.endpointcollector.domain.PersistentExtractionCache;
+import com.secuworm.endpointcollector.domain.ScalarTriggerScanner;
 import com.secuworm.endpointcollector.domain.ScanResult;
-
+import com.secuworm.endpointcollector.domain.TriggerKeywordFilter;
+import com.secuworm.endpointcollector.domain.TriggerScanner;
+import com.secuworm.endpointcollector.domain.TriggerScanners;
+import com.secuworm.endpointcollector.domain.TriggerSet;
+import com.secuworm.endpointcollector.domain.UriReferenceResolver;
+import com.secuworm.endpointcollector.domain.Utf8ByteSequence;
+import com.secuworm.endpointcollector.infra.AppConfig;
+
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Parser;
+import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.RegExpLiteral;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class TaskM05Regression {
     public static void main(String[] args) throws Exception {
         testItemFailureIsolation();
+        testFailedItemDiscardsStagedCandidates();
         testSampleDedupeCountFilterAndCsv();
         testAdvancedFilterSyntaxAndEndpointOnlyScope();
         testHtmlEntityDecoding();
@@ -41,6 +84,36 @@ public class TaskM05Regression {
         testWorkspaceExternalPreSampleIfPresent();
         testWorkspaceTplSampleIfPresent();
         testWorkspaceRequestJsonSampleIfPresent();
+        testFusedScanModeMatchesLegacy();
+        testTriggerPrefilterSkipReporting();
+        testRangeBackedCandidateCleaningAndDedupe();
+        testStreamingWindowExtractionAcrossEdges();
+        testByteBodyExtractionMatchesDecodedText();
+        testCustomRulesSeeDecodedTextOnBytePath();
+        testLexicalRegionIndexLookup();
+        testJsLexerRegexRangesMatchRhino();
+        testJsSourceDocumentParsedOnce();
+        testRepeatedBodiesReuseCachedCandidates();
+        testParallelScriptBlockExtractionKeepsOrder();
+        testExtractionBudgetsAndCooperativeCancellation();
+        testRegexWatchdogAbortsBacktrackingPattern();
+        testRuleRegistryExecutionPlansPerContentType();
+        testJsonStringExtractionOnlyInspectsStrings();
+        testHtmlTokenizerReadsAttributesAndScriptRanges();
+        testHtmlCandidatesFollowDocumentOrder();
+        testContentSnifferUsesBoundedPrefixAndUrlPatternCache();
+        testScanServiceSniffsContentTypeOncePerItem();
+        testCandidateHashSetAndScratchReuse();
+        testTriggerBitmapScanMatchesPerCharacterLoop();
+        testBundleSplitterParsesModulesWithModuleCache();
+        testPersistentExtractionCacheSurvivesRestart();
+        testTwoPhaseScanPublishesPatternResultsBeforeAst();
+        testDegradedPatternPhaseIsNotCachedAfterEnrichment();
+        testCandidateSinkStreamsIntoBatchedRepository();
+        testSegmentedFusedScanMatchesSequentialScan();
+        testHugeStreamedBodyIsScannedInSegments();
+        testRfc3986ResolverMatchesLegacyNormalizer();
+        testNormalizationContextPrecomputesBaseParts();
     }
 
     private static void testItemFailureIsolation() {
@@ -66,6 +139,35 @@ public class TaskM05Regression {
         assertTrue(records.get(0).getCount() == 1, "record count should be 1");
     }
 
+    private static void testFailedItemDiscardsStagedCandidates() {
+        ScanService scanService = new ScanService(
+            new PartialFailureExtractor(AppConfig.REPOSITORY_UPSERT_BATCH_SIZE + 10, 1),
+            new EndpointNormalizer(),
+            new EndpointRepository(),
+            null
+        );
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://app.example/a", "text/plain", "a", 1));
+        items.add(new HistoryItemPayload("https://app.example/b", "text/plain", "b", 1));
+
+        ScanResult result = scanService.scan(items, null, null);
+        List<EndpointRecord> records = scanService.getRecords();
+        assertTrue(result.getErrorCount() == 1, "partially extracted item should count as failed");
+        assertTrue(result.getTotalCandidates() == 1, "failed item candidates should not be counted: " + result.getTotalCandidates());
+        assertTrue(records.size() == 1 && "https://stable.example/api".equals(records.get(0).getEndpointUrl()), "failed item candidates should not be upserted: " + records.size());
+        assertTrue(records.get(0).getCount() == 1 && "https://app.example/b".equals(records.get(0).getSourceUrl()), "flushed batches of a failed item should be rolled back");
+
+        ScanService laterFailure = new ScanService(
+            new PartialFailureExtractor(AppConfig.REPOSITORY_UPSERT_BATCH_SIZE * 2, 2),
+            new EndpointNormalizer(),
+            new EndpointRepository(),
+            null
+        );
+        laterFailure.scan(items, null, null);
+        List<EndpointRecord> kept = laterFailure.getRecords();
+        assertTrue(kept.size() == 1 && kept.get(0).getCount() == 1, "rollback should restore records seen by earlier items: " + kept.size());
+    }
+
     private static void testSampleDedupeCountFilterAndCsv() throws IOException {
         String sampleA = readFile("resources/sample_responses/m05_sample_a.html");
         String sampleB = readFile("resources/sample_responses/m05_sample_b.html");
@@ -622,6 +724,1044 @@ public class TaskM05Regression {
         );
     }
 
+    private static void testFusedScanModeMatchesLegacy() throws IOException {
+        EndpointExtractor legacyExtractor = new EndpointExtractor(EndpointExtractor.ScanMode.LEGACY);
+        EndpointExtractor fusedExtractor = new EndpointExtractor(EndpointExtractor.ScanMode.FUSED);
+
+        List<String> corpus = new ArrayList<>();
+        corpus.add(readFile("resources/sample_responses/m05_sample_a.html"));
+        corpus.add(readFile("resources/sample_responses/m05_sample_b.html"));
+        corpus.add("<a href=\"/gn5/bbs/board.php?bo_table=qa&amp;sop=and\">qa</a><img src=\"../../img/a.png\">");
+        corpus.add("fetch ( `/api/a` ); FETCH('/api/b'); xfetch('/no'); fetch(\"/mixed');");
+        corpus.add("axios.get('/a'); axios . POST ( \"/b\" ); axios({ method: 'get', url: '/c' }); axios({ a: {}, url: '/d' });");
+        corpus.add("xhr.open('GET', '/x'); xhr.open(\"/y\"); xhr.OPEN ( 'post' , `/z/${id}` ); x.open('GET')");
+        corpus.add("new URL('/u', base); new\tURL(\"https://h.example/p\"); newURL('/no'); renew URL('/no2');");
+        corpus.add("app.get('/e/:id'); router.use(`/r`); fastify.route({ method: 'GET', path: '/f' }); webapp.get('/no');");
+        corpus.add("<Route exact path=\"/home\" /><Route path='/a' component={A} path=\"/b\"><route>");
+        corpus.add("const routes = [{ path: '/users' }, { PATH : \"/x\" }, { path: 'rel' }, { path: '/' }];");
+        corpus.add("var edge = /(edge)\\/([\\d.]+)/i.test(navigator.userAgent); s.replace(/-/gi, ''); d.match(/MM/);");
+        corpus.add("https://a.example/x http://b.example/y?q=1&z=2, HTTPS://C.EXAMPLE/Z 'https://d.example/w' httpx://no");
+        corpus.add("\u00e9fetch('/unicode-prefix') _fetch('/underscore') \u0301fetch('/mark') a\u0301fetch('/based-mark')");
+        corpus.add("/leading and (./dot) [../up] {/brace} >/gt ,/comma :/colon =/eq //double ./ ../");
+
+        Random random = new Random(20260212L);
+        String[] fragments = new String[]{
+            "fetch", "axios", ".get", ".open", "new ", "URL", "app", "router", "fastify", ".route", "<Route", "path",
+            "url", "(", ")", "{", "}", ":", "=", ",", ";", "'", "\"", "`", "/", "./", "../", "//", "http://", "https://",
+            "api", "v1", " ", "\n", "\t", "x", "_", "\u00e9", ">", "<", "?q=1", "#", "."
+        };
+        for (int i = 0; i < 400; i++) {
+            StringBuilder builder = new StringBuilder();
+            int pieces = 5 + random.nextInt(40);
+            for (int j = 0; j < pieces; j++) {
+                builder.append(fragments[random.nextInt(fragments.length)]);
+            }
+            corpus.add(builder.toString());
+        }
+
+        String[] contentTypes = new String[]{"text/plain", "text/html", "application/json", "application/javascript"};
+        for (int i = 0; i < corpus.size(); i++) {
+            String body = corpus.get(i);
+            String contentType = contentTypes[i % contentTypes.length];
+            List<String> legacy = describeCandidates(legacyExtractor.extract(body, contentType, "https://target.example/app.js"));
+            List<String> fused = describeCandidates(fusedExtractor.extract(body, contentType, "https://target.example/app.js"));
+            assertTrue(legacy.equals(fused), "fused scan mismatch for input #" + i + ": legacy=" + legacy + ", fused=" + fused);
+        }
+    }
+
+    private static void testTriggerPrefilterSkipReporting() {
+        ScanService scanService = new ScanService(null);
+        String plain = "<p>See https://docs.example/guide and /static/logo.png</p>";
+        String javascript = "fetch('/api/a'); router.get('/r', h);";
+
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://target.example/a", "text/html", plain, plain.length()));
+        items.add(new HistoryItemPayload("https://target.example/b.js", "application/javascript", javascript, javascript.length()));
+
+        ScanResult result = scanService.scan(items, null, null);
+        Set<String> endpoints = scanService.getRecords().stream()
+            .map(EndpointRecord::getEndpointUrl)
+            .collect(Collectors.toSet());
+
+        assertTrue(endpoints.contains("https://target.example/api/a"), "prefiltered fetch endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://target.example/r"), "prefiltered router endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://target.example/static/logo.png"), "relative endpoint missing: " + endpoints);
+        assertTrue(
+            result.getExtractionStatistics().getSkippedPatternExecutions() == 16,
+            "skipped pattern executions mismatch: " + result.getExtractionStatistics().getSkippedPatternExecutions()
+        );
+        assertTrue(
+            result.getExtractionStatistics().getPatternExecutions() == 8,
+            "pattern executions mismatch: " + result.getExtractionStatistics().getPatternExecutions()
+        );
+    }
+
+    private static void testRangeBackedCandidateCleaningAndDedupe() {
+        String body = "x '/api/users'; \"/api/users\" /api/users., HTTPS://api.example/v1; https://api.example/v1";
+        EndpointExtractor extractor = new EndpointExtractor();
+        List<String> described = describeCandidates(extractor.extract(body, "text/plain", "https://target.example/"));
+        assertTrue(
+            described.equals(List.of("/api/users|relative|text/plain", "HTTPS://api.example/v1|absolute|text/plain", "https://api.example/v1|absolute|text/plain")),
+            "range-backed cleaning/dedupe mismatch: " + described
+        );
+
+        CharRange range = new CharRange(body, 3, 13);
+        EndpointCandidate candidate = new EndpointCandidate(range, "https://target.example/", "text/plain", "relative");
+        assertTrue("/api/users".equals(candidate.getRawValue()), "range candidate raw value mismatch: " + candidate.getRawValue());
+        assertTrue(range.equals(CharRange.of("/api/users")), "range content equality mismatch");
+        assertTrue(range.hashCode() == "/api/users".hashCode(), "range hash mismatch");
+        assertTrue(range.trim().subSequence(1, 4).contentEquals("api"), "range sub-sequence mismatch");
+    }
+
+    private static void testStreamingWindowExtractionAcrossEdges() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            builder.append("filler text ").append(i % 10).append(' ');
+            if (i % 7 == 0) {
+                builder.append("fetch('/api/stream/").append(i).append("'); ");
+            }
+            if (i % 11 == 0) {
+                builder.append("see https://cdn.example/assets/").append(i).append(".js and ./rel/").append(i).append(' ');
+            }
+        }
+        String body = builder.toString();
+
+        for (EndpointExtractor.ScanMode mode : EndpointExtractor.ScanMode.values()) {
+            EndpointExtractor extractor = new EndpointExtractor(mode);
+            Set<String> whole = new TreeSet<>(describeCandidates(extractor.extract(body, "text/plain", "https://target.example/")));
+            for (int window = 400; window <= 1400; window += 333) {
+                Set<String> streamed = new TreeSet<>(describeCandidates(
+                    extractor.extract(new StringReader(body), "text/plain", "https://target.example/", window, 96)
+                ));
+                assertTrue(whole.equals(streamed), mode + " streaming window " + window + " mismatch: whole=" + whole + ", streamed=" + streamed);
+            }
+        }
+
+        ScanService scanService = new ScanService(null);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload(
+            "https://target.example/big",
+            "text/plain",
+            null,
+            () -> new StringReader(body),
+            body.length(),
+            "GET",
+            null
+        ));
+        ScanResult result = scanService.scan(items, null, null);
+        Set<String> endpoints = scanService.getRecords().stream()
+            .map(EndpointRecord::getEndpointUrl)
+            .collect(Collectors.toSet());
+        assertTrue(result.getErrorCount() == 0, "streamed scan errors: " + result.getErrorCount());
+        assertTrue(endpoints.contains("https://target.example/api/stream/399"), "streamed fetch endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://cdn.example/assets/396.js"), "streamed absolute endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://target.example/rel/0"), "streamed dot-relative endpoint missing: " + endpoints);
+    }
+
+    private static void testByteBodyExtractionMatchesDecodedText() {
+        String html = "<html><body>caf\u00e9 <a href=\"/men\u00fc/\u00e4pfel\">x</a> https://\u4f8b\u3048.example/\u30d1\u30b9 "
+            + "\u00e9/skipped /ok/\ud83d\ude00 <script>fetch('/api/\u00fcber');</script></body></html>";
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        EndpointExtractor extractor = new EndpointExtractor();
+        for (String contentType : new String[]{"text/html", "text/plain", "application/json", ""}) {
+            List<String> decoded = describeCandidates(extractor.extract(html, contentType, "https://target.example/"));
+            List<String> raw = describeCandidates(extractor.extract(body, contentType, "https://target.example/"));
+            assertTrue(decoded.equals(raw), "byte path mismatch for " + contentType + ": decoded=" + decoded + ", raw=" + raw);
+        }
+
+        ScanService scanService = new ScanService(null);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://target.example/page", "text/html", null, body, null, body.length, "GET", null));
+        ScanResult result = scanService.scan(items, null, null);
+        Set<String> endpoints = scanService.getRecords().stream()
+            .map(EndpointRecord::getEndpointUrl)
+            .collect(Collectors.toSet());
+        assertTrue(result.getErrorCount() == 0, "byte-backed scan errors: " + result.getErrorCount());
+        assertTrue(endpoints.contains("https://target.example/api/\u00fcber"), "byte-backed script endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://target.example/ok/\ud83d\ude00"), "byte-backed relative endpoint missing: " + endpoints);
+    }
+
+    private static void testCustomRulesSeeDecodedTextOnBytePath() {
+        String text = "route=\"v\u00e9/x\" done";
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        ExtractionRuleRegistry registry = ExtractionRuleRegistry.defaults()
+            .register(new PatternExtractionRule("FIXED_WIDTH_ROUTE", Pattern.compile("route=\"(.{4})\""), 1, "relative", null));
+        for (EndpointExtractor.ScanMode mode : EndpointExtractor.ScanMode.values()) {
+            EndpointExtractor extractor = new EndpointExtractor(mode, registry);
+            List<String> decoded = describeCandidates(extractor.extract(text, "text/plain", "https://target.example/"));
+            List<String> raw = describeCandidates(extractor.extract(body, "text/plain", "https://target.example/"));
+            assertTrue(decoded.contains("v\u00e9/x|relative|text/plain"), mode + " custom rule missed decoded route: " + decoded);
+            assertTrue(decoded.equals(raw), mode + " custom rule byte path mismatch: decoded=" + decoded + ", raw=" + raw);
+        }
+    }
+
+    private static void testLexicalRegionIndexLookup() {
+        String source = "/* see /docs/a */ var r = /\\/api\\/x/g; var s = '/api/s'; var t = `/api/${s}`; // tail /c";
+        LexicalRegionIndex index = new JsLexer().scan(source);
+        assertTrue(index.contains(LexicalRegionIndex.RegionKind.COMMENT, source.indexOf("/docs/a")), "block comment region missing");
+        assertTrue(index.contains(LexicalRegionIndex.RegionKind.COMMENT, source.indexOf("/c")), "line comment region missing");
+        assertTrue(index.contains(LexicalRegionIndex.RegionKind.REGEX_LITERAL, source.indexOf("api\\/x")), "regex literal region missing");
+        assertTrue(index.contains(LexicalRegionIndex.RegionKind.STRING, source.indexOf("/api/s")), "string region missing");
+        assertTrue(index.contains(LexicalRegionIndex.RegionKind.TEMPLATE, source.indexOf("/api/${")), "template region missing");
+        assertTrue(!index.contains(LexicalRegionIndex.RegionKind.REGEX_LITERAL, source.indexOf("/api/s")), "string reported as regex literal");
+        assertTrue(!index.contains(LexicalRegionIndex.RegionKind.COMMENT, source.indexOf("var r")), "code reported as comment");
+
+        LexicalRegionIndex merged = new LexicalRegionIndex.Builder()
+            .add(LexicalRegionIndex.RegionKind.STRING, 40, 50)
+            .add(LexicalRegionIndex.RegionKind.STRING, 10, 20)
+            .add(LexicalRegionIndex.RegionKind.STRING, 15, 30)
+            .build();
+        assertTrue(merged.count(LexicalRegionIndex.RegionKind.STRING) == 2, "overlapping regions were not merged");
+        assertTrue(merged.contains(LexicalRegionIndex.RegionKind.STRING, 29), "merged region lookup failed");
+        assertTrue(!merged.contains(LexicalRegionIndex.RegionKind.STRING, 30), "region end must be exclusive");
+        assertTrue(!merged.contains(LexicalRegionIndex.RegionKind.STRING, 9), "lookup before first region must miss");
+        assertTrue(merged.contains(LexicalRegionIndex.RegionKind.STRING, 40), "region start must be inclusive");
+        assertTrue(LexicalRegionIndex.empty().isEmpty(), "empty index must be empty");
+    }
+
+    private static void testJsLexerRegexRangesMatchRhino() throws IOException {
+        List<String> sources = new ArrayList<>();
+        sources.add(readFile("resources/sample_responses/m05_sample_a.html"));
+        sources.add(""
+            + "var a = b / c / d; var r = /\\/api\\/v1\\//g.test(x);"
+            + "if (ok) /\\/admin/.exec(path); x = y++ / 2; z = (m) / n;"
+            + "var o = {k: /\\/p/}; var t = `a${ {v: 1}.v / 2 }b`; s = '/a/' + \"/b/\";"
+            + "function f() { return /\\/ret/; } while (i) {} /\\/after-block/.test(q);"
+            + "var cls = /[/\\]]/; // /comment/ here\n/* /block/ */ w = h / 2 / 3;");
+        for (String source : sources) {
+            List<String> rhinoRanges = rhinoRegexRanges(source);
+            LexicalRegionIndex index = new JsLexer().scan(source);
+            List<String> lexerRanges = new ArrayList<>();
+            for (int i = 0; i < index.count(LexicalRegionIndex.RegionKind.REGEX_LITERAL); i++) {
+                lexerRanges.add(index.start(LexicalRegionIndex.RegionKind.REGEX_LITERAL, i) + "-"
+                    + index.end(LexicalRegionIndex.RegionKind.REGEX_LITERAL, i));
+            }
+            assertTrue(lexerRanges.equals(rhinoRanges), "lexer regex ranges differ from Rhino: " + lexerRanges + " vs " + rhinoRanges);
+        }
+
+        String modern = "const v = a?.b ?? /\\/api\\/modern/.exec(c); class K { #p = 1; static s = /\\/static/; }";
+        LexicalRegionIndex modernIndex = new JsLexer().scan(modern);
+        assertTrue(modernIndex.contains(LexicalRegionIndex.RegionKind.REGEX_LITERAL, modern.indexOf("api\\/modern")), "regex after ?? missing");
+        assertTrue(modernIndex.contains(LexicalRegionIndex.RegionKind.REGEX_LITERAL, modern.indexOf("static/")), "regex in class field missing");
+        assertTrue(modernIndex.count(LexicalRegionIndex.RegionKind.REGEX_LITERAL) == 2, "unexpected modern regex count");
+        assertTrue(new JsLexer().scan("var open = /_(x;var flag = /g;location.href='/lp/x';").isEmpty(), "malformed source must not report regions");
+        assertTrue(new JsLexer().scan("var list = [1, 2; location.href='/lp/x';").isEmpty(), "unclosed bracket must mark the source malformed");
+        assertTrue(new JsLexer().scan("var item = list]; location.href='/lp/x';").isEmpty(), "stray closing bracket must mark the source malformed");
+        assertTrue(!new JsLexer().scan("var item = list[0][1]; location.href='/lp/x';").isEmpty(), "balanced brackets must still report regions");
+    }
+
+    private static List<String> rhinoRegexRanges(String source) {
+        CompilerEnvirons environs = new CompilerEnvirons();
+        environs.setLanguageVersion(Context.VERSION_ES6);
+        environs.setRecoverFromErrors(true);
+        environs.setIdeMode(true);
+        AstRoot root = new Parser(environs).parse(source, "regression.js", 1);
+        List<String> ranges = new ArrayList<>();
+        root.visit(node -> {
+            if (node instanceof RegExpLiteral) {
+                ranges.add(node.getAbsolutePosition() + "-" + (node.getAbsolutePosition() + node.getLength()));
+            }
+            return true;
+        });
+        return ranges;
+    }
+
+    private static void testJsSourceDocumentParsedOnce() {
+        String source = ""
+            + "fetch(API_BASE + '/users');\n"
+            + "var pattern = /\\/ignored\\/path/;\n"
+            + "app.get(ROUTE, handler);\n"
+            + "var API_BASE = '/api/v2';\n"
+            + "var ROUTE = API_BASE + '/orders';\n";
+        JsSourceDocument document = new JsSourceDocument(source);
+        JsAstEndpointExtractor extractor = new JsAstEndpointExtractor();
+        List<JsAstEndpointExtractor.SourceRange> ranges = extractor.extractRegexLiteralRanges(document);
+        List<String> endpoints = extractor.extract(document);
+        assertTrue(document.getAstRoot() == document.getAstRoot(), "document must parse once");
+        assertTrue(document.getLexicalRegions() == document.getLexicalRegions(), "document must lex once");
+        assertTrue(ranges.size() == 1 && ranges.get(0).contains(source.indexOf("ignored")), "regex range missing: " + ranges.size());
+        assertTrue(endpoints.contains("/api/v2/users"), "forward-referenced constant not resolved: " + endpoints);
+        assertTrue(endpoints.contains("/api/v2/orders"), "chained constant not resolved: " + endpoints);
+        assertTrue(endpoints.equals(extractor.extract(source)), "document and string extraction differ");
+        assertTrue(extractor.extract(new JsSourceDocument("   ")).isEmpty(), "blank document must yield nothing");
+
+        List<String> forward = extractor.extract(""
+            + "const u = B + '/x';\n"
+            + "const v = `${u}/y`;\n"
+            + "const B = P + '/api';\n"
+            + "const P = '/root';\n"
+            + "var x = '/a'; var x = x + '/b';\n"
+            + "var c1 = c2 + '/loop'; var c2 = c1 + '/loop';\n"
+            + "fetch(u); axios.get(v); fetch(x); fetch(c1);\n");
+        assertTrue(forward.contains("/root/api/x"), "forward-referenced initializer not resolved: " + forward);
+        assertTrue(forward.contains("/root/api/x/y"), "chained forward reference not resolved: " + forward);
+        assertTrue(forward.contains("/a/b"), "self-referencing redeclaration should keep source order: " + forward);
+        assertTrue(forward.stream().noneMatch(value -> value.contains("/loop/loop/loop")), "cyclic initializers must not expand: " + forward);
+    }
+
+    private static void testRepeatedBodiesReuseCachedCandidates() {
+        ScanService scanService = new ScanService(null);
+        String bundle = "fetch('/api/shared'); var next = './chunk/next.js';";
+        byte[] shell = "<html><a href=\"/shell/home\">home</a></html>".getBytes(StandardCharsets.UTF_8);
+
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://a.example/static/main.js", "application/javascript", bundle, bundle.length()));
+        items.add(new HistoryItemPayload("https://b.example/assets/main.js", "application/javascript", bundle, bundle.length()));
+        items.add(new HistoryItemPayload("https://a.example/", "text/html", null, shell, null, shell.length, "GET", null));
+        items.add(new HistoryItemPayload("https://b.example/", "text/html", null, shell, null, shell.length, "GET", null));
+        items.add(new HistoryItemPayload("https://b.example/plain.txt", "text/plain", bundle, bundle.length()));
+
+        ScanResult result = scanService.scan(items, null, null);
+        Set<String> endpoints = scanService.getRecords().stream()
+            .map(EndpointRecord::getEndpointUrl)
+            .collect(Collectors.toSet());
+        assertTrue(result.getCacheHits() == 2, "cache hits mismatch: " + result.getCacheHits());
+        assertTrue(result.getCacheMisses() == 3, "cache misses mismatch: " + result.getCacheMisses());
+        assertTrue(endpoints.contains("https://a.example/api/shared"), "first source endpoint missing: " + endpoints);
+        assertTrue(endpoints.contains("https://b.example/api/shared"), "cached endpoint not rebased on its own source: " + endpoints);
+        assertTrue(endpoints.contains("https://b.example/assets/chunk/next.js"), "cached relative endpoint not rebased: " + endpoints);
+        assertTrue(endpoints.contains("https://b.example/shell/home"), "cached byte-backed endpoint missing: " + endpoints);
+
+        ScanResult rescan = scanService.scan(items, null, null);
+        assertTrue(rescan.getCacheHits() == 5 && rescan.getCacheMisses() == 0, "rescan should be served from cache");
+        assertTrue(rescan.getUniqueEndpoints() == result.getUniqueEndpoints(), "cached rescan changed endpoints");
+
+        ExtractionCache cache = new ExtractionCache(1);
+        ExtractionCache.Key first = ExtractionCache.keyOf(bundle, "application/javascript");
+        ExtractionCache.Key second = ExtractionCache.keyOf(bundle, "text/plain");
+        cache.put(first, new ArrayList<>());
+        cache.put(second, new ArrayList<>());
+        assertTrue(cache.size() == 1 && cache.get(first, "x") == null, "cache must evict least recently used entry");
+        assertTrue(!ExtractionCache.keyOf(bundle.getBytes(StandardCharsets.UTF_8), "a").equals(ExtractionCache.keyOf("x" + bundle, "a")), "distinct bodies share a key");
+    }
+
+    private static void testParallelScriptBlockExtractionKeepsOrder() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        List<String> expected = new ArrayList<>();
+        JsAstEndpointExtractor astExtractor = new JsAstEndpointExtractor();
+        for (int i = 0; i < 40; i++) {
+            StringBuilder script = new StringBuilder();
+            script.append("var base").append(i).append(" = '/api/block").append(i).append("';");
+            script.append("var state").append(i).append(" = {");
+            for (int j = 0; j < 300; j++) {
+                script.append("k").append(j).append(": ").append(j * i).append(", ");
+            }
+            script.append("done: true};");
+            script.append("fetch(base").append(i).append(" + '/detail');");
+            expected.addAll(astExtractor.extract(script.toString()));
+            html.append("<script>").append(script).append("</script>");
+        }
+        html.append("</body></html>");
+        assertTrue(html.length() > 64 * 1024, "fixture too small to exercise parallel extraction");
+
+        List<String> actual = new ArrayList<>();
+        for (EndpointCandidate candidate : new EndpointExtractor().extract(html.toString(), "text/html", "https://target.example/")) {
+            if (candidate.getRawValue().startsWith("/api/block") && candidate.getRawValue().endsWith("/detail")) {
+                actual.add(candidate.getRawValue());
+            }
+        }
+        assertTrue(expected.size() == 40, "sequential AST extraction mismatch: " + expected.size());
+        assertTrue(actual.equals(expected), "parallel script extraction order mismatch: " + actual);
+    }
+
+    private static void testExtractionBudgetsAndCooperativeCancellation() throws InterruptedException {
+        String script = "var api = '/api/tiered'; fetch(api + '/detail');\n";
+        StringBuilder padding = new StringBuilder();
+        while (padding.length() <= AppConfig.AST_EXTRACTION_MAX_CHARS) {
+            padding.append("var filler = counter / 2 + 'text';\n");
+        }
+        String largeScript = script + padding;
+
+        EndpointExtractor extractor = new EndpointExtractor();
+        List<String> small = describeCandidates(extractor.extract(script, "application/javascript", "https://target.example/app.js"));
+        assertTrue(small.contains("/api/tiered/detail|relative|application/javascript"), "AST tier should resolve constant concatenation: " + small);
+        List<String> large = describeCandidates(extractor.extract(largeScript, "application/javascript", "https://target.example/app.js"));
+        assertTrue(large.contains("/api/tiered|relative|application/javascript"), "regex tier should still run on large bodies: " + large);
+        assertTrue(!large.contains("/api/tiered/detail|relative|application/javascript"), "large bodies should skip the AST tier: " + large);
+        assertTrue(extractor.getMetrics().snapshot().getAstSkippedItems() == 1, "AST skip should be counted once");
+
+        ExtractionContext expired = ExtractionContext.withBudget(1L, null);
+        Thread.sleep(5L);
+        List<EndpointCandidate> degraded = extractor.extract(largeScript, "application/javascript", "https://target.example/app.js", expired);
+        assertTrue(degraded.isEmpty(), "expired budget should abort before any pass: " + describeCandidates(degraded));
+        assertTrue(expired.isDegraded(), "expired budget should mark the context degraded");
+        assertTrue(extractor.getMetrics().snapshot().getDegradedItems() == 1, "degraded item should be counted");
+
+        AtomicInteger stopChecks = new AtomicInteger();
+        AtomicLong stopRequestedAt = new AtomicLong();
+        ScanService scanService = new ScanService(null);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://target.example/app.js", "application/javascript", largeScript, largeScript.length()));
+        items.add(new HistoryItemPayload("https://target.example/next.js", "application/javascript", script, script.length()));
+        ScanResult result = scanService.scan(items, null, () -> {
+            if (stopChecks.incrementAndGet() < 4) {
+                return false;
+            }
+            stopRequestedAt.compareAndSet(0L, System.nanoTime());
+            return true;
+        });
+        long stopLatencyMillis = (System.nanoTime() - stopRequestedAt.get()) / 1_000_000L;
+        assertTrue(stopRequestedAt.get() != 0L, "stop should be observed during extraction");
+        assertTrue(result.getProcessedItems() == 0, "cancelled item should not count as processed: " + result.getProcessedItems());
+        assertTrue(result.getErrorCount() == 0, "cancellation should not count as an error");
+        assertTrue(stopLatencyMillis < 500L, "cancellation took too long: " + stopLatencyMillis + "ms");
+    }
+
+    private static void testRegexWatchdogAbortsBacktrackingPattern() {
+        StringBuilder body = new StringBuilder("fetch('/api/healthy');\n");
+        while (body.length() < 1024 * 1024) {
+            body.append("axios({ url: next, ");
+        }
+        EndpointExtractor legacyExtractor = new EndpointExtractor(EndpointExtractor.ScanMode.LEGACY);
+        long started = System.nanoTime();
+        List<String> actual = describeCandidates(legacyExtractor.extract(body.toString(), "text/html", "https://target.example/"));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000L;
+        ExtractionStatistics statistics = legacyExtractor.getMetrics().snapshot();
+
+        assertTrue(actual.contains("/api/healthy|relative|text/html"), "other patterns should still run: " + actual);
+        assertTrue(statistics.getPatternAborts("AXIOS_CONFIG_URL") == 1, "backtracking pattern abort not counted: " + statistics.getPatternAborts());
+        assertTrue(statistics.getPatternAborts().size() == 1, "only the hostile pattern should abort: " + statistics.getPatternAborts());
+        assertTrue(statistics.getDegradedItems() == 1, "pattern abort should count the item as degraded: " + statistics.getDegradedItems());
+        assertTrue(elapsedMillis < AppConfig.REGEX_MATCH_BUDGET_MILLIS * 5, "watchdog did not bound the scan: " + elapsedMillis + "ms");
+    }
+
+    private static void testRuleRegistryExecutionPlansPerContentType() throws IOException {
+        String body = "{\"markup\": \"<Route path='/react/home'>\", \"code\": \"router.get('v2/users')\"} "
+            + "<div hx-get=\"widgets/list\"></div>";
+
+        ExtractionRuleRegistry.ExecutionPlan jsonPlan = ExtractionRuleRegistry.defaults().planFor("application/json");
+        assertTrue(jsonPlan.includes(FusedEndpointScanner.RELATIVE_URL), "json plan should keep URL rules");
+        assertTrue(!jsonPlan.includes(FusedEndpointScanner.REACT_ROUTE), "json plan should drop React route rule");
+        assertTrue(!jsonPlan.includes(FusedEndpointScanner.FRAMEWORK_ROUTE), "json plan should drop framework route rule");
+        assertTrue(!ExtractionRuleRegistry.defaults().planFor("text/plain").includes(FusedEndpointScanner.XHR_OPEN), "plain text plan should drop XHR rule");
+
+        for (EndpointExtractor.ScanMode mode : EndpointExtractor.ScanMode.values()) {
+            ExtractionRuleRegistry registry = ExtractionRuleRegistry.defaults().register(new PatternExtractionRule(
+                "HX_GET_ATTRIBUTE",
+                Pattern.compile("\\bhx-get\\s*=\\s*\"([^\"]+)\""),
+                1,
+                "relative",
+                contentType -> "text/html".equals(contentType)
+            ));
+            EndpointExtractor extractor = new EndpointExtractor(mode, registry);
+
+            List<String> json = describeCandidates(extractor.extract(body, "application/json", "https://target.example/"));
+            assertTrue(!json.contains("v2/users|relative|application/json"), mode + " json should skip framework route rule: " + json);
+            assertTrue(!json.contains("widgets/list|relative|application/json"), mode + " json should skip html-only custom rule: " + json);
+            assertTrue(json.contains("/react/home|relative|application/json"), mode + " json should keep relative URL rule: " + json);
+
+            List<String> html = describeCandidates(extractor.extract(body, "text/html", "https://target.example/"));
+            assertTrue(html.contains("v2/users|relative|text/html"), mode + " html should run framework route rule: " + html);
+            assertTrue(html.contains("widgets/list|relative|text/html"), mode + " html should run custom rule: " + html);
+
+            Set<String> streamed = new TreeSet<>(describeCandidates(
+                extractor.extract(new StringReader(body), "text/html", "https://target.example/", 400, 96)
+            ));
+            assertTrue(streamed.contains("widgets/list|relative|text/html"), mode + " streamed html should run custom rule: " + streamed);
+
+            ExtractionStatistics statistics = extractor.getMetrics().snapshot();
+            assertTrue(statistics.getRuleStatistics("HX_GET_ATTRIBUTE").getExecutions() >= 2, mode + " custom rule executions not recorded");
+            assertTrue(statistics.getRuleStatistics("HX_GET_ATTRIBUTE").getHits() >= 2, mode + " custom rule hits not recorded");
+            assertTrue(statistics.getRuleStatistics("FRAMEWORK_ROUTE").getHits() >= 1, mode + " built-in rule hits not recorded: " + statistics.getRuleStatistics().keySet());
+        }
+    }
+
+    private static void testJsonStringExtractionOnlyInspectsStrings() throws IOException {
+        String body = "{\"openapi\": \"3.0.0\", \"servers\": [{\"url\": \"https:\\/\\/api.example.com\\/v1\"}], "
+            + "\"paths\": {\"/pets/{petId}\": {\"get\": {\"summary\": \"see /api/docs/pets for details\"}}, \"/orders\": {}}, "
+            + "\"ratio\": 1.5e3, \"flags\": [true, false, null], \"note\": \"plain text\", \"/not/a/path/key\": 1}";
+        EndpointExtractor extractor = new EndpointExtractor();
+
+        List<String> found = describeCandidates(extractor.extract(body, "application/json", "https://target.example/"));
+        assertTrue(found.contains("/pets/{petId}|relative|application/json"), "openapi path key not extracted: " + found);
+        assertTrue(found.contains("/orders|relative|application/json"), "openapi path key not extracted: " + found);
+        assertTrue(found.contains("https://api.example.com/v1|absolute|application/json"), "escaped URL not decoded: " + found);
+        assertTrue(found.contains("/api/docs/pets|relative|application/json"), "embedded path in string not extracted: " + found);
+        assertTrue(found.stream().noneMatch(value -> value.startsWith("3.0.0") || value.startsWith("1.5e3")), "scalar noise extracted: " + found);
+        ExtractionStatistics statistics = extractor.getMetrics().snapshot();
+        assertTrue(statistics.getRuleStatistics("JSON_STRINGS").getExecutions() == 1, "json string rule executions not recorded");
+
+        Set<String> streamed = new TreeSet<>(describeCandidates(
+            extractor.extract(new StringReader(body), "application/json", "https://target.example/", 400, 96)
+        ));
+        assertTrue(streamed.equals(new TreeSet<>(found)), "streamed json mismatch: " + streamed + " vs " + found);
+
+        String malformed = "{\"broken\": \"/api/one\", } fetch('/api/two')";
+        List<String> fallback = describeCandidates(extractor.extract(malformed, "application/json", "https://target.example/"));
+        assertTrue(fallback.contains("/api/two|relative|application/json"), "malformed json should fall back to pattern battery: " + fallback);
+
+        String unicode = "{\"a\": \"/caf\u00e9/list\", \"b\": \"https://x.example/\u00fcber\", \"c\": \"/emoji/\ud83d\ude00/x\", "
+            + "\"d\": \"/mixed/\\u00e9\u00e9/\u4e2d\u6587\", \"paths\": {\"/\u00f8rders\": {}}}";
+        List<String> fromString = describeCandidates(extractor.extract(unicode, "application/json", "https://target.example/"));
+        List<String> fromBytes = describeCandidates(extractor.extract(unicode.getBytes(StandardCharsets.UTF_8), "application/json", "https://target.example/"));
+        assertTrue(fromString.contains("/caf\u00e9/list|relative|application/json"), "non-ASCII json string not extracted: " + fromString);
+        assertTrue(fromBytes.equals(fromString), "byte-backed json differs from string json: " + fromBytes + " vs " + fromString);
+    }
+
+    private static void testHtmlTokenizerReadsAttributesAndScriptRanges() throws IOException {
+        String html = "<!doctype html><!-- <a href=\"/commented\"> --><html><body>"
+            + "<a HREF=\"about.html\">a</a><a href=\"#top\">t</a><a href=\"javascript:void(0)\">j</a>"
+            + "<form action='/login'><button formaction=/submit>go</button></form>"
+            + "<div data-api=\"/api/widgets?page=1&amp;size=20\" data-id=\"42\" data-label=\"a b\"></div>"
+            + "<script data-note=\"x>y\">var a = '/api/script-one';</script ><style>a[href='/css-only'] {}</style>"
+            + "<script>var b = '/api/script-two'; var c = '</scripts>';</script></body></html>";
+
+        List<String> attributes = new ArrayList<>();
+        List<String> scripts = new ArrayList<>();
+        List<HtmlTokenizer.AttributeKind> kinds = new ArrayList<>();
+        new HtmlTokenizer(new HtmlTokenizer.Visitor() {
+            @Override
+            public void onAttribute(HtmlTokenizer.AttributeKind kind, CharSequence name, CharSequence text, int valueStart, int valueEnd) {
+                attributes.add(name + "=" + text.subSequence(valueStart, valueEnd));
+                kinds.add(kind);
+            }
+
+            @Override
+            public void onScript(CharSequence text, int contentStart, int contentEnd) {
+                scripts.add(text.subSequence(contentStart, contentEnd).toString());
+            }
+        }).feed(html, 0L, 0, html.length());
+        assertTrue(!attributes.contains("href=/commented"), "commented markup should not be tokenized: " + attributes);
+        assertTrue(attributes.contains("href=about.html") && attributes.contains("formaction=/submit"), "attributes missing: " + attributes);
+        assertTrue(attributes.contains("data-api=/api/widgets?page=1&amp;size=20"), "data attribute missing: " + attributes);
+        for (int i = 0; i < attributes.size(); i++) {
+            HtmlTokenizer.AttributeKind expectedKind = attributes.get(i).startsWith("data-") ? HtmlTokenizer.AttributeKind.DATA : HtmlTokenizer.AttributeKind.URL;
+            assertTrue(kinds.get(i) == expectedKind, "attribute kind mismatch for " + attributes.get(i) + ": " + kinds.get(i));
+        }
+        assertTrue(!attributes.contains("href=a[href='/css-only'] {}"), "style content should be raw text: " + attributes);
+        assertTrue(scripts.size() == 2 && scripts.get(0).equals("var a = '/api/script-one';"), "script ranges mismatch: " + scripts);
+        assertTrue(scripts.get(1).endsWith("'</scripts>';"), "script end tag must be exact: " + scripts);
+
+        EndpointExtractor extractor = new EndpointExtractor();
+        Set<String> whole = new TreeSet<>(describeCandidates(extractor.extract(html, "text/html", "https://target.example/")));
+        assertTrue(whole.contains("about.html|relative|text/html"), "href without slash not extracted: " + whole);
+        assertTrue(whole.contains("/api/widgets?page=1&amp;size=20|relative|text/html"), "full data attribute value missing: " + whole);
+        assertTrue(!whole.contains("/api/widgets?page=1&amp|relative|text/html"), "truncated attribute duplicate kept: " + whole);
+        assertTrue(whole.stream().noneMatch(value -> value.startsWith("42|") || value.startsWith("#top|") || value.startsWith("javascript:")), "attribute noise extracted: " + whole);
+        assertTrue(whole.contains("/api/script-two|relative|text/html"), "script content not extracted: " + whole);
+        assertTrue(extractor.getMetrics().snapshot().getRuleStatistics("HTML_ATTRIBUTES").getHits() >= 4, "html attribute stats not recorded");
+
+        Set<String> streamed = new TreeSet<>(describeCandidates(
+            extractor.extract(new StringReader(html), "text/html", "https://target.example/", 400, 96)
+        ));
+        assertTrue(streamed.contains("about.html|relative|text/html"), "streamed href without slash not extracted: " + streamed);
+        assertTrue(streamed.contains("/api/widgets?page=1&amp;size=20|relative|text/html"), "streamed data attribute missing: " + streamed);
+    }
+
+    private static void testHtmlCandidatesFollowDocumentOrder() throws IOException {
+        String html = "<html><head><script>fetch('/api/first');</script></head><body>"
+            + "<a href=\"/second\">s</a><p>see https://docs.example/third for details</p>"
+            + "<form action=\"/fourth\"></form><script>var again = '/second'; load('/api/fifth');</script></body></html>";
+        List<String> expected = Arrays.asList("/api/first", "/second", "https://docs.example/third", "/fourth", "/api/fifth");
+
+        for (EndpointExtractor.ScanMode mode : EndpointExtractor.ScanMode.values()) {
+            EndpointExtractor extractor = new EndpointExtractor(mode);
+            List<String> fromString = rawValues(extractor.extract(html, "text/html", "https://target.example/"));
+            assertTrue(fromString.equals(expected), mode + " html candidates not in document order: " + fromString);
+            List<String> fromBytes = rawValues(extractor.extract(html.getBytes(StandardCharsets.UTF_8), "text/html", "https://target.example/"));
+            assertTrue(fromBytes.equals(expected), mode + " byte-backed html candidates not in document order: " + fromBytes);
+            List<String> streamed = rawValues(extractor.extract(new StringReader(html), "text/html", "https://target.example/", 4096, 256));
+            assertTrue(streamed.equals(expected), mode + " streamed html candidates not in document order: " + streamed);
+            assertTrue(extractor.getMetrics().snapshot().getRuleStatistics("HTML_ATTRIBUTES").getHits() == 6, mode + " html attribute hits miscounted");
+        }
+    }
+
+    private static List<String> rawValues(List<EndpointCandidate> candidates) {
+        return candidates.stream().map(EndpointCandidate::getRawValue).collect(Collectors.toList());
+    }
+
+    private static void testContentSnifferUsesBoundedPrefixAndUrlPatternCache() {
+        ContentSniffer sniffer = new ContentSniffer(256, 16);
+        assertTrue("https://cdn.example/static/*.js".equals(ContentSniffer.urlPattern("https://CDN.example/static/app.3f9a2c.js?v=7")), "url pattern mismatch");
+        assertTrue("https://a.example/download/*".equals(ContentSniffer.urlPattern("https://a.example/download/123#top")), "numeric segment not collapsed");
+
+        assertTrue("text/html".equals(sniffer.sniff("", "  <!DOCTYPE HTML><p>x</p>", "https://a.example/page/1")), "doctype not sniffed");
+        assertTrue("text/html".equals(sniffer.sniff("", "plain words only", "https://a.example/page/2")), "url pattern decision not reused");
+        assertTrue(sniffer.getCacheHits() == 1, "cache hit not counted: " + sniffer.getCacheHits());
+
+        StringBuilder late = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            late.append("binary-ish filler ");
+        }
+        late.append("<script>var x = 1;</script>");
+        assertTrue("application/octet-stream".equals(sniffer.sniff("", late, "https://a.example/blob/9")), "marker beyond prefix must not be read");
+        assertTrue("application/javascript".equals(sniffer.sniff("application/x-unknown", "!!!", "https://a.example/chunk.JS?x=1")), "js url suffix ignored");
+        assertTrue("application/json".equals(sniffer.sniff("", " {\"a\": 1}", "https://b.example/")), "json not sniffed");
+        assertTrue("application/octet-stream".equals(sniffer.sniff("", "", "https://b.example/")), "empty body should not use cache");
+        assertTrue(sniffer.getCachedPatternCount() == 3, "root urls should not be cached: " + sniffer.getCachedPatternCount());
+
+        ContentSniffer unlabelled = new ContentSniffer(256, 16);
+        for (String sourceUrl : new String[]{"", null, "https://root.example", "https://root.example/", "https://root.example/?page=2"}) {
+            assertTrue("application/json".equals(unlabelled.sniff("", "{\"a\": 1}", sourceUrl)), "json not sniffed for " + sourceUrl);
+            assertTrue("text/html".equals(unlabelled.sniff("", "<html><body></body></html>", sourceUrl)), "decision reused without a url pattern: " + sourceUrl);
+            assertTrue("application/javascript".equals(unlabelled.sniff("", "var x = 1;", sourceUrl)), "decision reused without a url pattern: " + sourceUrl);
+        }
+        assertTrue(unlabelled.getCacheHits() == 0 && unlabelled.getCachedPatternCount() == 0, "items without a url pattern must not be cached");
+    }
+
+    private static void testScanServiceSniffsContentTypeOncePerItem() {
+        EndpointExtractor extractor = new EndpointExtractor();
+        ScanService scanService = new ScanService(extractor, new EndpointNormalizer(), new EndpointRepository(), null);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://sniff.example/page/1", "", "<!DOCTYPE html><a href=\"/api/one\">x</a>", 40));
+        items.add(new HistoryItemPayload("https://sniff.example/page/2", "", "<html><script>fetch('/api/two');</script></html>", 48));
+        ScanResult result = scanService.scan(items, null, null);
+        Set<String> endpoints = scanService.getRecords().stream()
+            .map(EndpointRecord::getEndpointUrl)
+            .collect(Collectors.toSet());
+
+        assertTrue(result.getErrorCount() == 0, "sniffed items should scan cleanly: " + result.getErrorCount());
+        assertTrue(endpoints.contains("https://sniff.example/api/one") && endpoints.contains("https://sniff.example/api/two"), "sniffed endpoints missing: " + endpoints);
+        assertTrue(extractor.getContentSniffer().getCacheHits() == 1, "content type resolved more than once per item: " + extractor.getContentSniffer().getCacheHits());
+    }
+
+    private static void testCandidateHashSetAndScratchReuse() {
+        CandidateHashSet set = new CandidateHashSet(4);
+        String buffer = "xx/api/a/api/a";
+        assertTrue(set.add(new CharRange(buffer, 2, 8), false), "first value should be added");
+        assertTrue(!set.add(new CharRange(buffer, 8, 14), false), "equal range should dedupe");
+        assertTrue(set.add("/api/a", true), "absolute and relative must not collide");
+        for (int i = 0; i < 5000; i++) {
+            set.add("/bulk/" + i, false);
+        }
+        assertTrue(set.size() == 5002 && set.contains("/bulk/4999", false) && !set.contains("/bulk/4999", true), "growth lost entries");
+        assertTrue(CandidateHashSet.hash("/api/a", false) != CandidateHashSet.hash("/api/a", true), "match type not part of hash");
+        set.clear();
+        assertTrue(set.size() == 0 && !set.contains("/api/a", false), "clear should empty the set");
+
+        String body = "fetch('/api/one'); fetch('/api/one'); var s = 'https://a.example/x'; /ab+c/.test(v); axios.get('/api/two');";
+        EndpointExtractor extractor = new EndpointExtractor();
+        List<String> first = describeCandidates(extractor.extract(body, "text/plain", "https://target.example/"));
+        List<String> second = describeCandidates(extractor.extract(body, "text/plain", "https://target.example/"));
+        assertTrue(first.equals(second) && first.size() == 3, "reused scratch changed results: " + first + " vs " + second);
+        List<String> legacy = describeCandidates(new EndpointExtractor(EndpointExtractor.ScanMode.LEGACY).extract(body, "text/plain", "https://target.example/"));
+        assertTrue(legacy.equals(first), "legacy matcher reuse mismatch: " + legacy + " vs " + first);
+    }
+
+    private static void testTriggerBitmapScanMatchesPerCharacterLoop() {
+        TriggerSet triggers = new TriggerSet('/', 'h');
+        long[] bitmap = new long[2];
+        String sample = "xH/" + "-".repeat(70) + "h";
+        new ScalarTriggerScanner().mark(sample, 1, sample.length(), triggers, bitmap);
+        assertTrue(bitmap[0] == 0b11L && bitmap[1] == 1L << (sample.length() - 2 - Long.SIZE), "scalar bitmap bits are misplaced");
+        assertTrue(FusedEndpointScanner.triggerSet(TriggerKeywordFilter.ALWAYS_ENABLED_FAMILIES).size() < FusedEndpointScanner.triggerSet(TriggerKeywordFilter.ALL_FAMILIES).size(), "disabled families should shrink the trigger set");
+
+        String[] tokens = new String[]{"fetch('/api/a')", "https://x.example/p", "'../up'", "axios.post('/b')", "xhr.open('GET','/c')",
+            "new URL('/d', base)", "app.get('/e', h)", "<Route path=\"/f\"/>", "{ path: '/g' }", "HTTP://Y.EXAMPLE/Q", " ", "\n", "\u00e9/", "a/b"};
+        Random random = new Random(18L);
+        StringBuilder corpus = new StringBuilder();
+        while (corpus.length() < 20000) {
+            corpus.append(tokens[random.nextInt(tokens.length)]);
+        }
+        String text = corpus.toString();
+        List<TriggerScanner> scanners = new ArrayList<>();
+        scanners.add(TriggerScanners.scalar());
+        if (TriggerScanners.vector() != null) {
+            scanners.add(TriggerScanners.vector());
+        }
+        for (int families : new int[]{TriggerKeywordFilter.ALWAYS_ENABLED_FAMILIES, TriggerKeywordFilter.ALL_FAMILIES, 1 << FusedEndpointScanner.FETCH_CALL}) {
+            String expected = describeMatches(new FusedEndpointScanner(text, families, null).scan(7, text.length() - 3, new int[FusedEndpointScanner.FAMILY_COUNT]));
+            assertTrue(!expected.isEmpty(), "corpus should produce fused matches");
+            for (TriggerScanner scanner : scanners) {
+                String actual = describeMatches(new FusedEndpointScanner(text, families, scanner).scan(7, text.length() - 3, new int[FusedEndpointScanner.FAMILY_COUNT]));
+                assertTrue(expected.equals(actual), scanner.getName() + " bitmap scan diverged for families " + families);
+            }
+        }
+
+        TriggerScanner chosen = new FusedEndpointScanner(text, TriggerKeywordFilter.ALL_FAMILIES).getTriggerScanner();
+        boolean vectorModulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertTrue(chosen != null, "default scanner must never fall back to the per-char loop");
+        if (!vectorModulePresent) {
+            assertTrue(!TriggerScanners.isVectorAvailable(), "vector scanner should be unavailable without the incubator module");
+            assertTrue(chosen == TriggerScanners.scalar(), "scalar bitmap scanner should be chosen without the incubator module: " + chosen.getName());
+        } else {
+            assertTrue(chosen == TriggerScanners.preferred(), "preferred scanner should be chosen: " + chosen.getName());
+        }
+    }
+
+    private static void testBundleSplitterParsesModulesWithModuleCache() {
+        String chunk = "(self.webpackChunkapp=self.webpackChunkapp||[]).push([[179],{"
+            + "101:(e,t,n)=>{var p=\"/api/a\";fetch(p)},"
+            + "\"./src/b.js\":function(e,t,n){var u=\"/api/b\";axios.get(u)},"
+            + "303:e=>{const s=`x${\"}\"}`;var c=\"/api/c\";new URL(c, base)}}]);";
+        JsBundleSplitter splitter = new JsBundleSplitter(AppConfig.JS_BUNDLE_MIN_MODULES);
+        List<CharRange> modules = splitter.split(chunk, new JsSourceDocument(chunk).getLexicalRegions());
+        assertTrue(modules.size() == 3 && modules.get(2).toString().endsWith("new URL(c, base)}"), "webpack chunk modules not split: " + modules);
+        assertTrue(JsBundleSplitter.prelude(chunk, modules).contains("{101:null,\"./src/b.js\":null,303:null}"), "prelude should keep the wrapper");
+        CharSequence uncopied = new CharSequence() {
+            @Override
+            public int length() {
+                return chunk.length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return chunk.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return chunk.subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                throw new IllegalStateException("bundle marker check copied the whole source");
+            }
+        };
+        assertTrue(splitter.split(uncopied, new JsSourceDocument(chunk).getLexicalRegions()).size() == 3, "marker check should read the source in place");
+
+        String bootstrap = "(function(modules){function __webpack_require__(id){return modules[id]()}})([function(m){fetch('/x')},,function(m){fetch('/y')}]);";
+        assertTrue(splitter.split(bootstrap, new JsSourceDocument(bootstrap).getLexicalRegions()).size() == 2, "webpack 4 module array not split");
+        String amd = "define('a',[],function(){return '/a'});\ndefine('b',['a'],function(a){return '/b'});";
+        assertTrue(splitter.split(amd, new JsSourceDocument(amd).getLexicalRegions()).size() == 2, "define calls not split");
+        String plain = "var __webpack_require__ = 1; (function(){})({a: 1, b: 2});";
+        assertTrue(splitter.split(plain, new JsSourceDocument(plain).getLexicalRegions()).isEmpty(), "non-module map should not split");
+
+        EndpointExtractor extractor = new EndpointExtractor();
+        Set<String> values = extractor.extract(chunk, "application/javascript", "https://target.example/179.js").stream()
+            .map(EndpointCandidate::getRawValue)
+            .collect(Collectors.toSet());
+        assertTrue(values.contains("/api/a") && values.contains("/api/b") && values.contains("/api/c"), "module AST candidates missing: " + values);
+        JsModuleCache cache = extractor.getModuleCache();
+        assertTrue(cache.size() == 4 && cache.getMisses() == 4 && cache.getHits() == 0, "each module and the prelude should be parsed once");
+
+        String redeployed = chunk.replace("/api/b\"", "/api/b2\"");
+        Set<String> redeployedValues = extractor.extract(redeployed, "application/javascript", "https://target.example/179.js").stream()
+            .map(EndpointCandidate::getRawValue)
+            .collect(Collectors.toSet());
+        assertTrue(redeployedValues.contains("/api/b2") && !redeployedValues.contains("/api/b"), "changed module not re-parsed: " + redeployedValues);
+        assertTrue(cache.getHits() == 3 && cache.getMisses() == 5, "only the changed module should miss the cache");
+    }
+
+    private static void testPersistentExtractionCacheSurvivesRestart() throws IOException {
+        Path directory = Files.createTempDirectory("link-radar-cache");
+        String bundle = "fetch('/api/persisted'); var next = './chunk/next.js';";
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://a.example/static/main.js", "application/javascript", bundle, bundle.length()));
+
+        PersistentExtractionCache diskCache = PersistentExtractionCache.open(directory, 1024 * 1024);
+        ScanService firstSession = new ScanService(new EndpointExtractor(), new EndpointNormalizer(), new EndpointRepository(), null, diskCache);
+        ScanResult first = firstSession.scan(items, null, null);
+        firstSession.close();
+        assertTrue(first.getCacheMisses() == 1 && first.getUniqueEndpoints() > 0, "first session should extract");
+
+        PersistentExtractionCache reopened = PersistentExtractionCache.open(directory, 1024 * 1024);
+        ScanService secondSession = new ScanService(new EndpointExtractor(), new EndpointNormalizer(), new EndpointRepository(), null, reopened);
+        ScanResult second = secondSession.scan(items, null, null);
+        assertTrue(second.getCacheHits() == 1 && reopened.getHits() == 1, "restart should be served from disk");
+        assertTrue(second.getUniqueEndpoints() == first.getUniqueEndpoints(), "disk cache changed endpoints");
+
+        ExtractionRuleRegistry changedRules = ExtractionRuleRegistry.defaults()
+            .register(new PatternExtractionRule("HX_GET_ATTRIBUTE", Pattern.compile("hx-get=\"([^\"]+)\""), 1, "relative", null));
+        EndpointExtractor changedExtractor = new EndpointExtractor(EndpointExtractor.ScanMode.FUSED, changedRules);
+        assertTrue(changedExtractor.getCacheVersion() != new EndpointExtractor().getCacheVersion(), "rule changes must change the cache version");
+        ScanService changedSession = new ScanService(changedExtractor, new EndpointNormalizer(), new EndpointRepository(), null, reopened);
+        ScanResult changed = changedSession.scan(items, null, null);
+        assertTrue(changed.getCacheHits() == 0, "stale extractor version must not hit the disk cache");
+        reopened.close();
+
+        PersistentExtractionCache bounded = PersistentExtractionCache.open(directory, 2048);
+        for (int i = 0; i < 64; i++) {
+            List<EndpointCandidate> candidates = new ArrayList<>();
+            candidates.add(new EndpointCandidate("/api/bounded/" + i, null, "text/plain", "relative"));
+            bounded.put(ExtractionCache.keyOf("body-" + i, "text/plain"), 7L, candidates);
+        }
+        assertTrue(bounded.sizeInBytes() <= 2048 && bounded.size() < 64, "disk cache should stay within its byte budget");
+        List<EndpointCandidate> newest = bounded.get(ExtractionCache.keyOf("body-63", "text/plain"), 7L, "https://c.example/");
+        assertTrue(newest != null && newest.get(0).getRawValue().equals("/api/bounded/63"), "newest entry should survive eviction");
+        assertTrue(bounded.get(ExtractionCache.keyOf("body-0", "text/plain"), 7L, null) == null, "eldest entry should be evicted");
+        bounded.close();
+        Files.deleteIfExists(directory.resolve(PersistentExtractionCache.FILE_NAME));
+        Files.deleteIfExists(directory);
+    }
+
+    private static void testDegradedPatternPhaseIsNotCachedAfterEnrichment() {
+        String bundle = "var API_BASE = '/api/v5'; fetch(API_BASE + '/reports'); fetch('/api/plain');";
+        DegradingPatternExtractor extractor = new DegradingPatternExtractor();
+        ScanService scanService = new ScanService(extractor, new EndpointNormalizer(), new EndpointRepository(), null);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://c.example/static/app.js", "application/javascript", bundle, bundle.length()));
+
+        ScanResult first = scanService.scan(items, null, null);
+        assertTrue(first.getAstEnrichedItems() == 1, "deferred item should still be enriched: " + first.getAstEnrichedItems());
+        ScanResult second = scanService.scan(items, null, null);
+        assertTrue(extractor.patternCalls == 2, "degraded pattern phase should force re-extraction: " + extractor.patternCalls);
+        assertTrue(second.getCacheHits() == 0, "degraded item must not be served from cache: " + second.getCacheHits());
+    }
+
+    private static void testTwoPhaseScanPublishesPatternResultsBeforeAst() {
+        String bundle = "var API_BASE = '/api/v3'; fetch(API_BASE + '/orders'); fetch('/api/direct');";
+        byte[] page = ("<html><a href=\"/shell/home\">home</a><script>var ROOT = '/api/v4'; axios.get(ROOT + '/profile');</script></html>")
+            .getBytes(StandardCharsets.UTF_8);
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://a.example/static/main.js", "application/javascript", bundle, bundle.length()));
+        items.add(new HistoryItemPayload("https://b.example/static/main.js", "application/javascript", bundle, bundle.length()));
+        items.add(new HistoryItemPayload("https://a.example/", "text/html", null, page, null, page.length, "GET", null));
+        items.add(new HistoryItemPayload("https://a.example/robots.txt", "text/plain", "Disallow: /private/area", 23));
+
+        ScanService scanService = new ScanService(null);
+        List<Set<String>> patternSnapshots = new ArrayList<>();
+        List<ScanResult> patternResults = new ArrayList<>();
+        ScanResult result = scanService.scan(items, null, null, patternResult -> {
+            patternResults.add(patternResult);
+            patternSnapshots.add(scanService.getRecords().stream().map(EndpointRecord::getEndpointUrl).collect(Collectors.toSet()));
+        });
+        Map<String, String> origins = new HashMap<>();
+        for (EndpointRecord record : scanService.getRecords()) {
+            origins.put(record.getEndpointUrl(), record.getOrigin());
+        }
+
+        assertTrue(patternResults.size() == 1, "pattern phase listener should fire once: " + patternResults.size());
+        Set<String> patternEndpoints = patternSnapshots.get(0);
+        assertTrue(patternEndpoints.contains("https://a.example/api/direct"), "pattern endpoint not published early: " + patternEndpoints);
+        assertTrue(patternEndpoints.contains("https://a.example/shell/home"), "html endpoint not published early: " + patternEndpoints);
+        assertTrue(!patternEndpoints.contains("https://a.example/api/v3/orders"), "ast endpoint published before enrichment: " + patternEndpoints);
+        assertTrue(EndpointCandidate.ORIGIN_AST.equals(origins.get("https://a.example/api/v3/orders")), "ast endpoint missing: " + origins);
+        assertTrue(EndpointCandidate.ORIGIN_AST.equals(origins.get("https://b.example/api/v3/orders")), "repeated body not enriched: " + origins);
+        assertTrue(EndpointCandidate.ORIGIN_AST.equals(origins.get("https://a.example/api/v4/profile")), "inline script not enriched: " + origins);
+        assertTrue(EndpointCandidate.ORIGIN_PATTERN.equals(origins.get("https://a.example/api/direct")), "pattern origin lost: " + origins);
+        assertTrue(result.getAstEnrichedItems() == 3, "ast enriched items mismatch: " + result.getAstEnrichedItems());
+        assertTrue(result.getPatternPhaseMs() >= 0 && result.getAstPhaseMs() >= 0, "phase timings missing");
+        assertTrue(result.getDurationMs() >= result.getPatternPhaseMs(), "pattern phase exceeds total duration");
+        assertTrue(result.getUniqueEndpoints() > patternResults.get(0).getUniqueEndpoints(), "ast phase added nothing");
+
+        ScanResult cached = scanService.scan(items, null, null);
+        assertTrue(cached.getCacheHits() == 4 && cached.getAstEnrichedItems() == 0, "enriched results should be cached: " + cached.getCacheHits());
+        assertTrue(cached.getUniqueEndpoints() == result.getUniqueEndpoints(), "cached rescan changed endpoints");
+    }
+
+    private static void testCandidateSinkStreamsIntoBatchedRepository() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 700; i++) {
+            body.append("fetch('/api/sink/").append(i % 600).append("'); var img = '../img/").append(i).append(".png';\n");
+        }
+        String text = body.toString();
+        EndpointExtractor extractor = new EndpointExtractor();
+        for (String contentType : new String[]{"text/plain", "application/javascript", "text/html"}) {
+            List<EndpointCandidate> pushed = new ArrayList<>();
+            extractor.extract(text, contentType, "https://sink.example/app.js", ExtractionContext.unbounded(), pushed::add);
+            List<String> expected = describeCandidates(extractor.extract(text, contentType, "https://sink.example/app.js"));
+            assertTrue(describeCandidates(pushed).equals(expected), "sink and list extraction differ for " + contentType);
+
+            List<EndpointCandidate> pushedBytes = new ArrayList<>();
+            extractor.extract(text.getBytes(StandardCharsets.UTF_8), contentType, "https://sink.example/app.js", ExtractionContext.unbounded(), pushedBytes::add);
+            assertTrue(describeCandidates(pushedBytes).equals(expected), "byte sink extraction differs for " + contentType);
+        }
+        AtomicInteger streamed = new AtomicInteger();
+        extractor.extract(new StringReader(text), "text/plain", "https://sink.example/app.js", 4096, 512, ExtractionContext.unbounded(),
+            (CandidateSink) candidate -> streamed.incrementAndGet());
+        assertTrue(streamed.get() == extractor.extract(new StringReader(text), "text/plain", "https://sink.example/app.js", 4096, 512).size(),
+            "reader sink extraction differs: " + streamed.get());
+
+        EndpointRepository repository = new EndpointRepository();
+        List<EndpointRepository.Upsert> batch = new ArrayList<>();
+        batch.add(new EndpointRepository.Upsert("https://sink.example/a", "sink.example", "https://sink.example/", "GET", null, EndpointCandidate.ORIGIN_PATTERN));
+        batch.add(new EndpointRepository.Upsert("https://sink.example/a", "sink.example", "https://sink.example/other", "POST", null, EndpointCandidate.ORIGIN_AST));
+        batch.add(new EndpointRepository.Upsert("https://sink.example/b", "sink.example", "https://sink.example/", "GET", null, EndpointCandidate.ORIGIN_AST));
+        repository.upsertAll(batch);
+        List<EndpointRecord> records = repository.getAll();
+        assertTrue(records.size() == 2 && records.get(0).getCount() == 2, "batched upsert should merge duplicates");
+        assertTrue(records.get(0).getSourceUrl().equals("https://sink.example/") && records.get(1).getOrigin().equals(EndpointCandidate.ORIGIN_AST),
+            "batched upsert should keep first-seen source and origin");
+
+        List<HistoryItemPayload> items = new ArrayList<>();
+        items.add(new HistoryItemPayload("https://sink.example/app.js", "application/javascript", text, text.length()));
+        ScanResult result = new ScanService(null).scan(items, null, null);
+        List<EndpointCandidate> direct = extractor.extract(text, "application/javascript", "https://sink.example/app.js");
+        assertTrue(result.getTotalCandidates() == direct.size(), "scan candidate count mismatch: " + result.getTotalCandidates() + " vs " + direct.size());
+        assertTrue(result.getUniqueEndpoints() > AppConfig.REPOSITORY_UPSERT_BATCH_SIZE, "scan should span several upsert batches: " + result.getUniqueEndpoints());
+    }
+
+    private static void testSegmentedFusedScanMatchesSequentialScan() {
+        StringBuilder body = new StringBuilder();
+        Random random = new Random(23L);
+        String[] snippets = new String[]{
+            "fetch('/api/segment/", "https://cdn.example/assets/", "axios.get(\"/v1/", "'../img/", "app.get('/route/",
+            "xhr.open('GET', '/legacy/", "new URL('/callback/", "<Route path=\"/react/", "{ path: '/objects/", " /bare/path/",
+            "app.get('\\n,/api axios({url:{ url: https:///app.get('https://<Route path=app.get(' '\" http://x.y/"
+        };
+        while (body.length() < 256 * 1024) {
+            body.append(snippets[random.nextInt(snippets.length)]);
+            int segments = 1 + random.nextInt(12);
+            for (int i = 0; i < segments; i++) {
+                body.append("seg").append(random.nextInt(1000)).append('/');
+            }
+            body.append(random.nextBoolean() ? "'); " : "\" ").append(random.nextInt(7) == 0 ? "\n" : "x = a / b; ");
+        }
+        String text = body.toString();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (CharSequence source : new CharSequence[]{text, new Utf8ByteSequence(text.getBytes(StandardCharsets.UTF_8))}) {
+                FusedEndpointScanner.Matches sequential = new FusedEndpointScanner(source)
+                    .scan(0, source.length(), new int[FusedEndpointScanner.FAMILY_COUNT]);
+                int[] sequentialCursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+                new FusedEndpointScanner(source).scan(0, source.length(), sequentialCursors);
+                String expected = describeMatches(sequential);
+                for (int segmentCount : new int[]{2, 7, 64, 997}) {
+                    int[] cursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+                    FusedEndpointScanner.Matches segmented = new FusedEndpointScanner(source)
+                        .scanSegments(0, source.length(), cursors, ExtractionContext.unbounded(), new FusedEndpointScanner.Matches(), pool, segmentCount);
+                    assertTrue(describeMatches(segmented).equals(expected), "segmented scan differs with " + segmentCount + " segments");
+                    assertTrue(Arrays.equals(cursors, sequentialCursors), "segmented cursors differ with " + segmentCount + " segments");
+                }
+            }
+            int[] cursors = new int[FusedEndpointScanner.FAMILY_COUNT];
+            cursors[FusedEndpointScanner.RELATIVE_URL] = text.length() / 2;
+            int[] sequentialCursors = cursors.clone();
+            String expected = describeMatches(new FusedEndpointScanner(text).scan(100, text.length() - 100, sequentialCursors));
+            String actual = describeMatches(new FusedEndpointScanner(text)
+                .scanSegments(100, text.length() - 100, cursors, ExtractionContext.unbounded(), new FusedEndpointScanner.Matches(), pool, 33));
+            assertTrue(actual.equals(expected) && Arrays.equals(cursors, sequentialCursors), "segmented scan must honour incoming cursors");
+        } finally {
+            pool.shutdown();
+        }
+
+        StringBuilder large = new StringBuilder(AppConfig.PARALLEL_SCAN_MIN_CHARS + 64 * 1024);
+        while (large.length() < AppConfig.PARALLEL_SCAN_MIN_CHARS + 32 * 1024) {
+            large.append(text, 0, Math.min(text.length(), AppConfig.PARALLEL_SCAN_MIN_CHARS + 32 * 1024 - large.length()));
+        }
+        String bundle = large.toString();
+        List<String> fused = describeCandidates(new EndpointExtractor().extract(bundle, "text/plain", "https://segment.example/"));
+        List<String> legacy = describeCandidates(new EndpointExtractor(EndpointExtractor.ScanMode.LEGACY).extract(bundle, "text/plain", "https://segment.example/"));
+        assertTrue(fused.equals(legacy), "parallel fused extraction differs from legacy: " + fused.size() + " vs " + legacy.size());
+    }
+
+    private static void testRfc3986ResolverMatchesLegacyNormalizer() {
+        String[] bases = new String[]{
+            "https://target.example/app/main.js", "http://target.example/", "https://Target.Example:443/a/b/",
+            "http://target.example:80/x", "https://target.example:8443/deep/path/page.html?tab=1#top",
+            "http://10.0.0.7:8080/api/", "https://target.example/a/./b/../c/", "https://target.example",
+            "https://target.example/..", "http://a_b.example/x", "ftp://target.example/x", "not a url", null
+        };
+        String[] pieces = new String[]{
+            "", "/", "//", ".", "..", "./", "../", "api", "v1", "users", "{id}", ":id", "[slug]", "[[...all]]", "${x}",
+            "?q=1", "?", "#frag", "#", "&", "%2F", "%2e%2e", "%zz", "x.json", "a-b_c~d", "@", "$", "'", "\u00e9", "[", "|"
+        };
+        List<String> references = new ArrayList<>(Arrays.asList(
+            "/api/v1/users", "api/v1/users", "./api", "../api", "../../../../api", "/a/b/../c/./d", "a/b/..", "a/.",
+            ".", "..", "./", "/", "/api/{id}/items?sort={order}#{anchor}", "/users/:id/edit", "/blog/[slug]",
+            "/files/${name}", "/a?", "/a?#", "/a#b#c", "?q=1", "#top", "//cdn.example/x", "https://cdn.example/a/../b",
+            "HTTPS://CDN.example:8443/x?y", "http://u@host.example/", "http://[::1]/x", "http://1.2.3/x", "https://h/{a}",
+            "https://", "http:/x", "ftp://files.example/x", "mailto:a@b", "tel:123", "/caf\u00e9", "/a%20b", "/a%2", "a:b",
+            "/a:b/c", "/a//b///c/", "/..", "/api/v1/search?q=a/../b&x=1", "https://h.example.", "https://a.1b/x",
+            "https://h-.example/x", "http://256.1.1.1/x", "http://01.2.3.4/x", "https://h.example:99999/x", "https://h.example:00080/x"
+        ));
+        Random random = new Random(24L);
+        for (int i = 0; i < 4000; i++) {
+            StringBuilder reference = new StringBuilder();
+            int parts = 1 + random.nextInt(6);
+            for (int part = 0; part < parts; part++) {
+                if (random.nextInt(3) == 0) {
+                    reference.append('/');
+                }
+                reference.append(pieces[random.nextInt(pieces.length)]);
+            }
+            references.add(reference.toString());
+        }
+        EndpointNormalizer legacy = new EndpointNormalizer(EndpointNormalizer.ResolveMode.LEGACY);
+        EndpointNormalizer resolver = new EndpointNormalizer();
+        assertTrue(resolver.getResolveMode() == EndpointNormalizer.ResolveMode.RFC3986, "normalizer must default to RFC 3986 resolution");
+        for (String base : bases) {
+            for (String reference : references) {
+                EndpointCandidate candidate = new EndpointCandidate(reference, base, "text/plain", "relative");
+                String expected = legacy.normalize(candidate, base);
+                String actual = resolver.normalize(candidate, base);
+                assertTrue(
+                    expected == null ? actual == null : expected.equals(actual),
+                    "resolver differs for base=" + base + " reference=" + reference + ": " + actual + " vs " + expected
+                );
+            }
+        }
+
+        UriReferenceResolver direct = new UriReferenceResolver();
+        for (String reference : new String[]{"/api/v1/users", "api/{id}", "../img/a.png?v=2", "./x#y", "https://cdn.example/app.js", "javascript:void(0)", "//cdn.example/x"}) {
+            int result = direct.resolve(reference, "https://target.example/app/main.js", new StringBuilder());
+            assertTrue(result != UriReferenceResolver.UNSUPPORTED, "common reference should be handled natively: " + reference);
+        }
+        StringBuilder target = new StringBuilder("prefix:");
+        int outcome = direct.resolve("../v2/{id}/./items/?page={n}#x", "https://target.example:8443/api/v1/", target);
+        assertTrue(outcome == UriReferenceResolver.RESOLVED, "placeholder reference should resolve natively");
+        assertTrue(target.toString().equals("prefix:https://target.example:8443/api/v2/{id}/items/?page={n}#x"), "resolver must append into the caller's builder");
+    }
+
+    private static void testNormalizationContextPrecomputesBaseParts() {
+        NormalizationContext context = NormalizationContext.of("HTTPS://Target.Example:443/a/./b/../c/page.html?tab=1#top");
+        assertTrue(context.isResolvable(), "http base should be resolvable natively");
+        assertTrue(context.getAuthority().equals("https://Target.Example"), "authority should drop the default port: " + context.getAuthority());
+        assertTrue(context.getDirectorySegmentCount() == 2, "base directory should be pre-split without dot segments");
+        assertTrue(context.getDirectorySegment(0).equals("a") && context.getDirectorySegment(1).equals("c"), "unexpected base directory segments");
+        assertTrue(NormalizationContext.of("http://10.0.0.7:8080/").getAuthority().equals("http://10.0.0.7:8080"), "non-default port should stay in the authority");
+        assertTrue(!NormalizationContext.of("http://a_b.example/x").isResolvable(), "registry-style hosts should fall back to java.net.URI");
+        assertTrue(!NormalizationContext.of(null).isResolvable(), "missing base should not be resolvable");
+
+        String[] bases = new String[]{"https://target.example/app/main.js", "http://a_b.example/x/", "https://target.example", null};
+        String[] references = new String[]{"../v2/{id}?q=1#f", "/api/:id", "./x/[slug]", "https://cdn.example/a.js", "//cdn.example/a", "x%zz", "?q=1"};
+        for (EndpointNormalizer normalizer : new EndpointNormalizer[]{new EndpointNormalizer(), new EndpointNormalizer(EndpointNormalizer.ResolveMode.LEGACY)}) {
+            for (String base : bases) {
+                NormalizationContext prepared = normalizer.prepare(base);
+                for (String reference : references) {
+                    EndpointCandidate candidate = new EndpointCandidate(reference, base, "text/plain", "relative");
+                    String expected = normalizer.normalize(candidate, base);
+                    String actual = normalizer.normalize(candidate, prepared);
+                    assertTrue(
+                        expected == null ? actual == null : expected.equals(actual),
+                        "prepared context differs for base=" + base + " reference=" + reference + ": " + actual + " vs " + expected
+                    );
+                }
+            }
+        }
+        assertTrue(
+            "https://target.example/app/v2/{id}?q=1#f".equals(new EndpointNormalizer().normalize(
+                new EndpointCandidate("../v2/{id}?q=1#f", null, "text/plain", "relative"),
+                NormalizationContext.of("https://target.example/app/js/main.js")
+            )),
+            "relative reference should splice onto the prepared base directory"
+        );
+    }
+
+    private static void testHugeStreamedBodyIsScannedInSegments() throws IOException {
+        int size = AppConfig.STREAMING_BODY_THRESHOLD_BYTES + 256 * 1024;
+        assertTrue(AppConfig.SCRIPT_EXTRACTION_PARALLELISM >= 2, "regression run should configure a parallel scan pool");
+
+        StringBuilder body = new StringBuilder(size + 1024);
+        Random random = new Random(230L);
+        String[] snippets = new String[]{"fetch('/api/huge/", "https://cdn.example/big/", "axios.get(\"/v2/", "'../img/", "{ path: '/objects/", " caf\u00e9 "};
+        while (body.length() < size) {
+            body.append(snippets[random.nextInt(snippets.length)]).append("n").append(random.nextInt(5000)).append("/x');\n");
+            body.append("var filler = width * height - offset; total = count / pages;\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        EndpointExtractor fused = new EndpointExtractor();
+        List<String> segmented = describeCandidates(fused.extract(
+            new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), "text/plain", "https://huge.example/"
+        ));
+        ExtractionStatistics statistics = fused.getMetrics().snapshot();
+        int windows = size / (AppConfig.STREAM_WINDOW_CHARS - AppConfig.STREAM_WINDOW_OVERLAP_CHARS);
+        assertTrue(statistics.getRuleStatistics("FUSED_SEGMENTS") != null && statistics.getRuleStatistics("FUSED_SEGMENTS").getExecutions() >= windows, "streamed windows of a huge body should be scanned in segments");
+        List<String> sequential = describeCandidates(new EndpointExtractor(EndpointExtractor.ScanMode.LEGACY).extract(
+            new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), "text/plain", "https://huge.example/"
+        ));
+        assertTrue(!segmented.isEmpty() && segmented.equals(sequential), "segmented streamed body differs from sequential run: " + segmented.size() + " vs " + sequential.size());
+    }
+
+    private static String describeMatches(FusedEndpointScanner.Matches matches) {
+        StringBuilder description = new StringBuilder();
+        for (int family = 0; family < FusedEndpointScanner.FAMILY_COUNT; family++) {
+            for (int i = 0; i < matches.count(family); i++) {
+                description.append(family).append(':').append(matches.start(family, i)).append('-').append(matches.end(family, i))
+                    .append('/').append(matches.valueStart(family, i)).append('-').append(matches.valueEnd(family, i)).append(';');
+            }
+        }
+        return description.toString();
+    }
+
+    private static List<String> describeCandidates(List<EndpointCandidate> candidates) {
+        return candidates.stream()
+            .map(candidate -> candidate.getRawValue() + "|" + candidate.getMatchType() + "|" + candidate.getContentType())
+            .collect(Collectors.toList());
+    }
+
     private static String readFile(String relativePath) throws IOException {
         Path path = Path.of(relativePath);
         return Files.readString(path, StandardCharsets.UTF_8);
@@ -633,18 +1773,51 @@ public class TaskM05Regression {
         }
     }
 
+    private static class DegradingPatternExtractor extends EndpointExtractor {
+        private int patternCalls = 0;
+
+        @Override
+        public void extractWithResolvedType(String responseText, String contentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+            patternCalls += 1;
+            super.extractWithResolvedType(responseText, contentType, sourceUrl, context, sink);
+            context.markDegraded();
+        }
+    }
+
+    private static class PartialFailureExtractor extends EndpointExtractor {
+        private final int pushedBeforeFailure;
+        private final int failingCall;
+        private int callCount = 0;
+
+        private PartialFailureExtractor(int pushedBeforeFailure, int failingCall) {
+            this.pushedBeforeFailure = pushedBeforeFailure;
+            this.failingCall = failingCall;
+        }
+
+        @Override
+        public void extractWithResolvedType(String responseText, String contentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
+            callCount += 1;
+            if (callCount == failingCall) {
+                sink.accept(new EndpointCandidate("https://stable.example/api", sourceUrl, contentType, "absolute"));
+                for (int i = 0; i < pushedBeforeFailure; i++) {
+                    sink.accept(new EndpointCandidate("/partial/" + i, sourceUrl, contentType, "relative"));
+                }
+                throw new IllegalStateException("forced failure after partial extraction");
+            }
+            sink.accept(new EndpointCandidate("https://stable.example/api", sourceUrl, contentType, "absolute"));
+        }
+    }
+
     private static class ThrowingOnceExtractor extends EndpointExtractor {
         private int callCount = 0;
 
         @Override
-        public List<EndpointCandidate> extract(String responseText, String contentType, String sourceUrl) {
+        public void extractWithResolvedType(String responseText, String contentType, String sourceUrl, ExtractionContext context, CandidateSink sink) {
             callCount += 1;
             if (callCount == 1) {
                 throw new IllegalStateException("forced parse failure");
             }
-            List<EndpointCandidate> candidates = new ArrayList<>();
-            candidates.add(new EndpointCandidate("https://stable.example/api", sourceUrl, contentType, "absolute"));
-            return candidates;
+            sink.accept(new EndpointCandidate("https://stable.example/api", sourceUrl, contentType, "absolute"));
         }
     }
 }
@@ -0,0 +1,168 @@
+package com.secuworm.endpointcollector;
+
+import com.secuworm.endpointcollector.domain.EndpointExtractor;
+import com.secuworm.endpointcollector.domain.ExtractionContext;
+import com.secuworm.endpointcollector.domain.FusedEndpointScanner;
+import com.secuworm.endpointcollector.domain.TriggerKeywordFilter;
+import com.secuworm.endpointcollector.domain.TriggerScanner;
+import com.secuworm.endpointcollector.domain.TriggerScanners;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class VectorScanBenchmark {
+    private static final String SAMPLE_DIRECTORY = "resources/sample_responses";
+    private static final int[] BUNDLE_SIZES = new int[]{1024 * 1024, 4 * 1024 * 1024, 16 * 1024 * 1024, 40 * 1024 * 1024};
+    private static final int[] SEGMENT_PARALLELISM = new int[]{1, 2, 4, 8};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final String FILLER = "var state = { count: 0, items: [], total: width * height - offset };\n";
+    private static final String[] BUNDLE_SNIPPETS = new String[]{
+        "fetch('/api/v1/session').then(function (r) { return r.json(); });\n",
+        "var cdn = 'https://cdn.example/assets/app.js'; var icon = '../img/icon.png';\n",
+        "axios.get('/api/v1/items'); router.get('/health', handler);\n"
+    };
+
+    public static void main(String[] args) throws IOException {
+        List<String> samples = readSamples(args.length > 0 ? args[0] : SAMPLE_DIRECTORY);
+        TriggerScanner vector = TriggerScanners.vector();
+        System.out.println("vector scanner: " + (vector == null ? "unavailable, scalar fallback only" : vector.getName()));
+        for (int bundleSize : BUNDLE_SIZES) {
+            String bundle = buildBundle(samples, bundleSize);
+            for (int families : new int[]{TriggerKeywordFilter.ALWAYS_ENABLED_FAMILIES, TriggerKeywordFilter.ALL_FAMILIES}) {
+                int expected = scan(bundle, families, null);
+                double loopMillis = measure(bundle, families, null, expected);
+                double scalarMillis = measure(bundle, families, TriggerScanners.scalar(), expected);
+                double vectorMillis = vector == null ? Double.NaN : measure(bundle, families, vector, expected);
+                System.out.printf(
+                    "bundle=%dKiB families=%s matches=%d charLoop=%.2fms scalarBitmap=%.2fms vectorBitmap=%.2fms speedup=%.1fx%n",
+                    bundle.length() / 1024,
+                    families == TriggerKeywordFilter.ALL_FAMILIES ? "all" : "url-only",
+                    expected,
+                    loopMillis,
+                    scalarMillis,
+                    vectorMillis,
+                    loopMillis / Math.max(vector == null ? scalarMillis : vectorMillis, 0.001)
+                );
+            }
+            int expectedAll = scan(bundle, TriggerKeywordFilter.ALL_FAMILIES, null);
+            for (int parallelism : SEGMENT_PARALLELISM) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    System.out.printf(
+                        "bundle=%dKiB segmented threads=%d time=%.2fms%n",
+                        bundle.length() / 1024,
+                        parallelism,
+                        measureSegmented(bundle, pool, parallelism * 4, expectedAll)
+                    );
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            EndpointExtractor extractor = new EndpointExtractor();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                extractor.extract(bundle, "text/plain", "https://target.example/bundle");
+            }
+            long started = System.nanoTime();
+            int candidates = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                candidates = extractor.extract(bundle, "text/plain", "https://target.example/bundle").size();
+            }
+            System.out.printf(
+                "bundle=%dKiB extractor candidates=%d time=%.2fms%n",
+                bundle.length() / 1024,
+                candidates,
+                (System.nanoTime() - started) / (MEASURED_ROUNDS * 1_000_000.0)
+            );
+        }
+    }
+
+    private static double measure(String bundle, int families, TriggerScanner scanner, int expected) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            verify(scan(bundle, families, scanner), expected, scanner);
+        }
+        long nanos = 0L;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long started = System.nanoTime();
+            int count = scan(bundle, families, scanner);
+            nanos += System.nanoTime() - started;
+            verify(count, expected, scanner);
+        }
+        return nanos / (MEASURED_ROUNDS * 1_000_000.0);
+    }
+
+    private static double measureSegmented(String bundle, ForkJoinPool pool, int segments, int expected) {
+        long nanos = 0L;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long started = System.nanoTime();
+            int count = new FusedEndpointScanner(bundle, TriggerKeywordFilter.ALL_FAMILIES)
+                .scanSegments(
+                    0,
+                    bundle.length(),
+                    new int[FusedEndpointScanner.FAMILY_COUNT],
+                    ExtractionContext.unbounded(),
+                    new FusedEndpointScanner.Matches(),
+                    pool,
+                    segments
+                )
+                .totalCount();
+            if (round >= WARMUP_ROUNDS) {
+                nanos += System.nanoTime() - started;
+            }
+            if (count != expected) {
+                throw new IllegalStateException("segmented match count mismatch: " + count + " vs " + expected);
+            }
+        }
+        return nanos / (MEASURED_ROUNDS * 1_000_000.0);
+    }
+
+    private static int scan(String bundle, int families, TriggerScanner scanner) {
+        return new FusedEndpointScanner(bundle, families, scanner)
+            .scan(0, bundle.length(), new int[FusedEndpointScanner.FAMILY_COUNT], ExtractionContext.unbounded())
+            .totalCount();
+    }
+
+    private static void verify(int actual, int expected, TriggerScanner scanner) {
+        if (actual != expected) {
+            throw new IllegalStateException(scanner.getName() + " match count mismatch: " + actual + " vs " + expected);
+        }
+    }
+
+    private static List<String> readSamples(String directory) throws IOException {
+        List<String> samples = new ArrayList<>();
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            return samples;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    samples.add(Files.readString(path, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static String buildBundle(List<String> samples, int targetSize) {
+        StringBuilder bundle = new StringBuilder(targetSize + 1024);
+        int round = 0;
+        while (bundle.length() < targetSize) {
+            for (String sample : samples) {
+                bundle.append(sample).append('\n');
+            }
+            for (int i = 0; i < 40; i++) {
+                bundle.append(FILLER);
+            }
+            bundle.append(BUNDLE_SNIPPETS[round % BUNDLE_SNIPPETS.length]);
+            round += 1;
+        }
+        return bundle.toString();
+    }
+}